@@ -13,10 +13,10 @@ import java.lang.annotation.Target;
 
 data_scope	权限范围	生成的SQL条件
 1	全部数据	无额外条件
-2	自定部门数据	dept_id IN (授权部门列表)
-3	本部门数据	dept_id = 用户部门ID
-4	本部门及以下数据	dept_id IN (本部门+子部门列表)
-5	仅本人数据	user_id = 当前用户ID
+2	自定部门数据	dept_id IN (?, ...)，超过 data-permission.in-list-threshold 时关联 sys_role_dept
+3	本部门数据	dept_id = ?
+4	本部门及以下数据	dept_id IN (SELECT sd.id FROM sys_dept sd WHERE 按祖级列表前缀匹配)
+5	仅本人数据	user_id = ?（未配置userIdColumn时不匹配任何数据）
 
 
 1. 单表查询时的 @DataPermission 配置
@@ -24,7 +24,7 @@ data_scope	权限范围	生成的SQL条件
 @DataPermission(deptIdColumn = "dept_id", userIdColumn = "user_id")
 
 @DataPermission(deptAlias = "sl", userAlias = "sl", deptIdColumn = "dept_id", userIdColumn = "user_id")
-生成的SQL条件：WHERE (sl.dept_id IN (2,5,6) OR sl.user_id = 1001)
+生成的SQL条件：WHERE (sl.dept_id IN (?, ?, ?, ?) OR sl.user_id = ?)，部门ID和用户ID作为绑定参数
 
 
  * @author YWHC Team
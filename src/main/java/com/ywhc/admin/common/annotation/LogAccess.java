@@ -30,4 +30,14 @@ public @interface LogAccess {
      * 操作类型
      */
     OperationType operationType() default OperationType.QUERY;
+
+    /**
+     * 是否记录请求参数（参数含敏感信息或体积较大时关闭）
+     */
+    boolean logParams() default true;
+
+    /**
+     * 是否记录响应结果（响应含敏感信息或体积较大时关闭）
+     */
+    boolean logResult() default true;
 }
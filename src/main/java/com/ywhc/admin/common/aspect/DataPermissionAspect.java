@@ -2,16 +2,21 @@ package com.ywhc.admin.common.aspect;
 
 import com.ywhc.admin.common.annotation.DataPermission;
 import com.ywhc.admin.common.context.DataScopeContextHolder;
+import com.ywhc.admin.common.datascope.DataScope;
+import com.ywhc.admin.common.datascope.DataScopePredicate;
+import com.ywhc.admin.common.datascope.DataScopePredicateCompiler;
 import com.ywhc.admin.common.util.SecurityUtils;
 import com.ywhc.admin.modules.system.dept.service.SysDeptService;
+import com.ywhc.admin.modules.system.dept.support.DeptHierarchyIndex;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import lombok.RequiredArgsConstructor;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * 数据权限切面
@@ -26,6 +31,20 @@ import java.util.stream.Collectors;
 public class DataPermissionAspect {
 
     private final SysDeptService deptService;
+    private final DeptHierarchyIndex deptHierarchyIndex;
+
+    /**
+     * 使用IN列表的最大部门数
+     */
+    @Value("${data-permission.in-list-threshold:64}")
+    private int inListThreshold;
+
+    private DataScopePredicateCompiler predicateCompiler;
+
+    @PostConstruct
+    public void init() {
+        predicateCompiler = new DataScopePredicateCompiler(inListThreshold);
+    }
 
     /**
      * 数据权限处理
@@ -69,57 +88,34 @@ public class DataPermissionAspect {
         }
 
         // 获取用户数据权限范围
-        Set<Long> dataScope = deptService.getDataScope(userId);
-        log.debug("DataPermission - 用户 {} 的数据权限范围: {}", userId, dataScope);
-        
-        if (dataScope != null && !dataScope.isEmpty()) {
-            // 构建数据权限SQL片段
-            StringBuilder sqlString = new StringBuilder();
-            
-            if (dataPermission.filterDept()) {
-                String deptAlias = dataPermission.deptAlias();
-                String deptColumn = dataPermission.deptIdColumn();
-                
-                if (!deptAlias.isEmpty()) {
-                    sqlString.append(deptAlias).append(".");
-                }
-                sqlString.append(deptColumn).append(" IN (");
-                sqlString.append(dataScope.stream()
-                    .map(String::valueOf)
-                    .collect(Collectors.joining(",")));
-                sqlString.append(")");
-            }
-            
-            if (dataPermission.filterUser()) {
-                String userColumn = dataPermission.userIdColumn();
-                
-                // 只有当用户列名不为空时才添加用户权限条件
-                if (userColumn != null && !userColumn.trim().isEmpty()) {
-                    if (sqlString.length() > 0) {
-                        sqlString.append(" OR ");
-                    }
-                    
-                    String userAlias = dataPermission.userAlias();
-                    
-                    if (!userAlias.isEmpty()) {
-                        sqlString.append(userAlias).append(".");
-                    }
-                    sqlString.append(userColumn);
-                    sqlString.append(" = ").append(userId);
-                }
-            }
-            
-            // 将SQL片段存储到ThreadLocal中
-            if (sqlString.length() > 0) {
-                String finalSql = "(" + sqlString.toString() + ")";
-                DataScopeContextHolder.setDataScope(finalSql);
-                log.debug("DataPermission - 生成的数据权限SQL: {}", finalSql);
-            }
+        DataScope dataScope = deptService.resolveDataScope(userId);
+
+        String deptColumn = null;
+        if (dataPermission.filterDept()) {
+            deptColumn = qualify(dataPermission.deptAlias(), dataPermission.deptIdColumn());
+        }
+
+        String userColumn = null;
+        // 只有当用户列名不为空时才添加用户权限条件
+        if (dataPermission.filterUser() && StringUtils.hasText(dataPermission.userIdColumn())) {
+            userColumn = qualify(dataPermission.userAlias(), dataPermission.userIdColumn());
+        }
+
+        // 构建数据权限SQL条件，存储到ThreadLocal中
+        DataScopePredicate predicate = predicateCompiler.compile(dataScope, deptColumn, userColumn, userId,
+            deptHierarchyIndex.current());
+        if (predicate != null) {
+            DataScopeContextHolder.setDataScope(predicate);
+            log.debug("DataPermission - 生成的数据权限SQL: {}, 参数: {}", predicate.sql(), predicate.parameters());
         } else {
-            log.debug("DataPermission - 用户 {} 没有数据权限范围或为空", userId);
+            log.debug("DataPermission - 用户 {} 不需要数据权限过滤", userId);
         }
     }
 
+    private static String qualify(String alias, String column) {
+        return alias.isEmpty() ? column : alias + "." + column;
+    }
+
     /**
      * 清理数据权限
      */
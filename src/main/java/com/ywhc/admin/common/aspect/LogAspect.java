@@ -1,16 +1,18 @@
 package com.ywhc.admin.common.aspect;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ywhc.admin.common.annotation.LogAccess;
+import com.ywhc.admin.common.ip.IpRegionSearcher;
+import com.ywhc.admin.common.payload.LogPayloadSerializer;
 import com.ywhc.admin.common.util.SecurityUtils;
 import com.ywhc.admin.modules.system.log.entity.SysLog;
-import com.ywhc.admin.modules.system.log.service.LogService;
+import com.ywhc.admin.modules.system.log.support.OperationLogWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -32,9 +34,22 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class LogAspect {
 
-    private final LogService logService;
-    private final ObjectMapper objectMapper;
+    private final OperationLogWriter operationLogWriter;
+    private final LogPayloadSerializer logPayloadSerializer;
     private final SecurityUtils securityUtils;
+    private final IpRegionSearcher ipRegionSearcher;
+
+    /**
+     * 请求参数最大记录长度
+     */
+    @Value("${operation-log.max-params-length:1000}")
+    private int maxParamsLength;
+
+    /**
+     * 响应结果最大记录长度
+     */
+    @Value("${operation-log.max-result-length:2000}")
+    private int maxResultLength;
 
     @Around("@annotation(com.ywhc.admin.common.annotation.LogAccess)")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
@@ -57,11 +72,13 @@ public class LogAspect {
             sysLog.setRequestMethod(request.getMethod());
             sysLog.setRequestUrl(request.getRequestURI());
             sysLog.setIpAddress(getClientIpAddress(request));
+            sysLog.setLocation(ipRegionSearcher.search(sysLog.getIpAddress()));
             sysLog.setUserAgent(request.getHeader("User-Agent"));
 
             // 获取请求参数
-            String params = getRequestParams(joinPoint, request);
-            sysLog.setRequestParams(params);
+            if (logAccess == null || logAccess.logParams()) {
+                sysLog.setRequestParams(getRequestParams(joinPoint, request));
+            }
         }
 
         // 设置注解信息
@@ -99,17 +116,9 @@ public class LogAspect {
             sysLog.setStatus(1); // 成功
             sysLog.setExecutionTime(System.currentTimeMillis() - startTime);
 
-            // 记录响应结果（可选，避免过大的响应数据）
-            if (result != null) {
-                try {
-                    String resultStr = objectMapper.writeValueAsString(result);
-                    if (resultStr.length() > 2000) {
-                        resultStr = resultStr.substring(0, 2000) + "...";
-                    }
-                    sysLog.setResponseResult(resultStr);
-                } catch (Exception e) {
-                    sysLog.setResponseResult("响应结果序列化失败");
-                }
+            // 记录响应结果（达到长度上限即停止序列化，分页只记录条数）
+            if (result != null && (logAccess == null || logAccess.logResult())) {
+                sysLog.setResponseResult(logPayloadSerializer.serialize(result, maxResultLength));
             }
 
         } catch (Exception e) {
@@ -120,9 +129,9 @@ public class LogAspect {
 
             throw e; // 重新抛出异常
         } finally {
-            // 异步保存日志
+            // 放入异步写入队列，由写线程批量保存
             try {
-                logService.saveLog(sysLog);
+                operationLogWriter.submit(sysLog);
             } catch (Exception e) {
                 log.error("保存操作日志失败: {}", e.getMessage());
             }
@@ -140,26 +149,8 @@ public class LogAspect {
             Object[] args = joinPoint.getArgs();
             String[] paramNames = ((MethodSignature) joinPoint.getSignature()).getParameterNames();
 
-            StringBuilder params = new StringBuilder();
-
-            // 添加URL参数
-            if (request.getQueryString() != null) {
-                params.append("Query: ").append(request.getQueryString()).append("; ");
-            }
-
-            // 添加方法参数
-            if (args != null && args.length > 0) {
-                params.append("Args: ");
-                for (int i = 0; i < args.length; i++) {
-                    if (args[i] != null) {
-                        String paramName = paramNames != null && i < paramNames.length ? paramNames[i] : "arg" + i;
-                        params.append(paramName).append("=").append(args[i].toString()).append("; ");
-                    }
-                }
-            }
-
-            String result = params.toString();
-            return result.length() > 1000 ? result.substring(0, 1000) + "..." : result;
+            // 查询串和方法参数写入同一个限长缓冲，超过长度即停止
+            return logPayloadSerializer.serializeArguments(request.getQueryString(), paramNames, args, maxParamsLength);
 
         } catch (Exception e) {
             return "参数获取失败: " + e.getMessage();
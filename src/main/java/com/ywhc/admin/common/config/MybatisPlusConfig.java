@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.ywhc.admin.common.context.RequestUserContextHolder;
 import com.ywhc.admin.common.interceptor.DataPermissionInterceptor;
 import org.apache.ibatis.reflection.MetaObject;
 import org.mybatis.spring.annotation.MapperScan;
@@ -79,6 +80,11 @@ public class MybatisPlusConfig {
              */
             private Long getCurrentUserId() {
                 try {
+                    // 优先读取请求用户上下文
+                    Long userId = RequestUserContextHolder.getUserId();
+                    if (userId != null) {
+                        return userId;
+                    }
                     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
                     if (authentication != null && authentication.getPrincipal() instanceof com.ywhc.admin.common.security.service.SecurityUser securityUser) {
                         return securityUser.getUserId();
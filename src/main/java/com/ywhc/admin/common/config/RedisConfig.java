@@ -6,13 +6,20 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ywhc.admin.common.redis.CompactCodec;
+import com.ywhc.admin.common.redis.CompactRedisSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
 /**
  * Redis配置类
  *
@@ -22,11 +29,25 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class RedisConfig {
 
+    /**
+     * 是否将已注册编解码器的类型写为紧凑二进制格式（关闭时仍可读取）
+     * 默认关闭，全部节点都已升级到可读取二进制格式的版本后再开启
+     */
+    @Value("${redis-serializer.compact-write:false}")
+    private boolean compactWrite;
+
+    /**
+     * 二进制负载压缩阈值（字节）
+     */
+    @Value("${redis-serializer.compress-threshold:1024}")
+    private int compressThreshold;
+
     /**
      * RedisTemplate配置
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       ObjectProvider<CompactCodec<?>> codecs) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
@@ -41,9 +62,14 @@ public class RedisConfig {
 
         // 使用Jackson2JsonRedisSerializer来序列化和反序列化redis的value值
         // 在构造函数中直接传入ObjectMapper（新的推荐方式）
-        Jackson2JsonRedisSerializer<Object> serializer = new Jackson2JsonRedisSerializer<>(mapper, Object.class);
+        Jackson2JsonRedisSerializer<Object> jsonSerializer = new Jackson2JsonRedisSerializer<>(mapper, Object.class);
 
-        // 值采用json序列化
+        // 注册了编解码器的类型采用紧凑二进制序列化，其余（包括Lua脚本直接读写的字符串值）仍为json
+        List<CompactCodec<?>> codecList = codecs.orderedStream().toList();
+        CompactRedisSerializer serializer = new CompactRedisSerializer(
+            jsonSerializer, codecList, compactWrite, compressThreshold);
+
+        // 值序列化
         template.setValueSerializer(serializer);
         template.setHashValueSerializer(serializer);
 
@@ -54,4 +80,15 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Redis消息监听容器
+     * 用于多节点之间通过发布/订阅同步本地缓存失效
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 }
@@ -0,0 +1,29 @@
+package com.ywhc.admin.common.constant;
+
+/**
+ * 在线会话相关的Redis Key前缀
+ * 会话存储、索引、黑名单过滤器和Lua脚本调用方共用，前缀只在此处定义
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class RedisKeys {
+
+    /**
+     * 在线会话 online_user:{token}
+     */
+    public static final String ONLINE_USER_KEY = "online_user:";
+
+    /**
+     * Token黑名单 token_blacklist:{token}
+     */
+    public static final String TOKEN_BLACKLIST_KEY = "token_blacklist:";
+
+    /**
+     * 用户Token映射 user_tokens:{userId}
+     */
+    public static final String USER_TOKEN_KEY = "user_tokens:";
+
+    private RedisKeys() {
+    }
+}
@@ -1,31 +1,33 @@
 package com.ywhc.admin.common.context;
 
+import com.ywhc.admin.common.datascope.DataScopePredicate;
+
 /**
  * 数据权限上下文持有者
- * 用于在ThreadLocal中存储数据权限SQL片段
+ * 用于在ThreadLocal中存储数据权限SQL条件
  * 
  * @author YWHC Team
  * @since 2024-01-01
  */
 public class DataScopeContextHolder {
     
-    private static final ThreadLocal<String> DATA_SCOPE_CONTEXT = new ThreadLocal<>();
+    private static final ThreadLocal<DataScopePredicate> DATA_SCOPE_CONTEXT = new ThreadLocal<>();
     
     /**
-     * 设置数据权限SQL片段
+     * 设置数据权限SQL条件
      * 
-     * @param dataScope SQL片段
+     * @param dataScope SQL条件及绑定参数
      */
-    public static void setDataScope(String dataScope) {
+    public static void setDataScope(DataScopePredicate dataScope) {
         DATA_SCOPE_CONTEXT.set(dataScope);
     }
     
     /**
-     * 获取数据权限SQL片段
+     * 获取数据权限SQL条件
      * 
-     * @return SQL片段
+     * @return SQL条件及绑定参数
      */
-    public static String getDataScope() {
+    public static DataScopePredicate getDataScope() {
         return DATA_SCOPE_CONTEXT.get();
     }
     
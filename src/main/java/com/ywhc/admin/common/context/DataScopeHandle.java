@@ -0,0 +1,39 @@
+package com.ywhc.admin.common.context;
+
+import com.ywhc.admin.common.datascope.DataScope;
+
+import java.util.function.Supplier;
+
+/**
+ * 数据权限范围句柄
+ * 随请求用户上下文创建，同一请求内多次查询只计算一次数据权限范围
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class DataScopeHandle {
+
+    private volatile DataScope dataScope;
+
+    /**
+     * 获取数据权限范围，首次访问时计算
+     *
+     * @param loader 数据权限范围加载器
+     * @return 数据权限范围
+     */
+    public DataScope getOrLoad(Supplier<DataScope> loader) {
+        DataScope loaded = dataScope;
+        if (loaded == null) {
+            loaded = loader.get();
+            dataScope = loaded;
+        }
+        return loaded;
+    }
+
+    /**
+     * 是否已计算
+     */
+    public boolean isLoaded() {
+        return dataScope != null;
+    }
+}
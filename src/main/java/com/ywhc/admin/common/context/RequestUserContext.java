@@ -0,0 +1,68 @@
+package com.ywhc.admin.common.context;
+
+import com.ywhc.admin.common.security.service.SecurityUser;
+import com.ywhc.admin.modules.system.user.entity.SysUser;
+import lombok.Getter;
+
+/**
+ * 请求用户上下文
+ * 由JwtAuthenticationFilter在认证成功后构建一次，请求期间不可变
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Getter
+public final class RequestUserContext {
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 部门ID
+     */
+    private final Long deptId;
+
+    /**
+     * 部门名称
+     */
+    private final String deptName;
+
+    /**
+     * 构建上下文时的权限版本
+     */
+    private final long permissionVersion;
+
+    /**
+     * 数据权限范围句柄
+     */
+    private final DataScopeHandle dataScope;
+
+    public RequestUserContext(Long userId, String username, Long deptId, String deptName, long permissionVersion) {
+        this.userId = userId;
+        this.username = username;
+        this.deptId = deptId;
+        this.deptName = deptName;
+        this.permissionVersion = permissionVersion;
+        this.dataScope = new DataScopeHandle();
+    }
+
+    /**
+     * 根据认证用户构建上下文
+     *
+     * @param securityUser      认证用户
+     * @param permissionVersion 权限版本
+     * @return 请求用户上下文
+     */
+    public static RequestUserContext of(SecurityUser securityUser, long permissionVersion) {
+        SysUser user = securityUser.getUser();
+        return new RequestUserContext(user.getId(), user.getUsername(), user.getDeptId(), user.getDeptName(),
+            permissionVersion);
+    }
+}
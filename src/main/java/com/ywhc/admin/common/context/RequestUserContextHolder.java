@@ -0,0 +1,74 @@
+package com.ywhc.admin.common.context;
+
+/**
+ * 请求用户上下文持有者
+ * 用于在ThreadLocal中存储当前请求的用户上下文
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public class RequestUserContextHolder {
+
+    private static final ThreadLocal<RequestUserContext> USER_CONTEXT = new ThreadLocal<>();
+
+    /**
+     * 设置请求用户上下文
+     *
+     * @param context 请求用户上下文
+     */
+    public static void set(RequestUserContext context) {
+        USER_CONTEXT.set(context);
+    }
+
+    /**
+     * 获取请求用户上下文
+     *
+     * @return 请求用户上下文，未认证时返回null
+     */
+    public static RequestUserContext get() {
+        return USER_CONTEXT.get();
+    }
+
+    /**
+     * 获取当前用户ID
+     *
+     * @return 用户ID，未认证时返回null
+     */
+    public static Long getUserId() {
+        RequestUserContext context = USER_CONTEXT.get();
+        return context != null ? context.getUserId() : null;
+    }
+
+    /**
+     * 清除请求用户上下文
+     */
+    public static void clear() {
+        USER_CONTEXT.remove();
+    }
+
+    /**
+     * 包装任务，使其在执行线程中持有提交线程的用户上下文
+     *
+     * @param runnable 任务
+     * @return 包装后的任务
+     */
+    public static Runnable wrap(Runnable runnable) {
+        RequestUserContext context = USER_CONTEXT.get();
+        if (context == null) {
+            return runnable;
+        }
+        return () -> {
+            RequestUserContext previous = USER_CONTEXT.get();
+            USER_CONTEXT.set(context);
+            try {
+                runnable.run();
+            } finally {
+                if (previous != null) {
+                    USER_CONTEXT.set(previous);
+                } else {
+                    USER_CONTEXT.remove();
+                }
+            }
+        };
+    }
+}
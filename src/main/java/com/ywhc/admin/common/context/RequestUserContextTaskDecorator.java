@@ -0,0 +1,20 @@
+package com.ywhc.admin.common.context;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求用户上下文任务装饰器
+ * Spring Boot会将其应用到默认的applicationTaskExecutor，使@Async等异步任务可以读取提交时的用户上下文
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Component
+public class RequestUserContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return RequestUserContextHolder.wrap(runnable);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ywhc.admin.common.datascope;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 用户数据权限范围
+ * 保留各角色授权的原始结构（全部、指定部门、自定义角色部门、部门子树），
+ * 由 {@link DataScopePredicateCompiler} 按结构生成SQL条件，而不是先展开成全部部门ID
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class DataScope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final DataScope ALL = new DataScope(true);
+
+    private final boolean all;
+
+    /**
+     * 单独授权的部门（本部门数据权限）
+     */
+    private final Set<Long> deptIds = new LinkedHashSet<>();
+
+    /**
+     * 自定部门数据权限的角色
+     */
+    private final Set<Long> customRoleIds = new LinkedHashSet<>();
+
+    /**
+     * 自定部门数据权限角色授权的部门
+     */
+    private final Set<Long> customDeptIds = new LinkedHashSet<>();
+
+    /**
+     * 部门子树：子树根部门ID -> 根部门路径（祖级列表,根部门ID，如 0,1,5）
+     */
+    private final Map<Long, String> subtrees = new LinkedHashMap<>();
+
+    public DataScope() {
+        this(false);
+    }
+
+    private DataScope(boolean all) {
+        this.all = all;
+    }
+
+    /**
+     * 全部数据权限
+     */
+    public static DataScope all() {
+        return ALL;
+    }
+
+    /**
+     * 添加单独授权的部门
+     */
+    public DataScope addDept(Long deptId) {
+        checkMutable();
+        deptIds.add(deptId);
+        return this;
+    }
+
+    /**
+     * 添加自定部门数据权限角色及其授权的部门
+     */
+    public DataScope addCustomRole(Long roleId, Collection<Long> roleDeptIds) {
+        checkMutable();
+        customRoleIds.add(roleId);
+        customDeptIds.addAll(roleDeptIds);
+        return this;
+    }
+
+    /**
+     * 添加部门子树（含根部门）
+     *
+     * @param rootId 子树根部门ID
+     * @param path   根部门路径，即根部门的祖级列表加上根部门ID
+     */
+    public DataScope addSubtree(Long rootId, String path) {
+        checkMutable();
+        subtrees.put(rootId, path);
+        return this;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+
+    public Set<Long> getDeptIds() {
+        return Collections.unmodifiableSet(deptIds);
+    }
+
+    public Set<Long> getCustomRoleIds() {
+        return Collections.unmodifiableSet(customRoleIds);
+    }
+
+    public Set<Long> getCustomDeptIds() {
+        return Collections.unmodifiableSet(customDeptIds);
+    }
+
+    public Map<Long, String> getSubtrees() {
+        return Collections.unmodifiableMap(subtrees);
+    }
+
+    /**
+     * 是否没有任何部门授权（如仅本人数据权限或未分配角色）
+     */
+    public boolean isEmpty() {
+        return !all && deptIds.isEmpty() && customDeptIds.isEmpty() && subtrees.isEmpty();
+    }
+
+    private void checkMutable() {
+        if (all) {
+            throw new IllegalStateException("全部数据权限不能再添加范围");
+        }
+    }
+
+    private Object readResolve() {
+        return all ? ALL : this;
+    }
+}
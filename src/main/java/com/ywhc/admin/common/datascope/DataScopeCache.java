@@ -0,0 +1,109 @@
+package com.ywhc.admin.common.datascope;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 用户数据权限范围缓存
+ * 按用户ID缓存解析后的数据权限范围，条目记录缓存时的用户权限版本。
+ * 复用 {@link UserDetailsCache} 的权限版本号：角色（含数据范围）、用户角色、用户部门变更时递增用户版本，
+ * 部门树调整时递增全局版本，版本不一致的条目视为失效并重新加载，多节点通过权限变更通知同步版本
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataScopeCache {
+
+    private final UserDetailsCache userDetailsCache;
+
+    @Value("${data-permission.scope-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${data-permission.scope-cache.max-size:10000}")
+    private int maxSize;
+
+    /**
+     * 兜底过期时间（毫秒），防止丢失失效消息时长期使用旧数据
+     */
+    @Value("${data-permission.scope-cache.ttl:600000}")
+    private long ttl;
+
+    private LRUCache<Long, CachedScope> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheUtil.newLRUCache(maxSize, ttl);
+    }
+
+    /**
+     * 获取用户数据权限范围，未命中或版本已变化时加载
+     *
+     * @param userId 用户ID
+     * @param loader 数据权限范围加载器
+     * @return 数据权限范围
+     */
+    public DataScope get(Long userId, Function<Long, DataScope> loader) {
+        if (!enabled || userId == null) {
+            return loader.apply(userId);
+        }
+        // 先取版本再加载，加载期间发生的变更会使本次写入的条目在下次访问时失效
+        long version = userDetailsCache.getPermissionVersion(userId);
+        if (version == UserDetailsCache.UNKNOWN_VERSION) {
+            missCount.increment();
+            return loader.apply(userId);
+        }
+        CachedScope cachedScope = cache.get(userId, false);
+        if (cachedScope != null && cachedScope.version() == version) {
+            hitCount.increment();
+            return cachedScope.scope();
+        }
+
+        missCount.increment();
+        DataScope scope = loader.apply(userId);
+        cache.put(userId, new CachedScope(scope, version));
+        log.debug("已缓存用户数据权限范围: userId={}, version={}", userId, version);
+        return scope;
+    }
+
+    /**
+     * 缓存条目数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 缓存条目：数据权限范围及缓存时的权限版本
+     */
+    private record CachedScope(DataScope scope, long version) {
+    }
+}
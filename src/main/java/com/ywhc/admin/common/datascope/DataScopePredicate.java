@@ -0,0 +1,24 @@
+package com.ywhc.admin.common.datascope;
+
+import java.util.List;
+
+/**
+ * 数据权限SQL条件
+ * 条件中的值全部使用 ? 占位，按出现顺序绑定parameters，相同结构的条件生成相同的SQL文本
+ *
+ * @param sql        条件SQL片段
+ * @param parameters 绑定参数
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public record DataScopePredicate(String sql, List<Object> parameters) {
+
+    /**
+     * 不匹配任何数据的条件
+     */
+    public static final DataScopePredicate NONE = new DataScopePredicate("1 = 0", List.of());
+
+    public DataScopePredicate {
+        parameters = List.copyOf(parameters);
+    }
+}
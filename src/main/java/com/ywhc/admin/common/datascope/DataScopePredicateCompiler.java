@@ -0,0 +1,145 @@
+package com.ywhc.admin.common.datascope;
+
+import com.ywhc.admin.modules.system.dept.support.DeptHierarchy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 数据权限条件编译器
+ * 根据数据权限范围的结构生成带绑定参数的SQL条件，各部分之间为OR：
+ * <pre>
+ * 全部数据权限          不生成条件
+ * 单个部门              dept_id = ?
+ * 少量部门（不超过阈值） dept_id IN (?, ?, ...)
+ * 自定部门超过阈值      dept_id IN (SELECT rd.dept_id FROM sys_role_dept rd WHERE rd.role_id IN (?))
+ * 本部门及以下          dept_id IN (SELECT sd.id FROM sys_dept sd WHERE sd.deleted = 0
+ *                          AND (sd.id = ? OR sd.ancestors = ? OR sd.ancestors LIKE ?))
+ * 本人数据              user_id = ?
+ * </pre>
+ * 提供部门层级快照时，展开后不超过阈值的部门子树直接并入IN列表，否则按祖级列表前缀匹配；
+ * IN列表的参数个数补齐到2的幂（重复最后一个值），减少不同长度的SQL文本，便于语句缓存复用
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class DataScopePredicateCompiler {
+
+    private final int inListThreshold;
+
+    /**
+     * @param inListThreshold 使用IN列表的最大部门数，超过时自定部门改为关联角色部门表
+     */
+    public DataScopePredicateCompiler(int inListThreshold) {
+        this.inListThreshold = Math.max(1, inListThreshold);
+    }
+
+    /**
+     * 编译数据权限条件
+     *
+     * @param scope      数据权限范围
+     * @param deptColumn 部门字段（含表别名），不按部门过滤时为null
+     * @param userColumn 用户字段（含表别名），不按用户过滤时为null
+     * @param userId     当前用户ID
+     * @return 不需要过滤时返回null；没有任何可访问数据时返回 {@link DataScopePredicate#NONE}
+     */
+    public DataScopePredicate compile(DataScope scope, String deptColumn, String userColumn, Long userId) {
+        return compile(scope, deptColumn, userColumn, userId, null);
+    }
+
+    /**
+     * 编译数据权限条件，使用部门层级快照展开较小的部门子树
+     *
+     * @param hierarchy 部门层级快照，为null时部门子树全部按祖级列表前缀匹配
+     * @see #compile(DataScope, String, String, Long)
+     */
+    public DataScopePredicate compile(DataScope scope, String deptColumn, String userColumn, Long userId,
+                                      DeptHierarchy hierarchy) {
+        if (scope.isAll() || (deptColumn == null && userColumn == null)) {
+            return null;
+        }
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+
+        if (deptColumn != null) {
+            Set<Long> literalDeptIds = new LinkedHashSet<>(scope.getDeptIds());
+            boolean joinRoleDept = !scope.getCustomRoleIds().isEmpty()
+                && scope.getDeptIds().size() + scope.getCustomDeptIds().size() > inListThreshold;
+            if (!joinRoleDept) {
+                literalDeptIds.addAll(scope.getCustomDeptIds());
+            }
+            Map<Long, String> prefixSubtrees = new LinkedHashMap<>();
+            for (Map.Entry<Long, String> subtree : scope.getSubtrees().entrySet()) {
+                int size = hierarchy != null ? hierarchy.subtreeSize(subtree.getKey()) : 0;
+                if (size > 0 && literalDeptIds.size() + size <= inListThreshold) {
+                    for (long deptId : hierarchy.descendants(subtree.getKey())) {
+                        literalDeptIds.add(deptId);
+                    }
+                } else {
+                    prefixSubtrees.put(subtree.getKey(), subtree.getValue());
+                }
+            }
+            if (!literalDeptIds.isEmpty()) {
+                conditions.add(deptColumn + in(literalDeptIds, parameters));
+            }
+            if (joinRoleDept) {
+                conditions.add(deptColumn + " IN (SELECT rd.dept_id FROM sys_role_dept rd WHERE rd.role_id"
+                    + in(scope.getCustomRoleIds(), parameters) + ")");
+            }
+            if (!prefixSubtrees.isEmpty()) {
+                conditions.add(deptColumn + " IN (SELECT sd.id FROM sys_dept sd WHERE sd.deleted = 0 AND ("
+                    + subtrees(prefixSubtrees, parameters) + "))");
+            }
+        }
+
+        if (userColumn != null && userId != null) {
+            conditions.add(userColumn + " = ?");
+            parameters.add(userId);
+        }
+
+        if (conditions.isEmpty()) {
+            return DataScopePredicate.NONE;
+        }
+        return new DataScopePredicate(String.join(" OR ", conditions), parameters);
+    }
+
+    /**
+     * 生成 " = ?" 或 " IN (?, ...)"，参数个数补齐到2的幂
+     */
+    private static String in(Collection<Long> values, List<Object> parameters) {
+        if (values.size() == 1) {
+            parameters.add(values.iterator().next());
+            return " = ?";
+        }
+        Long last = null;
+        for (Long value : values) {
+            parameters.add(value);
+            last = value;
+        }
+        int padded = Integer.highestOneBit(values.size() - 1) << 1;
+        for (int i = values.size(); i < padded; i++) {
+            parameters.add(last);
+        }
+        return " IN (" + "?, ".repeat(padded - 1) + "?)";
+    }
+
+    /**
+     * 部门子树条件：根部门本身、直接下级（祖级列表等于根路径）、更深层级（祖级列表以 根路径, 开头）
+     */
+    private static String subtrees(Map<Long, String> subtrees, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>(subtrees.size());
+        for (Map.Entry<Long, String> subtree : subtrees.entrySet()) {
+            conditions.add("sd.id = ? OR sd.ancestors = ? OR sd.ancestors LIKE ?");
+            parameters.add(subtree.getKey());
+            parameters.add(subtree.getValue());
+            parameters.add(subtree.getValue() + ",%");
+        }
+        return String.join(" OR ", conditions);
+    }
+}
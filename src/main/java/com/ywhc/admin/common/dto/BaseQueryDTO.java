@@ -25,6 +25,20 @@ public class BaseQueryDTO {
     
     @Schema(description = "排序方向 - asc/desc")
     private String orderDirection = "desc";
+
+    @Schema(description = "是否使用游标分页（按排序字段和ID定位，不统计总数，适合深度翻页）")
+    private Boolean cursorMode = false;
+
+    @Schema(description = "游标分页续查令牌，取自上一页返回的nextCursor")
+    private String cursor;
+
+    /**
+     * 是否为游标分页
+     * 显式开启或携带了续查令牌时生效
+     */
+    public boolean isCursorPaging() {
+        return Boolean.TRUE.equals(cursorMode) || (cursor != null && !cursor.trim().isEmpty());
+    }
     
     /**
      * 获取排序SQL片段
@@ -0,0 +1,33 @@
+package com.ywhc.admin.common.dto;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 游标分页结果
+ * 按排序字段和ID定位下一页，不执行COUNT查询，total固定为-1；
+ * 继承Page保持IPage返回类型不变，前端通过nextCursor续查，hasMore为false时表示已到末页
+ *
+ * @param <T> 记录类型
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Getter
+@Setter
+@Schema(description = "游标分页结果")
+public class CursorPage<T> extends Page<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "下一页游标，为空表示没有更多数据")
+    private String nextCursor;
+
+    @Schema(description = "是否还有更多数据")
+    private boolean hasMore;
+
+    public CursorPage(long size) {
+        super(1, size, -1, false);
+    }
+}
@@ -1,30 +1,49 @@
 package com.ywhc.admin.common.interceptor;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
 import com.ywhc.admin.common.context.DataScopeContextHolder;
+import com.ywhc.admin.common.datascope.DataScopePredicate;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.jsqlparser.JSQLParserException;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.Parenthesis;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.plugin.*;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 数据权限拦截器
  * 自动为查询SQL添加数据权限条件
- * 
+ *
+ * <p>每条原始SQL只用JSqlParser解析一次：在WHERE中放入占位标记后还原为SQL，以标记位置切分为前后两段作为改写模板，
+ * 按 (MappedStatement ID, 原始SQL) 缓存；之后同一SQL只需把数据权限条件拼接到切分点，不再解析。
+ * 改写后的MappedStatement只引用原始MappedStatement，数据权限条件在生成BoundSql时从上下文读取，
+ * 与具体条件无关，因此按原始MappedStatement缓存复用。</p>
+ *
+ * <p>数据权限条件中的值使用 ? 占位，绑定参数作为附加参数插入到切分点之前的参数之后，
+ * 相同结构的条件生成相同的SQL文本。</p>
+ *
  * @author YWHC Team
  * @since 2024-01-01
  */
@@ -35,89 +54,171 @@ import java.util.Properties;
 })
 public class DataPermissionInterceptor implements Interceptor {
 
+    /**
+     * 切分点占位标记，作为列名放入WHERE，还原SQL后按其位置切分
+     */
+    private static final String SPLICE_MARKER = "__ywhc_data_scope__";
+
+    /**
+     * 无法改写的SQL（非单个SELECT或解析失败），缓存后直接执行原查询
+     */
+    static final RewritePlan NOT_REWRITABLE = new RewritePlan(null, null, 0);
+
+    /**
+     * 数据权限绑定参数的附加参数名前缀
+     */
+    private static final String PARAMETER_PREFIX = "__data_scope_";
+
+    /**
+     * 改写模板缓存条数
+     */
+    @Value("${data-permission.plan-cache-size:1024}")
+    private int planCacheSize = 1024;
+
+    private LRUCache<PlanKey, RewritePlan> planCache;
+
+    /**
+     * 改写后的MappedStatement：原始MappedStatement ID -> 改写后的MappedStatement
+     */
+    private final Map<String, MappedStatement> scopedStatements = new ConcurrentHashMap<>();
+
+    private final LongAdder planHitCount = new LongAdder();
+    private final LongAdder planMissCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        planCache = CacheUtil.newLRUCache(planCacheSize);
+    }
+
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
         Object[] args = invocation.getArgs();
         MappedStatement mappedStatement = (MappedStatement) args[0];
-        Object parameter = args[1];
-        // Note: rowBounds and resultHandler are part of the method signature but not used in this interceptor
-        
-        // 获取数据权限SQL片段
-        String dataScope = DataScopeContextHolder.getDataScope();
-        
+        // Note: parameter, rowBounds and resultHandler are part of the method signature but not used in this interceptor
+
+        // 获取数据权限SQL条件
+        DataScopePredicate dataScope = DataScopeContextHolder.getDataScope();
+
         // 如果没有数据权限条件，直接执行原查询
-        if (dataScope == null || dataScope.trim().isEmpty()) {
+        if (dataScope == null) {
             return invocation.proceed();
         }
-        
+
+        // 替换为带数据权限的MappedStatement，SQL在执行器生成BoundSql时改写
+        args[0] = scopedStatement(mappedStatement);
+        return invocation.proceed();
+    }
+
+    /**
+     * 改写模板缓存命中次数
+     */
+    public long getPlanHitCount() {
+        return planHitCount.sum();
+    }
+
+    /**
+     * 改写模板缓存未命中（解析SQL）次数
+     */
+    public long getPlanMissCount() {
+        return planMissCount.sum();
+    }
+
+    /**
+     * 改写模板缓存条数
+     */
+    public int getPlanCacheSize() {
+        return planCache.size();
+    }
+
+    /**
+     * 获取SQL的改写模板
+     */
+    private RewritePlan rewritePlan(String statementId, String originalSql) {
+        PlanKey key = new PlanKey(statementId, originalSql);
+        RewritePlan plan = planCache.get(key, false);
+        if (plan == null) {
+            planMissCount.increment();
+            plan = buildPlan(originalSql);
+            planCache.put(key, plan);
+        } else {
+            planHitCount.increment();
+        }
+        return plan;
+    }
+
+    /**
+     * 解析SQL生成改写模板
+     * 原WHERE条件加括号后与占位标记用AND连接，避免原条件中的OR与数据权限条件的优先级问题
+     */
+    static RewritePlan buildPlan(String originalSql) {
+        if (originalSql.contains(SPLICE_MARKER)) {
+            return NOT_REWRITABLE;
+        }
         try {
-            // 获取原始SQL
-            BoundSql boundSql = mappedStatement.getBoundSql(parameter);
-            String originalSql = boundSql.getSql();
-            
-            // 解析并修改SQL
-            String modifiedSql = addDataScopeToSql(originalSql, dataScope);
-            
-            if (!originalSql.equals(modifiedSql)) {
-                log.debug("Original SQL: {}", originalSql);
-                log.debug("Modified SQL: {}", modifiedSql);
-                log.debug("Data Scope: {}", dataScope);
-                
-                // 创建新的BoundSql
-                BoundSql newBoundSql = new BoundSql(mappedStatement.getConfiguration(), modifiedSql, 
-                    boundSql.getParameterMappings(), parameter);
-                
-                // 复制动态参数
-                for (String key : boundSql.getAdditionalParameters().keySet()) {
-                    newBoundSql.setAdditionalParameter(key, boundSql.getAdditionalParameter(key));
-                }
-                
-                // 创建新的MappedStatement
-                MappedStatement newMappedStatement = copyMappedStatement(mappedStatement, new BoundSqlSqlSource(newBoundSql));
-                args[0] = newMappedStatement;
+            Statement statement = CCJSqlParserUtil.parse(originalSql);
+            if (!(statement instanceof Select select) || !(select.getSelectBody() instanceof PlainSelect plainSelect)) {
+                return NOT_REWRITABLE;
             }
+
+            Expression marker = new Parenthesis(new Column(SPLICE_MARKER));
+            Expression whereExpression = plainSelect.getWhere();
+            if (whereExpression != null) {
+                // 如果已有WHERE条件，使用AND连接
+                plainSelect.setWhere(new AndExpression(new Parenthesis(whereExpression), marker));
+            } else {
+                // 如果没有WHERE条件，直接设置
+                plainSelect.setWhere(marker);
+            }
+
+            String template = select.toString();
+            int index = template.indexOf(SPLICE_MARKER);
+            if (index < 0 || template.indexOf(SPLICE_MARKER, index + 1) >= 0) {
+                return NOT_REWRITABLE;
+            }
+            String prefix = template.substring(0, index);
+            return new RewritePlan(prefix, template.substring(index + SPLICE_MARKER.length()), countPlaceholders(prefix));
         } catch (Exception e) {
-            log.warn("Failed to apply data permission to SQL, executing original query. Error: {}", e.getMessage());
+            log.warn("Failed to parse SQL for data permission: {}", e.getMessage());
+            return NOT_REWRITABLE;
         }
-        
-        return invocation.proceed();
     }
-    
+
     /**
-     * 为SQL添加数据权限条件
+     * 统计引号外的 ? 占位符个数
      */
-    private String addDataScopeToSql(String originalSql, String dataScope) {
-        try {
-            Statement statement = CCJSqlParserUtil.parse(originalSql);
-            
-            if (statement instanceof Select) {
-                Select select = (Select) statement;
-                PlainSelect plainSelect = (PlainSelect) select.getSelectBody();
-                
-                // 解析数据权限条件
-                Expression dataScopeExpression = CCJSqlParserUtil.parseCondExpression(dataScope);
-                
-                // 获取原有的WHERE条件
-                Expression whereExpression = plainSelect.getWhere();
-                
-                if (whereExpression != null) {
-                    // 如果已有WHERE条件，使用AND连接
-                    AndExpression andExpression = new AndExpression(whereExpression, new Parenthesis(dataScopeExpression));
-                    plainSelect.setWhere(andExpression);
-                } else {
-                    // 如果没有WHERE条件，直接设置
-                    plainSelect.setWhere(dataScopeExpression);
+    static int countPlaceholders(String sql) {
+        int count = 0;
+        char quote = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
                 }
-                
-                return select.toString();
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            } else if (c == '?') {
+                count++;
             }
-        } catch (JSQLParserException e) {
-            log.warn("Failed to parse SQL for data permission: {}", e.getMessage());
         }
-        
-        return originalSql;
+        return count;
+    }
+
+    /**
+     * 获取原始MappedStatement对应的改写后MappedStatement
+     */
+    private MappedStatement scopedStatement(MappedStatement ms) {
+        MappedStatement scoped = scopedStatements.get(ms.getId());
+        // 其他插件可能以相同ID动态创建MappedStatement，不是同一个对象时重新创建
+        if (scoped == null || ((DataScopeSqlSource) scoped.getSqlSource()).original != ms) {
+            scoped = copyMappedStatement(ms, new DataScopeSqlSource(ms));
+            scopedStatements.put(ms.getId(), scoped);
+        }
+        return scoped;
     }
-    
+
     /**
      * 复制MappedStatement
      */
@@ -139,30 +240,106 @@ public class DataPermissionInterceptor implements Interceptor {
         builder.useCache(ms.isUseCache());
         return builder.build();
     }
-    
+
     @Override
     public Object plugin(Object target) {
         return Plugin.wrap(target, this);
     }
-    
+
     @Override
     public void setProperties(Properties properties) {
         // 可以在这里设置一些配置属性
     }
-    
+
     /**
-     * 自定义SqlSource
+     * 带数据权限的SqlSource
+     * 先由原始MappedStatement生成BoundSql，再按当前线程的数据权限条件改写SQL，
+     * 并在切分点之前的参数映射之后插入数据权限条件的参数映射
      */
-    public static class BoundSqlSqlSource implements SqlSource {
-        private final BoundSql boundSql;
-        
-        public BoundSqlSqlSource(BoundSql boundSql) {
-            this.boundSql = boundSql;
+    private final class DataScopeSqlSource implements SqlSource {
+
+        private final MappedStatement original;
+
+        private DataScopeSqlSource(MappedStatement original) {
+            this.original = original;
         }
-        
+
         @Override
         public BoundSql getBoundSql(Object parameterObject) {
-            return boundSql;
+            BoundSql boundSql = original.getBoundSql(parameterObject);
+            DataScopePredicate dataScope = DataScopeContextHolder.getDataScope();
+            if (dataScope == null) {
+                return boundSql;
+            }
+
+            String originalSql = boundSql.getSql();
+            RewritePlan plan = rewritePlan(original.getId(), originalSql);
+            if (plan == NOT_REWRITABLE || plan.parametersBefore > boundSql.getParameterMappings().size()) {
+                return boundSql;
+            }
+            String modifiedSql = plan.splice(dataScope.sql());
+            if (log.isDebugEnabled()) {
+                log.debug("Original SQL: {}", originalSql);
+                log.debug("Modified SQL: {}", modifiedSql);
+                log.debug("Data Scope: {}", dataScope);
+            }
+
+            // 插入数据权限条件的参数映射
+            List<ParameterMapping> parameterMappings = new ArrayList<>(boundSql.getParameterMappings());
+            List<Object> parameters = dataScope.parameters();
+            List<ParameterMapping> scopeMappings = new ArrayList<>(parameters.size());
+            for (int i = 0; i < parameters.size(); i++) {
+                scopeMappings.add(new ParameterMapping.Builder(original.getConfiguration(), PARAMETER_PREFIX + i,
+                    parameters.get(i).getClass()).build());
+            }
+            parameterMappings.addAll(plan.parametersBefore, scopeMappings);
+
+            // 创建新的BoundSql
+            BoundSql newBoundSql = new BoundSql(original.getConfiguration(), modifiedSql,
+                parameterMappings, parameterObject);
+
+            // 复制动态参数
+            for (String key : boundSql.getAdditionalParameters().keySet()) {
+                newBoundSql.setAdditionalParameter(key, boundSql.getAdditionalParameter(key));
+            }
+            for (int i = 0; i < parameters.size(); i++) {
+                newBoundSql.setAdditionalParameter(PARAMETER_PREFIX + i, parameters.get(i));
+            }
+            return newBoundSql;
+        }
+    }
+
+    /**
+     * 改写模板缓存键
+     */
+    private record PlanKey(String statementId, String sql) {
+    }
+
+    /**
+     * SQL改写模板：数据权限条件拼接在前后两段之间
+     */
+    static final class RewritePlan {
+
+        private final String prefix;
+        private final String suffix;
+
+        /**
+         * 切分点之前的 ? 占位符个数，数据权限条件的参数映射插入到该位置
+         */
+        private final int parametersBefore;
+
+        RewritePlan(String prefix, String suffix, int parametersBefore) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.parametersBefore = parametersBefore;
+        }
+
+        String splice(String dataScope) {
+            return prefix + dataScope + suffix;
+        }
+
+        int parametersBefore() {
+            return parametersBefore;
         }
     }
 }
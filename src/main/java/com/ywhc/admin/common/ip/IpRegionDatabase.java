@@ -0,0 +1,361 @@
+package com.ywhc.admin.common.ip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 离线IP地址库（内存映射只读）
+ * 文件由 {@link IpRegionDatabaseBuilder} 生成，IPv4/IPv6分别保存按起始地址排序的区间起点和地区索引，
+ * 每个区间覆盖到下一个区间起点之前，地区名称集中存放并在加载时解码为字符串表；
+ * 查询为无分支二分查找，直接读取映射内存，除地址解析外不产生任何对象分配
+ *
+ * <pre>
+ * 文件格式（大端序）：
+ * 0  int 魔数 YIPR
+ * 4  int 版本号
+ * 8  int IPv4区间数     12 int IPv6区间数     16 int 地区数
+ * 20 int IPv4起点偏移   24 int IPv4地区偏移
+ * 28 int IPv6起点偏移   32 int IPv6地区偏移
+ * 36 int 地区偏移表偏移 40 int 地区数据偏移
+ * IPv4起点：int[]（无符号），IPv6起点：long[2][]（高位、低位，无符号），地区索引：int[]（-1表示无数据）
+ * 地区偏移表：int[地区数 + 1]，地区数据：UTF-8
+ * </pre>
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class IpRegionDatabase {
+
+    static final int MAGIC = 0x59495052;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+
+    /**
+     * 无数据区间的地区索引
+     */
+    static final int NO_REGION = -1;
+
+    private final ByteBuffer buffer;
+    private final int v4Count;
+    private final int v6Count;
+    private final int v4StartsOffset;
+    private final int v4RegionsOffset;
+    private final int v6StartsOffset;
+    private final int v6RegionsOffset;
+    private final String[] regions;
+
+    private IpRegionDatabase(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("不是有效的IP地址库文件");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("不支持的IP地址库版本: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.v4Count = buffer.getInt(8);
+        this.v6Count = buffer.getInt(12);
+        int regionCount = buffer.getInt(16);
+        this.v4StartsOffset = buffer.getInt(20);
+        this.v4RegionsOffset = buffer.getInt(24);
+        this.v6StartsOffset = buffer.getInt(28);
+        this.v6RegionsOffset = buffer.getInt(32);
+        int regionOffsetsOffset = buffer.getInt(36);
+        int regionDataOffset = buffer.getInt(40);
+
+        // 地区表很小，加载时一次性解码，查询直接返回同一个字符串实例
+        this.regions = new String[regionCount];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < regionCount; i++) {
+            int start = buffer.getInt(regionOffsetsOffset + (i << 2));
+            int end = buffer.getInt(regionOffsetsOffset + ((i + 1) << 2));
+            int length = end - start;
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            buffer.get(regionDataOffset + start, bytes, 0, length);
+            regions[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 以内存映射方式打开地址库文件
+     *
+     * @param path 文件路径
+     * @return 地址库
+     */
+    public static IpRegionDatabase open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射建立后即使关闭通道也保持有效
+            return new IpRegionDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 从内存数据打开地址库
+     */
+    static IpRegionDatabase wrap(ByteBuffer buffer) {
+        return new IpRegionDatabase(buffer);
+    }
+
+    /**
+     * 查询IP所属地区
+     *
+     * @param ip IPv4或IPv6地址
+     * @return 地区，地址无效或库中无数据时返回null
+     */
+    public String search(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            long v4 = parseIpv4(ip, 0, ip.length());
+            return v4 < 0 ? null : searchV4((int) v4);
+        }
+        int end = ipv6End(ip);
+        if (!isValidIpv6(ip, end)) {
+            return null;
+        }
+        long hi = parseIpv6(ip, end, true);
+        long lo = parseIpv6(ip, end, false);
+        // IPv4映射地址 ::ffff:a.b.c.d 按IPv4查询
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            return searchV4((int) lo);
+        }
+        return searchV6(hi, lo);
+    }
+
+    /**
+     * 按IPv4地址查询
+     */
+    public String searchV4(int ip) {
+        if (v4Count == 0) {
+            return null;
+        }
+        long key = Integer.toUnsignedLong(ip);
+        int base = 0;
+        int length = v4Count;
+        // 无分支二分：循环次数固定为log2(n)，比较结果只决定base是否前移（编译为条件传送）
+        while (length > 1) {
+            int half = length >>> 1;
+            long start = Integer.toUnsignedLong(buffer.getInt(v4StartsOffset + ((base + half) << 2)));
+            base = start <= key ? base + half : base;
+            length -= half;
+        }
+        return region(buffer.getInt(v4RegionsOffset + (base << 2)));
+    }
+
+    /**
+     * 按IPv6地址（高64位、低64位）查询
+     */
+    public String searchV6(long hi, long lo) {
+        if (v6Count == 0) {
+            return null;
+        }
+        int base = 0;
+        int length = v6Count;
+        while (length > 1) {
+            int half = length >>> 1;
+            int offset = v6StartsOffset + ((base + half) << 4);
+            long startHi = buffer.getLong(offset);
+            long startLo = buffer.getLong(offset + 8);
+            int cmpHi = Long.compareUnsigned(startHi, hi);
+            boolean notAfter = cmpHi < 0 | (cmpHi == 0 & Long.compareUnsigned(startLo, lo) <= 0);
+            base = notAfter ? base + half : base;
+            length -= half;
+        }
+        return region(buffer.getInt(v6RegionsOffset + (base << 2)));
+    }
+
+    public int getV4Count() {
+        return v4Count;
+    }
+
+    public int getV6Count() {
+        return v6Count;
+    }
+
+    public int getRegionCount() {
+        return regions.length;
+    }
+
+    private String region(int index) {
+        return index == NO_REGION ? null : regions[index];
+    }
+
+    /**
+     * 解析IPv4地址
+     *
+     * @return 无符号32位地址，格式无效时返回-1
+     */
+    static long parseIpv4(String ip, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int i = from;
+        while (i <= to) {
+            int value = 0;
+            int digits = 0;
+            while (i < to && ip.charAt(i) >= '0' && ip.charAt(i) <= '9') {
+                value = value * 10 + (ip.charAt(i) - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 3 || value > 255) {
+                return -1;
+            }
+            address = (address << 8) | value;
+            octets++;
+            if (i == to) {
+                break;
+            }
+            if (ip.charAt(i) != '.' || octets == 4) {
+                return -1;
+            }
+            i++;
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    /**
+     * IPv6地址有效部分的结束位置（去掉%后的区域标识）
+     */
+    static int ipv6End(String ip) {
+        int zone = ip.indexOf('%');
+        return zone < 0 ? ip.length() : zone;
+    }
+
+    /**
+     * 校验IPv6地址格式
+     */
+    static boolean isValidIpv6(String ip, int end) {
+        return parseIpv6Groups(ip, end, true, true) >= 0;
+    }
+
+    /**
+     * 解析IPv6地址的高64位或低64位（地址需已通过校验）
+     */
+    static long parseIpv6(String ip, int end, boolean high) {
+        return parseIpv6Groups(ip, end, high, false);
+    }
+
+    /**
+     * 逐字符解析IPv6地址，"::"前后的分组分别累积为两个128位值，最后按分组数移位合并
+     *
+     * @param validate true时只校验格式，返回0表示有效、-1表示无效
+     */
+    private static long parseIpv6Groups(String ip, int end, boolean high, boolean validate) {
+        long headHi = 0;
+        long headLo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = 0;
+        while (i < end) {
+            if (ip.charAt(i) == ':') {
+                if (i + 1 < end && ip.charAt(i + 1) == ':' && !compressed) {
+                    compressed = true;
+                    i += 2;
+                    continue;
+                }
+                return validate ? -1 : 0;
+            }
+
+            int j = i;
+            int value = 0;
+            while (j < end && j - i < 4 && hexValue(ip.charAt(j)) >= 0) {
+                value = (value << 4) | hexValue(ip.charAt(j));
+                j++;
+            }
+            int groups;
+            if (j < end && ip.charAt(j) == '.') {
+                // 末尾内嵌IPv4地址，占两个分组
+                long v4 = parseIpv4(ip, i, end);
+                if (v4 < 0) {
+                    return validate ? -1 : 0;
+                }
+                groups = 2;
+                value = (int) v4;
+                j = end;
+            } else {
+                if (j == i) {
+                    return validate ? -1 : 0;
+                }
+                groups = 1;
+            }
+
+            if (compressed) {
+                tailHi = groups == 2 ? (tailHi << 32) | (tailLo >>> 32) : (tailHi << 16) | (tailLo >>> 48);
+                tailLo = groups == 2 ? (tailLo << 32) | Integer.toUnsignedLong(value) : (tailLo << 16) | value;
+                tailGroups += groups;
+            } else {
+                headHi = groups == 2 ? (headHi << 32) | (headLo >>> 32) : (headHi << 16) | (headLo >>> 48);
+                headLo = groups == 2 ? (headLo << 32) | Integer.toUnsignedLong(value) : (headLo << 16) | value;
+                headGroups += groups;
+            }
+            if (headGroups + tailGroups > 8) {
+                return validate ? -1 : 0;
+            }
+
+            i = j;
+            if (i < end) {
+                if (ip.charAt(i) != ':') {
+                    return validate ? -1 : 0;
+                }
+                // 单个冒号是分隔符，双冒号留给下一轮处理
+                if (i + 1 < end && ip.charAt(i + 1) == ':') {
+                    continue;
+                }
+                i++;
+                if (i == end) {
+                    return validate ? -1 : 0;
+                }
+            }
+        }
+
+        int total = headGroups + tailGroups;
+        if (compressed ? total > 7 : total != 8) {
+            return validate ? -1 : 0;
+        }
+        if (validate) {
+            return 0;
+        }
+
+        // 头部分组左移到高位，与尾部分组合并
+        int shift = (8 - headGroups) * 16;
+        long hi;
+        long lo;
+        if (shift == 0) {
+            hi = headHi;
+            lo = headLo;
+        } else if (shift < 64) {
+            hi = (headHi << shift) | (headLo >>> (64 - shift));
+            lo = headLo << shift;
+        } else if (shift < 128) {
+            hi = headLo << (shift - 64);
+            lo = 0;
+        } else {
+            hi = 0;
+            lo = 0;
+        }
+        return high ? hi | tailHi : lo | tailLo;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
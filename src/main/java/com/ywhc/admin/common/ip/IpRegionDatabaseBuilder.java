@@ -0,0 +1,266 @@
+package com.ywhc.admin.common.ip;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IP地址库生成工具
+ * 将CSV格式的IP区间数据转换为 {@link IpRegionDatabase} 使用的二进制文件。
+ * CSV每行格式：起始IP,结束IP,地区（地区中可包含逗号），支持IPv4与IPv6混合，
+ * 空行和#开头的行忽略，首行无法解析时视为表头跳过；相邻且地区相同的区间会合并，区间重叠时报错
+ *
+ * <pre>
+ * java -cp app.jar com.ywhc.admin.common.ip.IpRegionDatabaseBuilder ip-region.csv ip-region.db
+ * </pre>
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class IpRegionDatabaseBuilder {
+
+    private IpRegionDatabaseBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法: IpRegionDatabaseBuilder <CSV文件> <输出文件>");
+            System.exit(1);
+        }
+        Path output = Paths.get(args[1]);
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            build(reader, output);
+        }
+        IpRegionDatabase database = IpRegionDatabase.open(output);
+        System.out.printf("生成完成: IPv4区间=%d, IPv6区间=%d, 地区=%d%n",
+            database.getV4Count(), database.getV6Count(), database.getRegionCount());
+    }
+
+    /**
+     * 生成地址库文件：先写临时文件再原子替换，运行中的服务可直接热加载
+     *
+     * @param csv    CSV数据
+     * @param output 输出文件
+     */
+    public static void build(Reader csv, Path output) throws IOException {
+        Path parent = output.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, output.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                build(csv, out);
+            }
+            Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 生成地址库数据
+     *
+     * @param csv CSV数据
+     * @param out 输出流
+     */
+    public static void build(Reader csv, OutputStream out) throws IOException {
+        List<Range> v4Ranges = new ArrayList<>();
+        List<Range> v6Ranges = new ArrayList<>();
+        Map<String, Integer> regionIndex = new LinkedHashMap<>();
+
+        BufferedReader reader = csv instanceof BufferedReader br ? br : new BufferedReader(csv);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Range range = parseLine(line, regionIndex);
+            if (range == null) {
+                if (lineNumber == 1) {
+                    continue;
+                }
+                throw new IllegalArgumentException("第" + lineNumber + "行格式错误: " + line);
+            }
+            (range.v6 ? v6Ranges : v4Ranges).add(range);
+        }
+
+        List<Range> v4Entries = toEntries(v4Ranges, false);
+        List<Range> v6Entries = toEntries(v6Ranges, true);
+
+        ByteArrayOutputStream regionData = new ByteArrayOutputStream();
+        int[] regionOffsets = new int[regionIndex.size() + 1];
+        int i = 0;
+        for (String region : regionIndex.keySet()) {
+            regionOffsets[i++] = regionData.size();
+            regionData.writeBytes(region.getBytes(StandardCharsets.UTF_8));
+        }
+        regionOffsets[i] = regionData.size();
+
+        int v4StartsOffset = IpRegionDatabase.HEADER_SIZE;
+        int v4RegionsOffset = v4StartsOffset + v4Entries.size() * 4;
+        int v6StartsOffset = v4RegionsOffset + v4Entries.size() * 4;
+        int v6RegionsOffset = v6StartsOffset + v6Entries.size() * 16;
+        int regionOffsetsOffset = v6RegionsOffset + v6Entries.size() * 4;
+        int regionDataOffset = regionOffsetsOffset + regionOffsets.length * 4;
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(IpRegionDatabase.MAGIC);
+        data.writeInt(IpRegionDatabase.VERSION);
+        data.writeInt(v4Entries.size());
+        data.writeInt(v6Entries.size());
+        data.writeInt(regionIndex.size());
+        data.writeInt(v4StartsOffset);
+        data.writeInt(v4RegionsOffset);
+        data.writeInt(v6StartsOffset);
+        data.writeInt(v6RegionsOffset);
+        data.writeInt(regionOffsetsOffset);
+        data.writeInt(regionDataOffset);
+        data.writeInt(0);
+
+        for (Range entry : v4Entries) {
+            data.writeInt((int) entry.startLo);
+        }
+        for (Range entry : v4Entries) {
+            data.writeInt(entry.region);
+        }
+        for (Range entry : v6Entries) {
+            data.writeLong(entry.startHi);
+            data.writeLong(entry.startLo);
+        }
+        for (Range entry : v6Entries) {
+            data.writeInt(entry.region);
+        }
+        for (int offset : regionOffsets) {
+            data.writeInt(offset);
+        }
+        regionData.writeTo(data);
+        data.flush();
+    }
+
+    private static Range parseLine(String line, Map<String, Integer> regionIndex) {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        if (second < 0) {
+            return null;
+        }
+        String start = line.substring(0, first).trim();
+        String end = line.substring(first + 1, second).trim();
+        String region = line.substring(second + 1).trim();
+        if (region.isEmpty()) {
+            return null;
+        }
+
+        Range range = new Range();
+        range.v6 = start.indexOf(':') >= 0;
+        if (range.v6 != end.indexOf(':') >= 0) {
+            return null;
+        }
+        if (range.v6) {
+            int startEnd = IpRegionDatabase.ipv6End(start);
+            int endEnd = IpRegionDatabase.ipv6End(end);
+            if (!IpRegionDatabase.isValidIpv6(start, startEnd) || !IpRegionDatabase.isValidIpv6(end, endEnd)) {
+                return null;
+            }
+            range.startHi = IpRegionDatabase.parseIpv6(start, startEnd, true);
+            range.startLo = IpRegionDatabase.parseIpv6(start, startEnd, false);
+            range.endHi = IpRegionDatabase.parseIpv6(end, endEnd, true);
+            range.endLo = IpRegionDatabase.parseIpv6(end, endEnd, false);
+        } else {
+            range.startLo = IpRegionDatabase.parseIpv4(start, 0, start.length());
+            range.endLo = IpRegionDatabase.parseIpv4(end, 0, end.length());
+            if (range.startLo < 0 || range.endLo < 0) {
+                return null;
+            }
+        }
+        if (compare(range.startHi, range.startLo, range.endHi, range.endLo) > 0) {
+            return null;
+        }
+        range.region = regionIndex.computeIfAbsent(region, key -> regionIndex.size());
+        return range;
+    }
+
+    /**
+     * 排序后转换为连续的区间起点：区间之间的空隙插入无数据条目，相邻同地区条目合并
+     */
+    private static List<Range> toEntries(List<Range> ranges, boolean v6) {
+        ranges.sort(Comparator.<Range, Long>comparing(r -> r.startHi, Long::compareUnsigned)
+            .thenComparing(r -> r.startLo, Long::compareUnsigned));
+
+        List<Range> entries = new ArrayList<>();
+        if (ranges.isEmpty()) {
+            return entries;
+        }
+        // 下一个未覆盖的地址，exhausted表示已覆盖到地址空间末尾
+        long nextHi = 0;
+        long nextLo = 0;
+        boolean exhausted = false;
+        for (Range range : ranges) {
+            if (exhausted || compare(range.startHi, range.startLo, nextHi, nextLo) < 0) {
+                throw new IllegalArgumentException("IP区间重叠: " + describe(range, v6));
+            }
+            if (compare(range.startHi, range.startLo, nextHi, nextLo) > 0) {
+                addEntry(entries, nextHi, nextLo, IpRegionDatabase.NO_REGION);
+            }
+            addEntry(entries, range.startHi, range.startLo, range.region);
+
+            long maxHi = v6 ? -1L : 0L;
+            long maxLo = v6 ? -1L : 0xFFFFFFFFL;
+            if (range.endHi == maxHi && range.endLo == maxLo) {
+                exhausted = true;
+            } else {
+                nextLo = range.endLo + 1;
+                nextHi = nextLo == 0 ? range.endHi + 1 : range.endHi;
+            }
+        }
+        if (!exhausted) {
+            addEntry(entries, nextHi, nextLo, IpRegionDatabase.NO_REGION);
+        }
+        return entries;
+    }
+
+    private static void addEntry(List<Range> entries, long startHi, long startLo, int region) {
+        if (!entries.isEmpty() && entries.get(entries.size() - 1).region == region) {
+            return;
+        }
+        Range entry = new Range();
+        entry.startHi = startHi;
+        entry.startLo = startLo;
+        entry.region = region;
+        entries.add(entry);
+    }
+
+    private static int compare(long hi1, long lo1, long hi2, long lo2) {
+        int cmp = Long.compareUnsigned(hi1, hi2);
+        return cmp != 0 ? cmp : Long.compareUnsigned(lo1, lo2);
+    }
+
+    private static String describe(Range range, boolean v6) {
+        return v6
+            ? String.format("%016x%016x", range.startHi, range.startLo)
+            : String.valueOf(range.startLo);
+    }
+
+    private static final class Range {
+        private boolean v6;
+        private long startHi;
+        private long startLo;
+        private long endHi;
+        private long endLo;
+        private int region;
+    }
+}
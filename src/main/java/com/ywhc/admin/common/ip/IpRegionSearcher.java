@@ -0,0 +1,140 @@
+package com.ywhc.admin.common.ip;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * IP归属地查询
+ * 加载离线IP地址库，定期检查文件变化并热替换，无需重启；
+ * 更新地址库时应写入新文件后原子重命名覆盖（IpRegionDatabaseBuilder默认如此），不要原地改写正在映射的文件
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class IpRegionSearcher {
+
+    public static final String LOCAL = "本地";
+    public static final String INTRANET = "内网IP";
+    public static final String UNKNOWN = "未知";
+
+    /**
+     * 地址库文件路径，为空时只识别本地与内网地址
+     */
+    @Value("${ip-region.db-path:}")
+    private String dbPath;
+
+    private volatile IpRegionDatabase database;
+
+    /**
+     * 已加载文件的修改时间与大小，用于判断是否需要重新加载
+     */
+    private volatile long loadedModifiedTime;
+    private volatile long loadedSize;
+
+    @PostConstruct
+    public void init() {
+        reloadIfChanged();
+    }
+
+    /**
+     * 查询IP归属地
+     *
+     * @param ip IP地址
+     * @return 归属地，本地地址返回“本地”，内网地址返回“内网IP”，无法识别时返回“未知”
+     */
+    public String search(String ip) {
+        if (!StringUtils.hasText(ip)) {
+            return UNKNOWN;
+        }
+        if (isLoopback(ip)) {
+            return LOCAL;
+        }
+        if (isIntranet(ip)) {
+            return INTRANET;
+        }
+        IpRegionDatabase current = database;
+        if (current == null) {
+            return UNKNOWN;
+        }
+        String region = current.search(ip);
+        return region != null ? region : UNKNOWN;
+    }
+
+    /**
+     * 地址库是否已加载
+     */
+    public boolean isLoaded() {
+        return database != null;
+    }
+
+    /**
+     * 定期检查地址库文件，修改时间或大小变化时重新映射并替换
+     */
+    @Scheduled(initialDelayString = "${ip-region.reload-interval:60000}",
+        fixedDelayString = "${ip-region.reload-interval:60000}")
+    public void reloadIfChanged() {
+        if (!StringUtils.hasText(dbPath)) {
+            return;
+        }
+        Path path = Paths.get(dbPath);
+        try {
+            if (!Files.isRegularFile(path)) {
+                if (database == null) {
+                    log.warn("IP地址库文件不存在: {}", path);
+                }
+                return;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long modifiedTime = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+            if (database != null && modifiedTime == loadedModifiedTime && size == loadedSize) {
+                return;
+            }
+
+            IpRegionDatabase loaded = IpRegionDatabase.open(path);
+            // 旧映射不再被引用后由GC释放
+            this.database = loaded;
+            this.loadedModifiedTime = modifiedTime;
+            this.loadedSize = size;
+            log.info("IP地址库加载完成: {}, IPv4区间={}, IPv6区间={}, 地区={}",
+                path, loaded.getV4Count(), loaded.getV6Count(), loaded.getRegionCount());
+        } catch (Exception e) {
+            // 保留当前已加载的地址库
+            log.error("IP地址库加载失败: {}, error={}", path, e.getMessage());
+        }
+    }
+
+    private boolean isLoopback(String ip) {
+        return ip.startsWith("127.") || "::1".equals(ip) || "0:0:0:0:0:0:0:1".equals(ip) || "localhost".equals(ip);
+    }
+
+    private boolean isIntranet(String ip) {
+        if (ip.indexOf(':') >= 0) {
+            // fc00::/7 唯一本地地址，fe80::/10 链路本地地址
+            String lower = ip.length() >= 4 ? ip.substring(0, 4).toLowerCase() : ip;
+            return lower.startsWith("fc") || lower.startsWith("fd")
+                || lower.startsWith("fe8") || lower.startsWith("fe9")
+                || lower.startsWith("fea") || lower.startsWith("feb");
+        }
+        long address = IpRegionDatabase.parseIpv4(ip, 0, ip.length());
+        if (address < 0) {
+            return false;
+        }
+        int first = (int) (address >>> 24);
+        int second = (int) ((address >>> 16) & 0xFF);
+        return first == 10
+            || (first == 172 && second >= 16 && second <= 31)
+            || (first == 192 && second == 168);
+    }
+}
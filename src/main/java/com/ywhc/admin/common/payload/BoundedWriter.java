@@ -0,0 +1,122 @@
+package com.ywhc.admin.common.payload;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 限长字符输出
+ * 内容达到上限后保留已写入的前缀并抛出 {@link LimitExceededException}，
+ * 使正在进行的序列化立即中止，而不是先生成完整字符串再截断
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class BoundedWriter extends Writer {
+
+    private static final String TRUNCATED_SUFFIX = "...";
+
+    private final StringBuilder buffer;
+    private final int limit;
+    private boolean truncated;
+
+    /**
+     * @param limit 最多保留的字符数
+     */
+    public BoundedWriter(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("长度上限不能为负数: " + limit);
+        }
+        this.limit = limit;
+        this.buffer = new StringBuilder(Math.min(limit, 256));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureCapacity(1);
+        buffer.append((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        int writable = ensureCapacity(length);
+        buffer.append(chars, offset, writable);
+        checkTruncated(writable, length);
+    }
+
+    @Override
+    public void write(String str, int offset, int length) throws IOException {
+        int writable = ensureCapacity(length);
+        buffer.append(str, offset, offset + writable);
+        checkTruncated(writable, length);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        String str = String.valueOf(csq);
+        write(str, 0, str.length());
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * 是否因达到上限被截断
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * 已写入内容，被截断时追加省略号
+     */
+    @Override
+    public String toString() {
+        return truncated ? buffer + TRUNCATED_SUFFIX : buffer.toString();
+    }
+
+    /**
+     * 计算本次可写入的字符数，已截断时直接中止
+     */
+    private int ensureCapacity(int length) throws LimitExceededException {
+        if (truncated) {
+            throw new LimitExceededException();
+        }
+        int remaining = limit - buffer.length();
+        if (remaining <= 0 && length > 0) {
+            truncated = true;
+            throw new LimitExceededException();
+        }
+        return Math.min(remaining, length);
+    }
+
+    private void checkTruncated(int written, int length) throws LimitExceededException {
+        if (written < length) {
+            truncated = true;
+            throw new LimitExceededException();
+        }
+    }
+
+    /**
+     * 输出达到长度上限
+     * 属于正常的中止流程，不记录调用栈
+     */
+    public static final class LimitExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        public LimitExceededException() {
+            super("输出内容超过长度上限");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
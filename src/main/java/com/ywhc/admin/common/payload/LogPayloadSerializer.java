@@ -0,0 +1,177 @@
+package com.ywhc.admin.common.payload;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * 操作日志载荷序列化器
+ * 将请求参数和响应结果序列化为JSON写入 {@link BoundedWriter}，达到长度上限即中止序列化；
+ * 分页结果只记录页码和条数，上传文件只记录文件信息，字节数组只记录长度，避免为截断前的完整内容分配内存
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Component
+public class LogPayloadSerializer {
+
+    /**
+     * 不记录的参数类型（容器对象、流、校验结果）
+     */
+    private static final Class<?>[] SKIPPED_TYPES = {
+        ServletRequest.class, ServletResponse.class, Errors.class,
+        InputStream.class, OutputStream.class, Reader.class, Writer.class
+    };
+
+    private final ObjectWriter writer;
+
+    public LogPayloadSerializer(ObjectMapper objectMapper) {
+        SimpleModule module = new SimpleModule("LogPayloadSummary");
+        module.addSerializer(IPage.class, new PageSummarySerializer());
+        module.addSerializer(MultipartFile.class, new MultipartFileSummarySerializer());
+        module.addSerializer(byte[].class, new ByteArraySummarySerializer());
+        // 复制全局配置（Long转字符串、日期格式等），摘要序列化器只作用于日志
+        ObjectMapper mapper = objectMapper.copy()
+            .registerModule(module)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+        // 同一个BoundedWriter需要连续写入多个参数，不能在每次序列化后关闭
+        this.writer = mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * 序列化单个对象
+     *
+     * @param value     对象
+     * @param maxLength 最大长度，超出部分截断并追加省略号
+     * @return JSON字符串
+     */
+    public String serialize(Object value, int maxLength) {
+        BoundedWriter out = new BoundedWriter(maxLength);
+        try {
+            writer.writeValue(out, value);
+        } catch (IOException | RuntimeException e) {
+            if (!out.isTruncated()) {
+                return "序列化失败: " + e.getMessage();
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 序列化请求参数，格式为 "Query: 查询串; Args: 参数名=JSON; ..."
+     *
+     * @param queryString URL查询串，可为null
+     * @param names       参数名，可为null
+     * @param args        参数值
+     * @param maxLength   最大长度，超出部分截断并追加省略号
+     */
+    public String serializeArguments(String queryString, String[] names, Object[] args, int maxLength) {
+        BoundedWriter out = new BoundedWriter(maxLength);
+        try {
+            if (queryString != null) {
+                out.append("Query: ").append(queryString).append("; ");
+            }
+            if (args != null && args.length > 0) {
+                out.append("Args: ");
+                for (int i = 0; i < args.length; i++) {
+                    Object arg = args[i];
+                    if (arg == null || isSkipped(arg)) {
+                        continue;
+                    }
+                    String name = names != null && i < names.length ? names[i] : "arg" + i;
+                    out.append(name).append("=");
+                    writeArgument(out, arg);
+                    out.append("; ");
+                }
+            }
+        } catch (BoundedWriter.LimitExceededException e) {
+            // 达到长度上限，保留已写入部分
+        } catch (IOException e) {
+            return "参数获取失败: " + e.getMessage();
+        }
+        return out.toString();
+    }
+
+    private void writeArgument(BoundedWriter out, Object arg) throws IOException {
+        try {
+            writer.writeValue(out, arg);
+        } catch (BoundedWriter.LimitExceededException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            if (out.isTruncated()) {
+                throw new BoundedWriter.LimitExceededException();
+            }
+            // 无法序列化的参数只记录类型，不调用toString避免输出过大
+            out.append("<").append(arg.getClass().getSimpleName()).append(">");
+        }
+    }
+
+    private static boolean isSkipped(Object arg) {
+        for (Class<?> type : SKIPPED_TYPES) {
+            if (type.isInstance(arg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 分页结果摘要：只记录页码、每页条数、总数和本页记录数
+     */
+    @SuppressWarnings("rawtypes")
+    static final class PageSummarySerializer extends JsonSerializer<IPage> {
+
+        @Override
+        public void serialize(IPage page, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("current", page.getCurrent());
+            gen.writeNumberField("size", page.getSize());
+            gen.writeNumberField("total", page.getTotal());
+            gen.writeNumberField("records", page.getRecords() != null ? page.getRecords().size() : 0);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * 上传文件摘要：只记录文件信息，不读取内容
+     */
+    static final class MultipartFileSummarySerializer extends JsonSerializer<MultipartFile> {
+
+        @Override
+        public void serialize(MultipartFile file, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("name", file.getName());
+            gen.writeStringField("originalFilename", file.getOriginalFilename());
+            gen.writeStringField("contentType", file.getContentType());
+            gen.writeNumberField("size", file.getSize());
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * 字节数组摘要：只记录长度，不做Base64编码
+     */
+    static final class ByteArraySummarySerializer extends JsonSerializer<byte[]> {
+
+        @Override
+        public void serialize(byte[] bytes, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeString("byte[" + bytes.length + "]");
+        }
+    }
+}
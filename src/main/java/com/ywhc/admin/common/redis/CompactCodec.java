@@ -0,0 +1,42 @@
+package com.ywhc.admin.common.redis;
+
+import java.io.IOException;
+
+/**
+ * 紧凑二进制编解码器
+ * 为需要缓存到Redis的类型提供固定字段顺序的二进制编码，注册为Spring Bean后由 {@link CompactRedisSerializer} 自动使用；
+ * 字段变更时递增 {@link #version()}，{@link #read} 需继续兼容旧版本数据直到其全部过期
+ *
+ * @param <T> 编码类型
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public interface CompactCodec<T> {
+
+    /**
+     * 编码的类型（只匹配该类本身，不含子类）
+     */
+    Class<T> type();
+
+    /**
+     * 类型编号，写入数据头部，1-255且全局唯一，发布后不可更改
+     */
+    int typeId();
+
+    /**
+     * 当前写入的结构版本，1-255
+     */
+    int version();
+
+    /**
+     * 按当前版本写入字段
+     */
+    void write(T value, CompactWriter out);
+
+    /**
+     * 读取字段
+     *
+     * @param version 数据写入时的结构版本
+     */
+    T read(CompactReader in, int version) throws IOException;
+}
@@ -0,0 +1,100 @@
+package com.ywhc.admin.common.redis;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 紧凑二进制读取器，与 {@link CompactWriter} 的编码一一对应
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class CompactReader {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    public CompactReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int readByte() throws IOException {
+        if (position >= limit) {
+            throw new EOFException("数据不完整");
+        }
+        return buffer[position++];
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("变长整数格式错误");
+    }
+
+    public String readString() throws IOException {
+        long length = readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        int bytes = Math.toIntExact(length - 1);
+        if (bytes > limit - position) {
+            throw new EOFException("数据不完整");
+        }
+        String value = new String(buffer, position, bytes, StandardCharsets.UTF_8);
+        position += bytes;
+        return value;
+    }
+
+    public Long readLong() throws IOException {
+        long raw = readVarLong();
+        if (raw == 0) {
+            return null;
+        }
+        long zigzag = raw - 1;
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public Integer readInteger() throws IOException {
+        Long value = readLong();
+        return value == null ? null : Math.toIntExact(value);
+    }
+
+    public Boolean readBoolean() throws IOException {
+        int value = readByte();
+        return value == 0 ? null : value == 2;
+    }
+
+    public LocalDateTime readDateTime() throws IOException {
+        Long seconds = readLong();
+        if (seconds == null) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, (int) readVarLong(), ZoneOffset.UTC);
+    }
+
+    /**
+     * 剩余未读字节数
+     */
+    public int remaining() {
+        return limit - position;
+    }
+
+    /**
+     * 当前读取位置
+     */
+    int position() {
+        return position;
+    }
+}
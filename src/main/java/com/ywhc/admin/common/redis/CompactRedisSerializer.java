@@ -0,0 +1,180 @@
+package com.ywhc.admin.common.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑二进制Redis序列化器
+ * 已注册 {@link CompactCodec} 的类型写为二进制格式，其余类型（包括字符串）仍交给JSON序列化器，
+ * 读取时按首字节区分：二进制数据以0xC1开头（不是合法的UTF-8首字节，JSON不会以它开头），否则按旧版JSON解析，
+ * 因此滚动升级期间新旧两种格式可以共存
+ *
+ * <pre>
+ * 数据格式：
+ * byte 0xC1
+ * byte 标志位（bit0：负载已deflate压缩）
+ * byte 类型编号
+ * byte 结构版本
+ * [varint 压缩前长度]（仅压缩时）
+ * 负载
+ * </pre>
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC1;
+
+    private static final int FLAG_DEFLATE = 1;
+    private static final int HEADER_SIZE = 4;
+
+    private final RedisSerializer<Object> fallback;
+    private final Map<Class<?>, CompactCodec<?>> codecsByType = new HashMap<>();
+    private final CompactCodec<?>[] codecsById = new CompactCodec<?>[256];
+    private final boolean writeEnabled;
+    private final int compressThreshold;
+
+    /**
+     * @param fallback          未注册类型及旧数据使用的序列化器
+     * @param codecs            二进制编解码器
+     * @param writeEnabled      是否写入二进制格式，关闭时只识别读取（滚动升级第一阶段，确保所有节点都能读取后再开启）
+     * @param compressThreshold 负载达到该字节数时尝试压缩，小于等于0表示不压缩
+     */
+    public CompactRedisSerializer(RedisSerializer<Object> fallback, Collection<? extends CompactCodec<?>> codecs,
+                                  boolean writeEnabled, int compressThreshold) {
+        this.fallback = fallback;
+        this.writeEnabled = writeEnabled;
+        this.compressThreshold = compressThreshold;
+        for (CompactCodec<?> codec : codecs) {
+            int typeId = codec.typeId();
+            if (typeId < 1 || typeId > 255 || codec.version() < 1 || codec.version() > 255) {
+                throw new IllegalArgumentException("编解码器类型编号和版本号必须在1-255之间: " + codec.getClass().getName());
+            }
+            if (codecsById[typeId] != null || codecsByType.containsKey(codec.type())) {
+                throw new IllegalArgumentException("编解码器重复注册: " + codec.getClass().getName());
+            }
+            codecsById[typeId] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        CompactCodec<?> codec = value != null && writeEnabled ? codecsByType.get(value.getClass()) : null;
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        return encode(codec, value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("二进制数据不完整");
+        }
+        int flags = bytes[1] & 0xFF;
+        int typeId = bytes[2] & 0xFF;
+        int version = bytes[3] & 0xFF;
+        CompactCodec<?> codec = codecsById[typeId];
+        if (codec == null) {
+            throw new SerializationException("未注册的二进制类型编号: " + typeId);
+        }
+        if (version > codec.version()) {
+            throw new SerializationException("不支持的结构版本: " + codec.type().getSimpleName() + " v" + version);
+        }
+        try {
+            CompactReader in = new CompactReader(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            if ((flags & FLAG_DEFLATE) != 0) {
+                byte[] payload = inflate(bytes, in);
+                in = new CompactReader(payload, 0, payload.length);
+            }
+            return codec.read(in, version);
+        } catch (IOException | DataFormatException | ArithmeticException e) {
+            throw new SerializationException("二进制反序列化失败: " + codec.type().getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> byte[] encode(CompactCodec<T> codec, Object value) {
+        // 先按未压缩格式写出头部和负载，需要压缩时再重写
+        CompactWriter out = new CompactWriter(128);
+        out.writeByte(MAGIC);
+        out.writeByte(0);
+        out.writeByte(codec.typeId());
+        out.writeByte(codec.version());
+        codec.write((T) value, out);
+
+        int payloadSize = out.size() - HEADER_SIZE;
+        if (compressThreshold <= 0 || payloadSize < compressThreshold) {
+            return out.toByteArray();
+        }
+        byte[] compressed = deflate(out.buffer(), HEADER_SIZE, payloadSize);
+        if (compressed == null) {
+            return out.toByteArray();
+        }
+        CompactWriter compressedOut = new CompactWriter(HEADER_SIZE + 5 + compressed.length);
+        compressedOut.writeByte(MAGIC);
+        compressedOut.writeByte(FLAG_DEFLATE);
+        compressedOut.writeByte(codec.typeId());
+        compressedOut.writeByte(codec.version());
+        compressedOut.writeVarLong(payloadSize);
+        compressedOut.writeBytes(compressed, 0, compressed.length);
+        return compressedOut.toByteArray();
+    }
+
+    /**
+     * 压缩负载，压缩后没有变小时返回null
+     */
+    private static byte[] deflate(byte[] data, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            byte[] buffer = new byte[length];
+            int compressed = 0;
+            while (!deflater.finished() && compressed < buffer.length) {
+                compressed += deflater.deflate(buffer, compressed, buffer.length - compressed);
+            }
+            return deflater.finished() ? Arrays.copyOf(buffer, compressed) : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes, CompactReader in) throws IOException, DataFormatException {
+        long length = in.readVarLong();
+        // 解压后长度由写入方记录，限制上限避免损坏数据导致超大分配
+        if (length > (long) bytes.length * 1024) {
+            throw new IOException("压缩数据长度异常: " + length);
+        }
+        byte[] result = new byte[(int) length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, in.position(), in.remaining());
+            int offset = 0;
+            while (offset < result.length) {
+                int read = inflater.inflate(result, offset, result.length - offset);
+                if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("压缩数据不完整");
+                }
+                offset += read;
+            }
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+}
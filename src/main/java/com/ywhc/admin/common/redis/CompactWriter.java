@@ -0,0 +1,105 @@
+package com.ywhc.admin.common.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 紧凑二进制写入器
+ * 非线程安全的可增长字节缓冲区（DataOutputStream每次写入都要加锁，逐字段写入时开销明显）；
+ * 可为null的字段统一用0表示null：字符串写长度+1，整数写ZigZag编码+1
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class CompactWriter {
+
+    private byte[] buffer;
+    private int size;
+
+    public CompactWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    /**
+     * 写入无符号变长整数（每字节7位）
+     */
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeLong(Long value) {
+        writeVarLong(value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+    }
+
+    public void writeInteger(Integer value) {
+        writeLong(value == null ? null : value.longValue());
+    }
+
+    /**
+     * 写入可为null的布尔值：0-null，1-false，2-true
+     */
+    public void writeBoolean(Boolean value) {
+        writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+
+    /**
+     * 写入可为null的时间：按UTC换算的秒数与纳秒（不含时区，与JSON中的本地时间语义一致）
+     */
+    public void writeDateTime(LocalDateTime value) {
+        if (value == null) {
+            writeLong(null);
+            return;
+        }
+        writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        writeVarLong(value.getNano());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 内部缓冲区（有效数据为前size()个字节）
+     */
+    byte[] buffer() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + extra));
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.ywhc.admin.common.security.filter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ywhc.admin.common.context.RequestUserContext;
+import com.ywhc.admin.common.context.RequestUserContextHolder;
 import com.ywhc.admin.common.result.Result;
 import com.ywhc.admin.common.result.ResultCode;
+import com.ywhc.admin.common.security.service.SecurityUser;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
 import com.ywhc.admin.common.security.service.UserDetailsServiceImpl;
+import com.ywhc.admin.common.security.token.VerifiedToken;
 import com.ywhc.admin.common.utils.JwtUtils;
-import com.ywhc.admin.modules.monitor.online.entity.OnlineUser;
+import com.ywhc.admin.modules.monitor.online.entity.SessionCheckResult;
 import com.ywhc.admin.modules.monitor.online.service.OnlineUserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -35,6 +40,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
+    private final UserDetailsCache userDetailsCache;
     private final OnlineUserService onlineUserService;
     private final ObjectMapper objectMapper;
 
@@ -45,6 +51,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         HttpServletRequest request,
         HttpServletResponse response,
         FilterChain filterChain
+    ) throws ServletException, IOException {
+        try {
+            authenticateAndContinue(request, response, filterChain);
+        } finally {
+            // 请求结束后清除用户上下文，避免线程复用时串号
+            RequestUserContextHolder.clear();
+        }
+    }
+
+    /**
+     * 认证请求并继续执行过滤器链
+     */
+    private void authenticateAndContinue(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
     ) throws ServletException, IOException {
         // 获取请求路径
         String requestPath = request.getServletPath();
@@ -60,22 +82,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             SecurityContextHolder.getContext().getAuthentication() == null
         ) {
             try {
-                // 检查Token是否在黑名单中
-                if (onlineUserService.isTokenBlacklisted(token)) {
-                    log.debug("Token已在黑名单中: {}", maskToken(token));
-                    filterChain.doFilter(request, response);
-                    return;
-                }
-
-                // 验证Token格式
-                if (jwtUtils.isValidToken(token)) {
-                    // 从Token中获取用户名
-                    String username = jwtUtils.getUsernameFromToken(token);
+                // 解析并验签Token（每个请求只解析一次）
+                VerifiedToken verifiedToken = jwtUtils.parseToken(token);
+                if (verifiedToken != null) {
+                    String username = verifiedToken.getUsername();
+
+                    // 一次Redis往返完成黑名单检查和会话读取
+                    SessionCheckResult sessionCheck = onlineUserService.checkSession(token);
+                    if (sessionCheck.isBlacklisted()) {
+                        log.debug("Token已在黑名单中: {}", maskToken(token));
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
 
-                    // 新增：检查token是否在Redis中存在（刷新token接口跳过此检查）
+                    // 检查token是否在Redis中存在（刷新token接口跳过此检查）
                     if (!isRefreshTokenRequest) {
-                        OnlineUser onlineUser = onlineUserService.getOnlineUserByToken(token);
-                        if (onlineUser == null) {
+                        if (!sessionCheck.isActive()) {
                             log.warn("Token在Redis中不存在，可能已被清理 - username: {}, token: {}, ip: {}",
                                 username, maskToken(token), request.getRemoteAddr());
                             
@@ -94,18 +116,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
                         // 记录Redis token验证通过的日志
                         log.debug("Redis token验证通过 - username: {}, 最后访问时间: {}",
-                            username, onlineUser.getLastAccessTime());
+                            username, sessionCheck.getOnlineUser().getLastAccessTime());
                     } else {
                         log.debug("刷新token请求，跳过Redis存在性校验 - username: {}, token: {}",
                             username, maskToken(token));
                     }
 
-                    // 加载用户详情
+                    // 加载用户详情（权限版本未变化时直接使用缓存）
                     UserDetails userDetails =
-                        userDetailsService.loadUserByUsername(username);
+                        userDetailsService.loadUserByToken(verifiedToken);
 
-                    // 验证Token有效性
-                    if (jwtUtils.validateToken(token, username)) {
+                    // 验证Token有效性（签名已在解析时校验，这里只需检查过期时间）
+                    if (!verifiedToken.isExpired()) {
                         // 创建认证对象
                         UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
@@ -125,6 +147,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             authentication
                         );
 
+                        // 构建请求用户上下文，供切面、自动填充和服务直接读取
+                        if (userDetails instanceof SecurityUser securityUser) {
+                            RequestUserContextHolder.set(RequestUserContext.of(securityUser,
+                                userDetailsCache.getPermissionVersion(securityUser.getUserId())));
+                        }
+
                         // 更新用户最后活动时间（刷新token请求跳过此操作）
                         if (!isRefreshTokenRequest) {
                             onlineUserService.updateLastAccessTime(token);
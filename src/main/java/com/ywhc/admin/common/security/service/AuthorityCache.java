@@ -0,0 +1,92 @@
+package com.ywhc.admin.common.security.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 权限集合缓存
+ * 以权限标识集合的摘要为键共享不可变的权限集合，拥有相同角色组合的用户复用同一份实例
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Component
+public class AuthorityCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持的摘要算法: SHA-256", e);
+        }
+    });
+
+    private final LRUCache<String, Collection<GrantedAuthority>> cache;
+
+    public AuthorityCache(@Value("${jwt.authority-cache.max-size:1000}") int maxSize) {
+        this.cache = CacheUtil.newLRUCache(maxSize);
+    }
+
+    /**
+     * 计算权限标识集合的摘要（与顺序无关，按UTF-8编码，权限标识可包含非ASCII字符）
+     */
+    public static String hash(Collection<String> permissions) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(String.join("\n", new TreeSet<>(permissions)).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22);
+    }
+
+    /**
+     * 登记权限标识集合，返回共享的权限集合
+     */
+    public Collection<GrantedAuthority> intern(Set<String> permissions) {
+        return intern(hash(permissions), permissions);
+    }
+
+    /**
+     * 登记权限标识集合，返回其摘要
+     */
+    public String register(Set<String> permissions) {
+        String hash = hash(permissions);
+        intern(hash, permissions);
+        return hash;
+    }
+
+    /**
+     * 根据摘要获取权限集合
+     *
+     * @return 权限集合，本节点未登记时返回null
+     */
+    public Collection<GrantedAuthority> get(String hash) {
+        return cache.get(hash, false);
+    }
+
+    private Collection<GrantedAuthority> intern(String hash, Set<String> permissions) {
+        Collection<GrantedAuthority> authorities = cache.get(hash, false);
+        if (authorities == null) {
+            List<GrantedAuthority> created = new ArrayList<>(permissions.size());
+            for (String permission : permissions) {
+                created.add(new SimpleGrantedAuthority(permission));
+            }
+            authorities = Collections.unmodifiableList(created);
+            cache.put(hash, authorities);
+        }
+        return authorities;
+    }
+}
@@ -0,0 +1,348 @@
+package com.ywhc.admin.common.security.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 用户详情缓存
+ * 按用户ID缓存认证过滤器使用的SecurityUser快照，避免每个请求都查询用户和权限。
+ * 每个用户维护一个权限版本号（Redis INCR），角色、菜单、用户角色、用户状态变更时
+ * 在事务提交后递增版本并通过发布/订阅通知所有节点失效本地缓存；
+ * 本节点已知的用户版本按时过期、全局版本定时比对，防止丢失通知时长期使用旧权限
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserDetailsCache implements MessageListener {
+
+    /**
+     * 权限变更通知频道
+     */
+    public static final String CHANNEL = "auth:perm_changed";
+
+    /**
+     * 无法确定权限版本（Redis不可用），与任何版本都不一致
+     */
+    public static final long UNKNOWN_VERSION = -1L;
+
+    /**
+     * Redis Key 前缀
+     */
+    private static final String VERSION_KEY = "auth:perm_version:";
+    private static final String GLOBAL_VERSION_KEY = VERSION_KEY + "global";
+
+    /**
+     * 全部用户失效标识
+     */
+    private static final String ALL_USERS = "*";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${auth.user-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private int maxSize;
+
+    /**
+     * 兜底过期时间（毫秒），防止丢失失效消息时长期使用旧数据
+     */
+    @Value("${auth.user-cache.ttl:600000}")
+    private long ttl;
+
+    /**
+     * 本节点已知用户版本的过期时间（毫秒），过期后从Redis重新加载
+     */
+    @Value("${auth.user-cache.version-ttl:60000}")
+    private long versionTtl;
+
+    private LRUCache<Long, CachedUser> cache;
+
+    /**
+     * 本节点已知的用户权限版本，按最近使用淘汰并按时过期，淘汰或过期后按需从Redis重新加载
+     */
+    private LRUCache<Long, Long> userVersions;
+
+    /**
+     * 本节点已知的全局权限版本，-1表示尚未加载
+     */
+    private final AtomicLong globalVersion = new AtomicLong(-1L);
+
+    /**
+     * 本地失效戳，每次失效递增，用于丢弃加载期间已被失效的快照
+     */
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheUtil.newLRUCache(maxSize, ttl);
+        this.userVersions = CacheUtil.newLRUCache(maxSize, versionTtl);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 获取缓存的用户详情
+     *
+     * @param userId 用户ID
+     * @return 用户详情，未命中返回null
+     */
+    public SecurityUser get(Long userId) {
+        if (!enabled || userId == null) {
+            return null;
+        }
+        CachedUser cachedUser = cache.get(userId, false);
+        // 缓存时的权限版本落后于当前版本时视为未命中（失效消息丢失或晚于本次读取到达）
+        if (cachedUser == null || cachedUser.version() != getPermissionVersion(userId)) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return cachedUser.user();
+    }
+
+    /**
+     * 获取当前失效戳，需在从数据库加载用户之前调用
+     */
+    public long stamp() {
+        return invalidationStamp.get();
+    }
+
+    /**
+     * 缓存用户详情
+     *
+     * @param user  用户详情
+     * @param stamp 加载前获取的失效戳，加载期间发生过失效则不缓存
+     */
+    public void put(SecurityUser user, long stamp) {
+        if (!enabled || invalidationStamp.get() != stamp) {
+            return;
+        }
+        Long userId = user.getUserId();
+        long version = getPermissionVersion(userId);
+        if (version == UNKNOWN_VERSION) {
+            return;
+        }
+        cache.put(userId, new CachedUser(user, version));
+        // 写入过程中发生失效时撤销写入
+        if (invalidationStamp.get() != stamp) {
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * 获取用户当前的权限版本（用户版本 + 全局版本）
+     *
+     * @return 权限版本，Redis不可用时返回 {@link #UNKNOWN_VERSION}，调用方应按版本不一致处理
+     */
+    public long getPermissionVersion(Long userId) {
+        long global = globalVersion.get();
+        Long userVersion = userVersions.get(userId, false);
+        if (global >= 0 && userVersion != null) {
+            return userVersion + global;
+        }
+
+        try {
+            List<String> values = stringRedisTemplate.opsForValue()
+                .multiGet(List.of(VERSION_KEY + userId, GLOBAL_VERSION_KEY));
+            long loadedUser = parseVersion(values != null ? values.get(0) : null);
+            long loadedGlobal = parseVersion(values != null ? values.get(1) : null);
+            raiseUserVersion(userId, loadedUser);
+            globalVersion.accumulateAndGet(loadedGlobal, Math::max);
+        } catch (Exception e) {
+            log.warn("加载用户权限版本失败: userId={}, error={}", userId, e.getMessage());
+            return UNKNOWN_VERSION;
+        }
+        Long loadedVersion = userVersions.get(userId, false);
+        return (loadedVersion != null ? loadedVersion : 0L) + Math.max(globalVersion.get(), 0L);
+    }
+
+    /**
+     * 比对全局版本，丢失全部失效通知时清空本节点缓存
+     * 用户版本依靠过期重新加载，无需逐个比对
+     */
+    @Scheduled(fixedDelayString = "${auth.user-cache.check-interval:60000}")
+    public void checkVersion() {
+        if (globalVersion.get() < 0) {
+            return;
+        }
+        try {
+            long version = parseVersion(stringRedisTemplate.opsForValue().get(GLOBAL_VERSION_KEY));
+            if (version > globalVersion.get()) {
+                log.info("全局权限版本落后，清空用户详情缓存: {} -> {}", globalVersion.get(), version);
+                evictAll(version);
+            }
+        } catch (Exception e) {
+            log.warn("读取全局权限版本失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 使指定用户的缓存失效（事务提交后执行）
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> publish(String.valueOf(userId), VERSION_KEY + userId));
+    }
+
+    /**
+     * 使多个用户的缓存失效（事务提交后执行）
+     */
+    public void invalidateUsers(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        afterCommit(() -> ids.forEach(userId -> publish(String.valueOf(userId), VERSION_KEY + userId)));
+    }
+
+    /**
+     * 使全部用户的缓存失效（事务提交后执行），用于菜单等影响面不确定的变更
+     */
+    public void invalidateAll() {
+        afterCommit(() -> publish(ALL_USERS, GLOBAL_VERSION_KEY));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            String target = body.substring(0, separator);
+            long version = Long.parseLong(body.substring(separator + 1));
+            if (ALL_USERS.equals(target)) {
+                evictAll(version);
+            } else {
+                evictUser(Long.parseLong(target), version);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的权限变更消息: {}", body);
+        }
+    }
+
+    /**
+     * 缓存条目数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 递增版本并发布失效通知，Redis不可用时至少保证本节点失效
+     */
+    private void publish(String target, String versionKey) {
+        try {
+            Long version = stringRedisTemplate.opsForValue().increment(versionKey);
+            stringRedisTemplate.convertAndSend(CHANNEL, target + ":" + version);
+        } catch (Exception e) {
+            log.error("发布权限变更通知失败: target={}, error={}", target, e.getMessage());
+            if (ALL_USERS.equals(target)) {
+                evictAll(-1L);
+            } else {
+                evictUser(Long.parseLong(target), -1L);
+            }
+        }
+    }
+
+    private void evictUser(Long userId, long version) {
+        invalidationStamp.incrementAndGet();
+        if (version >= 0) {
+            raiseUserVersion(userId, version);
+        } else {
+            userVersions.remove(userId);
+        }
+        cache.remove(userId);
+        log.debug("用户详情缓存已失效: userId={}, version={}", userId, version);
+    }
+
+    /**
+     * 只升不降地更新用户版本，避免并发加载的旧值覆盖失效消息带来的新值
+     */
+    private synchronized void raiseUserVersion(Long userId, long version) {
+        Long current = userVersions.get(userId, false);
+        if (current == null || current < version) {
+            userVersions.put(userId, version);
+        }
+    }
+
+    private void evictAll(long version) {
+        invalidationStamp.incrementAndGet();
+        if (version >= 0) {
+            globalVersion.accumulateAndGet(version, Math::max);
+        } else {
+            globalVersion.set(-1L);
+        }
+        cache.clear();
+        log.debug("全部用户详情缓存已失效: version={}", version);
+    }
+
+    private long parseVersion(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    /**
+     * 存在事务时在提交后执行，否则立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 缓存条目：用户详情及缓存时的权限版本
+     */
+    private record CachedUser(SecurityUser user, long version) {
+    }
+}
@@ -1,17 +1,17 @@
 package com.ywhc.admin.common.security.service;
 
+import com.ywhc.admin.common.security.token.PermissionClaims;
+import com.ywhc.admin.common.security.token.VerifiedToken;
 import com.ywhc.admin.modules.system.user.entity.SysUser;
 import com.ywhc.admin.modules.system.user.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -25,6 +25,8 @@ import java.util.Set;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserService userService;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthorityCache authorityCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -37,13 +39,83 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             throw new UsernameNotFoundException("用户已被禁用: " + username);
         }
 
-        // 获取用户权限
+        // 获取用户权限（相同权限组合的用户共享同一份权限集合）
         Set<String> permissions = userService.getUserPermissions(user.getId());
-        Collection<GrantedAuthority> authorities = new HashSet<>();
-        for (String permission : permissions) {
-            authorities.add(new SimpleGrantedAuthority(permission));
+        Collection<GrantedAuthority> authorities = authorityCache.intern(permissions);
+
+        return new SecurityUser(user, authorities);
+    }
+
+    /**
+     * 根据已验签的Token加载用户详情
+     * Token携带的权限快照版本与当前权限版本一致时直接构建用户，否则读取缓存或查询数据库。
+     * 供认证过滤器使用，登录校验密码时仍走loadUserByUsername直接查询数据库
+     *
+     * @param verifiedToken 已验签的Token
+     * @return 用户详情
+     */
+    public UserDetails loadUserByToken(VerifiedToken verifiedToken) throws UsernameNotFoundException {
+        Long userId = verifiedToken.getUserId();
+        SecurityUser tokenUser = buildFromClaims(verifiedToken);
+        if (tokenUser != null) {
+            return tokenUser;
+        }
+
+        SecurityUser cachedUser = userDetailsCache.get(userId);
+        if (cachedUser != null && cachedUser.getUsername().equals(verifiedToken.getUsername())) {
+            return cachedUser;
+        }
+
+        // 先取失效戳再查库，加载期间发生的权限变更会使本次结果不被缓存
+        long stamp = userDetailsCache.stamp();
+        SecurityUser securityUser = (SecurityUser) loadUserByUsername(verifiedToken.getUsername());
+        userDetailsCache.put(securityUser, stamp);
+        return securityUser;
+    }
+
+    /**
+     * 构建访问Token携带的权限快照
+     *
+     * @param securityUser 认证用户
+     * @return 权限快照
+     */
+    public PermissionClaims buildPermissionClaims(SecurityUser securityUser) {
+        SysUser user = securityUser.getUser();
+        // 先取版本再读角色和权限，期间发生的变更会使快照版本落后而不被使用
+        long version = userDetailsCache.getPermissionVersion(user.getId());
+        if (version == UserDetailsCache.UNKNOWN_VERSION) {
+            // 无法确定版本时不携带快照，由认证过滤器按缓存或数据库加载
+            return null;
+        }
+        String permissionHash = authorityCache.register(userService.getUserPermissions(user.getId()));
+        return new PermissionClaims(version, user.getDeptId(), user.getDeptName(), permissionHash);
+    }
+
+    /**
+     * 根据Token携带的权限快照构建用户，快照过期、无法确定当前版本或本节点没有对应权限集合时返回null
+     */
+    private SecurityUser buildFromClaims(VerifiedToken verifiedToken) {
+        PermissionClaims permissionClaims = verifiedToken.getPermissionClaims();
+        Long userId = verifiedToken.getUserId();
+        if (permissionClaims == null || userId == null) {
+            return null;
+        }
+        long version = userDetailsCache.getPermissionVersion(userId);
+        if (version == UserDetailsCache.UNKNOWN_VERSION || permissionClaims.getVersion() != version) {
+            return null;
+        }
+        Collection<GrantedAuthority> authorities = authorityCache.get(permissionClaims.getPermissionHash());
+        if (authorities == null) {
+            return null;
         }
 
+        // 快照只包含认证所需字段，需要完整用户信息（如密码）时应按ID重新查询
+        SysUser user = new SysUser();
+        user.setId(userId);
+        user.setUsername(verifiedToken.getUsername());
+        user.setDeptId(permissionClaims.getDeptId());
+        user.setDeptName(permissionClaims.getDeptName());
+        user.setStatus(1);
         return new SecurityUser(user, authorities);
     }
 }
@@ -0,0 +1,230 @@
+package com.ywhc.admin.common.security.token;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 按过期时间分桶的布隆过滤器
+ * 每个桶对应一段过期时间窗口，黑名单条目按其过期时间落入对应的桶；窗口过去后整个桶失效，
+ * 无需逐条删除。桶以环形数组复用，环的长度需覆盖黑名单条目的最长有效期。
+ * 只会误判存在、不会漏判（同一节点内），命中后仍需到Redis确认
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public class BlacklistBloomFilter {
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final int bitCount;
+    private final int hashCount;
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /**
+     * 超出环覆盖范围的条目（时钟回拨或有效期超出配置时使用），按摘要精确保存
+     */
+    private final Map<ByteBuffer, Long> overflow = new ConcurrentHashMap<>();
+
+    /**
+     * @param bucketMillis      每个桶覆盖的过期时间窗口（毫秒）
+     * @param maxLifetimeMillis Token最长有效期（毫秒），决定环的长度
+     * @param expectedPerBucket 每个桶预计的条目数
+     * @param fpp               期望误判率
+     */
+    public BlacklistBloomFilter(long bucketMillis, long maxLifetimeMillis, int expectedPerBucket, double fpp) {
+        if (bucketMillis <= 0 || maxLifetimeMillis <= 0 || expectedPerBucket <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("布隆过滤器参数不合法");
+        }
+        this.bucketMillis = bucketMillis;
+        // 当前窗口 + 覆盖最长有效期所需的窗口数
+        this.bucketCount = (int) ((maxLifetimeMillis + bucketMillis - 1) / bucketMillis) + 1;
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedPerBucket * Math.log(fpp) / (ln2 * ln2));
+        // 按64位对齐
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, (bits + 63) & ~63L);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedPerBucket * ln2));
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    /**
+     * 添加Token摘要
+     *
+     * @param digest    Token的SHA-256摘要
+     * @param expiresAt 黑名单条目过期时间（毫秒时间戳）
+     */
+    public void add(byte[] digest, long expiresAt) {
+        add(digest, expiresAt, System.currentTimeMillis());
+    }
+
+    /**
+     * 判断Token是否可能在黑名单中（检查所有有效的桶，空桶直接跳过）
+     *
+     * @param digest Token的SHA-256摘要
+     * @return false表示一定不在黑名单中
+     */
+    public boolean mightContain(byte[] digest) {
+        return mightContain(digest, System.currentTimeMillis());
+    }
+
+    /**
+     * 清理已过期的桶和溢出条目
+     *
+     * @return 清理的桶数量
+     */
+    public int purgeExpired() {
+        return purgeExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * 有效桶数量
+     */
+    public int getActiveBucketCount() {
+        long current = System.currentTimeMillis() / bucketMillis;
+        int count = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.window >= current) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 环的长度（桶数量）
+     */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * 每个桶的位数
+     */
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * 哈希函数个数
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    void add(byte[] digest, long expiresAt, long now) {
+        if (expiresAt <= now) {
+            return;
+        }
+        long window = expiresAt / bucketMillis;
+        Bucket bucket = window < now / bucketMillis + bucketCount ? bucketFor(window) : null;
+        if (bucket != null) {
+            bucket.add(digest);
+        } else {
+            overflow.put(ByteBuffer.wrap(digest.clone()), expiresAt);
+        }
+    }
+
+    boolean mightContain(byte[] digest, long now) {
+        long current = now / bucketMillis;
+        long h1 = hash1(digest);
+        long h2 = hash2(digest);
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.window >= current && bucket.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return !overflow.isEmpty() && overflow.containsKey(ByteBuffer.wrap(digest));
+    }
+
+    int purgeExpired(long now) {
+        long current = now / bucketMillis;
+        int purged = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.window < current && buckets.compareAndSet(i, bucket, null)) {
+                purged++;
+            }
+        }
+        overflow.values().removeIf(expiresAt -> expiresAt <= now);
+        return purged;
+    }
+
+    /**
+     * 获取窗口对应的桶，槽位被更早的窗口占用时整体替换（即整桶过期）
+     */
+    private Bucket bucketFor(long window) {
+        int slot = slot(window);
+        while (true) {
+            Bucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.window == window) {
+                return bucket;
+            }
+            if (bucket != null && bucket.window > window) {
+                // 时钟回拨导致槽位已被更晚的窗口占用
+                return null;
+            }
+            Bucket created = new Bucket(window, bitCount);
+            if (buckets.compareAndSet(slot, bucket, created)) {
+                return created;
+            }
+        }
+    }
+
+    private int slot(long window) {
+        return (int) Math.floorMod(window, (long) bucketCount);
+    }
+
+    /**
+     * 双重哈希：摘要本身已均匀分布，直接取前16字节作为两个64位哈希
+     */
+    private long hash1(byte[] digest) {
+        return ByteBuffer.wrap(digest, 0, 8).getLong();
+    }
+
+    private long hash2(byte[] digest) {
+        return ByteBuffer.wrap(digest, 8, 8).getLong() | 1L;
+    }
+
+    /**
+     * 单个时间窗口的位数组
+     */
+    private final class Bucket {
+
+        private final long window;
+        private final AtomicLongArray words;
+
+        private Bucket(long window, int bits) {
+            this.window = window;
+            this.words = new AtomicLongArray(bits >>> 6);
+        }
+
+        private void add(byte[] digest) {
+            long h1 = hash1(digest);
+            long h2 = hash2(digest);
+            for (int i = 0; i < hashCount; i++) {
+                int index = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                long mask = 1L << index;
+                int word = index >>> 6;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                int index = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                if ((words.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.ywhc.admin.common.security.token;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 访问Token中携带的权限快照
+ * 权限版本与用户当前权限版本一致时，认证过滤器可直接根据快照构建用户，无需查询数据库
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Getter
+public final class PermissionClaims {
+
+    /**
+     * Claim 名称（保持简短以控制Token长度）
+     */
+    private static final String CLAIM_VERSION = "pv";
+    private static final String CLAIM_DEPT_ID = "did";
+    private static final String CLAIM_DEPT_NAME = "dn";
+    private static final String CLAIM_PERMISSION_HASH = "ph";
+
+    /**
+     * 签发时的权限版本
+     */
+    private final long version;
+
+    /**
+     * 部门ID
+     */
+    private final Long deptId;
+
+    /**
+     * 部门名称
+     */
+    private final String deptName;
+
+    /**
+     * 权限标识集合的摘要
+     */
+    private final String permissionHash;
+
+    public PermissionClaims(long version, Long deptId, String deptName, String permissionHash) {
+        this.version = version;
+        this.deptId = deptId;
+        this.deptName = deptName;
+        this.permissionHash = permissionHash;
+    }
+
+    /**
+     * 写入Claims
+     */
+    public void writeTo(Map<String, Object> claims) {
+        claims.put(CLAIM_VERSION, version);
+        if (deptId != null) {
+            claims.put(CLAIM_DEPT_ID, deptId);
+        }
+        if (deptName != null) {
+            claims.put(CLAIM_DEPT_NAME, deptName);
+        }
+        claims.put(CLAIM_PERMISSION_HASH, permissionHash);
+    }
+
+    /**
+     * 从Claims读取权限快照
+     *
+     * @return 权限快照，Token未携带时返回null
+     */
+    public static PermissionClaims from(Claims claims) {
+        Long version = claims.get(CLAIM_VERSION, Long.class);
+        String permissionHash = claims.get(CLAIM_PERMISSION_HASH, String.class);
+        if (version == null || permissionHash == null) {
+            return null;
+        }
+        return new PermissionClaims(version, claims.get(CLAIM_DEPT_ID, Long.class),
+            claims.get(CLAIM_DEPT_NAME, String.class), permissionHash);
+    }
+}
@@ -0,0 +1,274 @@
+package com.ywhc.admin.common.security.token;
+
+import com.ywhc.admin.common.constant.RedisKeys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token黑名单本地过滤器
+ * 在本节点维护黑名单Token摘要的分桶布隆过滤器，过滤器未命中时无需访问Redis；
+ * 启动时在后台线程从Redis重建（完成前所有查询按可能存在处理），任一节点拉黑Token时通过发布/订阅同步
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenBlacklistFilter implements MessageListener {
+
+    /**
+     * Token拉黑通知频道，消息格式：摘要|过期时间戳（毫秒），批量时多条以逗号分隔
+     */
+    public static final String CHANNEL = "auth:token_blacklisted";
+
+    /**
+     * 批量通知时单条消息包含的最大条目数
+     */
+    private static final int PUBLISH_BATCH_SIZE = 200;
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Value("${jwt.blacklist-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.blacklist-filter.bucket-millis:86400000}")
+    private long bucketMillis;
+
+    @Value("${jwt.blacklist-filter.expected-per-bucket:24000}")
+    private int expectedPerBucket;
+
+    @Value("${jwt.blacklist-filter.fpp:0.001}")
+    private double fpp;
+
+    /**
+     * 黑名单条目的最长存活时间与刷新Token有效期一致
+     */
+    @Value("${jwt.refresh-expiration}")
+    private long maxLifetime;
+
+    private volatile BlacklistBloomFilter filter;
+
+    /**
+     * 重建期间新收到的条目同时写入新过滤器，避免切换时丢失
+     */
+    private volatile BlacklistBloomFilter building;
+
+    /**
+     * 过滤器是否可用，不可用时所有查询都回退到Redis
+     */
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        this.filter = newFilter();
+        if (!enabled) {
+            return;
+        }
+        // 先订阅再重建，保证重建期间的新增不会遗漏；全量扫描不阻塞启动
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        Thread loader = new Thread(this::rebuild, "token-blacklist-rebuild");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * 判断Token是否可能在黑名单中
+     *
+     * @param token 访问Token
+     * @return false表示一定不在黑名单中，true需到Redis确认
+     */
+    public boolean mightBeBlacklisted(String token) {
+        if (!ready) {
+            return true;
+        }
+        return filter.mightContain(TokenDigest.sha256Bytes(token));
+    }
+
+    /**
+     * Token已写入Redis黑名单后调用，更新本地过滤器并通知其他节点
+     *
+     * @param token         访问Token
+     * @param expireSeconds 黑名单剩余有效期（秒）
+     */
+    public void publish(String token, long expireSeconds) {
+        byte[] digest = TokenDigest.sha256Bytes(token);
+        long expiresAt = System.currentTimeMillis() + expireSeconds * 1000;
+        add(digest, expiresAt);
+        if (!enabled) {
+            return;
+        }
+        send(TokenDigest.encode(digest) + "|" + expiresAt);
+    }
+
+    /**
+     * 批量Token已写入Redis黑名单后调用，按批合并通知，避免大批量下线时逐条发布
+     *
+     * @param ttlMillisByToken Token -> 黑名单剩余有效期（毫秒）
+     */
+    public void publishAll(Map<String, Long> ttlMillisByToken) {
+        long now = System.currentTimeMillis();
+        StringBuilder message = new StringBuilder();
+        int count = 0;
+        for (Map.Entry<String, Long> entry : ttlMillisByToken.entrySet()) {
+            byte[] digest = TokenDigest.sha256Bytes(entry.getKey());
+            long expiresAt = now + entry.getValue();
+            add(digest, expiresAt);
+            if (!enabled) {
+                continue;
+            }
+            if (count > 0) {
+                message.append(',');
+            }
+            message.append(TokenDigest.encode(digest)).append('|').append(expiresAt);
+            if (++count == PUBLISH_BATCH_SIZE) {
+                send(message.toString());
+                message.setLength(0);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            send(message.toString());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String entry : body.split(",")) {
+            int separator = entry.indexOf('|');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                String digest = entry.substring(0, separator);
+                add(TokenDigest.decode(digest), Long.parseLong(entry.substring(separator + 1)));
+                verifiedTokenCache.invalidateDigest(digest);
+            } catch (IllegalArgumentException e) {
+                log.warn("无法识别的Token拉黑消息: {}", entry);
+            }
+        }
+    }
+
+    /**
+     * 从Redis重建过滤器，定期执行以弥补可能丢失的发布/订阅消息
+     */
+    @Scheduled(initialDelayString = "${jwt.blacklist-filter.rebuild-interval:3600000}",
+        fixedDelayString = "${jwt.blacklist-filter.rebuild-interval:3600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        BlacklistBloomFilter rebuilt = newFilter();
+        building = rebuilt;
+        try {
+            int count = 0;
+            List<String> keys = new ArrayList<>(REBUILD_BATCH_SIZE);
+            ScanOptions options = ScanOptions.scanOptions().match(RedisKeys.TOKEN_BLACKLIST_KEY + "*").count(1000).build();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == REBUILD_BATCH_SIZE) {
+                        count += loadBatch(rebuilt, keys);
+                        keys.clear();
+                    }
+                }
+            }
+            count += loadBatch(rebuilt, keys);
+
+            this.filter = rebuilt;
+            this.ready = true;
+            log.info("Token黑名单过滤器重建完成: 条目数={}, 桶数={}, 每桶位数={}, 哈希函数数={}",
+                count, rebuilt.getBucketCount(), rebuilt.getBitCount(), rebuilt.getHashCount());
+        } catch (Exception e) {
+            // 保留原过滤器状态；首次重建失败时所有查询回退到Redis
+            log.error("Token黑名单过滤器重建失败: {}", e.getMessage(), e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * 定期清理已过期的桶
+     */
+    @Scheduled(fixedDelayString = "${jwt.blacklist-filter.purge-interval:600000}")
+    public void purgeExpired() {
+        int purged = filter.purgeExpired();
+        if (purged > 0) {
+            log.debug("Token黑名单过滤器清理过期桶: {}", purged);
+        }
+    }
+
+    private void send(String message) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, message);
+        } catch (Exception e) {
+            log.error("发布Token拉黑通知失败: {}", e.getMessage());
+        }
+    }
+
+    private void add(byte[] digest, long expiresAt) {
+        filter.add(digest, expiresAt);
+        BlacklistBloomFilter rebuilding = building;
+        if (rebuilding != null) {
+            rebuilding.add(digest, expiresAt);
+        }
+    }
+
+    /**
+     * 批量读取黑名单Key的剩余有效期并写入过滤器
+     */
+    private int loadBatch(BlacklistBloomFilter target, List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> ttls = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().pTtl(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Object ttl = ttls.get(i);
+            long remaining = ttl instanceof Long value ? value : -2L;
+            if (remaining == -2L) {
+                // Key已过期
+                continue;
+            }
+            // 未设置过期时间的条目按最长有效期处理
+            long expiresAt = remaining > 0 ? now + remaining : now + maxLifetime;
+            String token = keys.get(i).substring(RedisKeys.TOKEN_BLACKLIST_KEY.length());
+            target.add(TokenDigest.sha256Bytes(token), expiresAt);
+            count++;
+        }
+        return count;
+    }
+
+    private BlacklistBloomFilter newFilter() {
+        return new BlacklistBloomFilter(bucketMillis, maxLifetime, expectedPerBucket, fpp);
+    }
+}
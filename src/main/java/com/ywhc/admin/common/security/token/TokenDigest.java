@@ -0,0 +1,73 @@
+package com.ywhc.admin.common.security.token;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Token摘要工具类
+ * 本地缓存和索引只保存Token摘要，不直接使用原始Token作为键
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> newDigest("SHA-256"));
+
+    /**
+     * 当前线程最近一次计算的Token及摘要
+     * 同一请求中已验签Token缓存和黑名单过滤器先后对同一Token取摘要，只需计算一次
+     */
+    private static final ThreadLocal<Object[]> LAST = ThreadLocal.withInitial(() -> new Object[2]);
+
+    private TokenDigest() {
+    }
+
+    /**
+     * 计算Token的SHA-256摘要（Base64Url编码，无填充）
+     */
+    public static String sha256(String token) {
+        return encode(sha256Bytes(token));
+    }
+
+    /**
+     * 计算Token的SHA-256摘要（原始字节）
+     * 返回的数组可能与同一线程的其他调用方共享，不得修改
+     */
+    public static byte[] sha256Bytes(String token) {
+        Object[] last = LAST.get();
+        if (token.equals(last[0])) {
+            return (byte[]) last[1];
+        }
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        last[0] = token;
+        last[1] = hash;
+        return hash;
+    }
+
+    /**
+     * 摘要字节编码为字符串（Base64Url编码，无填充）
+     */
+    public static String encode(byte[] hash) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * 摘要字符串解码为字节
+     */
+    public static byte[] decode(String digest) {
+        return Base64.getUrlDecoder().decode(digest);
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("不支持的摘要算法: " + algorithm, e);
+        }
+    }
+}
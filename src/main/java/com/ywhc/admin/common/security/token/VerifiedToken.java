@@ -0,0 +1,97 @@
+package com.ywhc.admin.common.security.token;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * 已验签的JWT Token
+ * 每个请求只在JwtAuthenticationFilter中解析验签一次，后续使用方（SecurityUtils、LogAspect等）
+ * 通过安全上下文和请求用户上下文读取用户信息，不再重复解析
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Getter
+public final class VerifiedToken {
+
+    /**
+     * 刷新Token类型标识
+     */
+    public static final String TYPE_REFRESH = "refresh";
+
+    /**
+     * 原始Token
+     */
+    private final String token;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * Token类型，访问Token为null
+     */
+    private final String type;
+
+    /**
+     * 签发时间（毫秒）
+     */
+    private final long issuedAt;
+
+    /**
+     * 过期时间（毫秒）
+     */
+    private final long expiresAt;
+
+    /**
+     * 完整Claims
+     */
+    private final Claims claims;
+
+    /**
+     * 携带的权限快照，未携带时为null
+     */
+    private final PermissionClaims permissionClaims;
+
+    public VerifiedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+        this.username = claims.getSubject();
+        this.userId = claims.get("userId", Long.class);
+        this.type = claims.get("type", String.class);
+        Date issued = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        this.issuedAt = issued != null ? issued.getTime() : 0L;
+        this.expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        this.permissionClaims = PermissionClaims.from(claims);
+    }
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+
+    /**
+     * 是否为刷新Token
+     */
+    public boolean isRefreshToken() {
+        return TYPE_REFRESH.equals(type);
+    }
+
+    /**
+     * 剩余有效期（秒）
+     */
+    public long getRemainingSeconds() {
+        return Math.max(0L, (expiresAt - System.currentTimeMillis()) / 1000);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ywhc.admin.common.security.token;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已验签Token缓存
+ * 同一个访问Token在有效期内会被反复提交，缓存验签结果直到Token的exp，
+ * 避免每个请求都重复进行HMAC验签和Claims反序列化
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${jwt.verified-cache.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 单条缓存的最长存活时间（毫秒），不超过Token自身的过期时间
+     */
+    @Value("${jwt.verified-cache.max-ttl:600000}")
+    private long maxTtl;
+
+    private final LRUCache<String, VerifiedToken> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public VerifiedTokenCache(@Value("${jwt.verified-cache.max-size:10000}") int maxSize) {
+        this.cache = CacheUtil.newLRUCache(maxSize);
+    }
+
+    /**
+     * 获取已验签的Token
+     *
+     * @param token 原始Token
+     * @return 缓存的验签结果，未命中或已过期返回null
+     */
+    public VerifiedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        VerifiedToken verifiedToken = cache.get(TokenDigest.sha256(token), false);
+        if (verifiedToken == null || verifiedToken.isExpired()) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return verifiedToken;
+    }
+
+    /**
+     * 缓存验签结果，存活时间不超过Token的exp
+     */
+    public void put(VerifiedToken verifiedToken) {
+        if (!enabled) {
+            return;
+        }
+        long ttl = Math.min(verifiedToken.getExpiresAt() - System.currentTimeMillis(), maxTtl);
+        if (ttl > 0) {
+            cache.put(TokenDigest.sha256(verifiedToken.getToken()), verifiedToken, ttl);
+        }
+    }
+
+    /**
+     * 移除Token的验签结果（Token被拉黑、强制下线时调用）
+     */
+    public void invalidate(String token) {
+        if (token != null) {
+            cache.remove(TokenDigest.sha256(token));
+        }
+    }
+
+    /**
+     * 按Token摘要移除验签结果（其他节点拉黑Token时通过发布/订阅调用）
+     */
+    public void invalidateDigest(String digest) {
+        if (digest != null) {
+            cache.remove(digest);
+        }
+    }
+
+    /**
+     * 缓存条目数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 命中率
+     */
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+}
@@ -1,6 +1,10 @@
 package com.ywhc.admin.common.task;
 
+import com.ywhc.admin.common.security.token.VerifiedTokenCache;
 import com.ywhc.admin.modules.monitor.online.service.OnlineUserService;
+import com.ywhc.admin.modules.monitor.online.support.LastAccessTimeBuffer;
+import com.ywhc.admin.modules.monitor.online.support.SessionNearCache;
+import com.ywhc.admin.modules.monitor.online.vo.OnlineUserStatsVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -18,6 +22,18 @@ import org.springframework.stereotype.Component;
 public class OnlineUserCleanupTask {
 
     private final OnlineUserService onlineUserService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final LastAccessTimeBuffer lastAccessTimeBuffer;
+    private final SessionNearCache sessionNearCache;
+
+    /**
+     * 每10分钟清理索引中已过期的会话
+     * cron表达式：每10分钟整执行一次
+     */
+    @Scheduled(cron = "0 */10 * * * ?")
+    public void cleanExpiredSessions() {
+        onlineUserService.removeExpiredUsers();
+    }
 
     /**
      * 每小时统计在线用户数量
@@ -26,8 +42,19 @@ public class OnlineUserCleanupTask {
     @Scheduled(cron = "0 0 * * * ?")
     public void logOnlineUserCount() {
         try {
-            long count = onlineUserService.getOnlineUserCount();
-            log.info("当前在线用户数量: {}", count);
+            OnlineUserStatsVO stats = onlineUserService.getOnlineUserStats();
+            log.info("当前在线用户数量: {}, 今日独立用户: {}, 设备分布: {}",
+                stats.getTotal(), stats.getUniqueUsersToday(), stats.getDeviceTypeCounts());
+            log.info("Token验签缓存: 条目数={}, 命中={}, 未命中={}, 命中率={}",
+                verifiedTokenCache.size(), verifiedTokenCache.getHitCount(),
+                verifiedTokenCache.getMissCount(), String.format("%.2f%%", verifiedTokenCache.getHitRatio() * 100));
+            log.info("最后活动时间写缓冲: 记录={}, 写入={}, 待写={}",
+                lastAccessTimeBuffer.getRecordCount(), lastAccessTimeBuffer.getWriteCount(),
+                lastAccessTimeBuffer.getPendingCount());
+            log.info("会话近端缓存: 跟踪模式={}, 条目数={}, 命中={}, 未命中={}, 失效={}, 命中率={}",
+                sessionNearCache.isTracking(), sessionNearCache.size(), sessionNearCache.getHitCount(),
+                sessionNearCache.getMissCount(), sessionNearCache.getInvalidationCount(),
+                String.format("%.2f%%", sessionNearCache.getHitRatio() * 100));
         } catch (Exception e) {
             log.error("统计在线用户数量失败: {}", e.getMessage(), e);
         }
@@ -0,0 +1,66 @@
+package com.ywhc.admin.common.useragent;
+
+import lombok.Getter;
+
+/**
+ * User-Agent解析结果（不可变，可在缓存中共享）
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Getter
+public final class UserAgentInfo {
+
+    public static final String UNKNOWN = "Unknown";
+
+    /**
+     * 设备类型：PC
+     */
+    public static final int DEVICE_PC = 1;
+
+    /**
+     * 设备类型：移动端
+     */
+    public static final int DEVICE_MOBILE = 2;
+
+    /**
+     * 无法识别时的结果
+     */
+    public static final UserAgentInfo UNKNOWN_INFO = new UserAgentInfo(UNKNOWN, null, UNKNOWN, DEVICE_PC);
+
+    /**
+     * 浏览器名称
+     */
+    private final String browser;
+
+    /**
+     * 浏览器版本，无法识别时为null
+     */
+    private final String browserVersion;
+
+    /**
+     * 操作系统
+     */
+    private final String os;
+
+    /**
+     * 设备类型：1-PC，2-移动端
+     */
+    private final int deviceType;
+
+    public UserAgentInfo(String browser, String browserVersion, String os, int deviceType) {
+        this.browser = browser;
+        this.browserVersion = browserVersion;
+        this.os = os;
+        this.deviceType = deviceType;
+    }
+
+    public boolean isMobile() {
+        return deviceType == DEVICE_MOBILE;
+    }
+
+    @Override
+    public String toString() {
+        return browser + (browserVersion != null ? " " + browserVersion : "") + " / " + os;
+    }
+}
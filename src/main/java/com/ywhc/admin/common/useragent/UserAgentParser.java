@@ -0,0 +1,165 @@
+package com.ywhc.admin.common.useragent;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * User-Agent解析器
+ * 浏览器、操作系统按规则优先级依次匹配关键字，取第一个命中项；
+ * 线上绝大多数流量来自少量固定的User-Agent，解析结果按原始字符串做LRU缓存
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Component
+public class UserAgentParser {
+
+    /**
+     * 超过该长度的User-Agent不缓存，避免异常请求头占用缓存空间
+     */
+    private static final int MAX_CACHED_LENGTH = 512;
+
+    private static final int MAX_VERSION_LENGTH = 20;
+
+    /**
+     * 浏览器规则，按优先级排列（Edge、Opera的User-Agent中同样包含Chrome/，需排在前面）
+     */
+    private static final Rule[] BROWSER_RULES = {
+        new Rule("Microsoft Edge", "Edg/", "Edg/"),
+        new Rule("Opera", "OPR/", "OPR/"),
+        new Rule("Opera", "Opera/", "Version/"),
+        new Rule("Google Chrome", "Chrome/", "Chrome/"),
+        new Rule("Google Chrome", "CriOS/", "CriOS/"),
+        new Rule("Mozilla Firefox", "Firefox/", "Firefox/"),
+        new Rule("Mozilla Firefox", "FxiOS/", "FxiOS/"),
+        new Rule("Safari", "Safari/", "Version/"),
+        new Rule("Internet Explorer", "MSIE", "MSIE "),
+        new Rule("Internet Explorer", "Trident/", "rv:")
+    };
+
+    /**
+     * 操作系统规则，按优先级排列（Android包含Linux、iOS包含Mac OS X，需排在前面）
+     */
+    private static final Rule[] OS_RULES = {
+        new Rule("Windows 10", "Windows NT 10.0", null),
+        new Rule("Windows 8.1", "Windows NT 6.3", null),
+        new Rule("Windows 8", "Windows NT 6.2", null),
+        new Rule("Windows 7", "Windows NT 6.1", null),
+        new Rule("Windows", "Windows", null),
+        new Rule("Android", "Android", null),
+        new Rule("iOS", "iPhone", null),
+        new Rule("iOS", "iPad", null),
+        new Rule("macOS", "Mac OS X", null),
+        new Rule("Linux", "Linux", null)
+    };
+
+    /**
+     * 移动设备关键字
+     */
+    private static final String[] MOBILE_KEYWORDS = {"Mobile", "Android", "iPhone"};
+
+    private final LRUCache<String, UserAgentInfo> cache;
+
+    public UserAgentParser(@Value("${user-agent.cache-size:1024}") int cacheSize) {
+        this.cache = CacheUtil.newLRUCache(cacheSize);
+    }
+
+    /**
+     * 解析User-Agent
+     *
+     * @param userAgent User-Agent请求头
+     * @return 解析结果，不会返回null
+     */
+    public UserAgentInfo parse(String userAgent) {
+        if (!StringUtils.hasText(userAgent)) {
+            return UserAgentInfo.UNKNOWN_INFO;
+        }
+        if (userAgent.length() > MAX_CACHED_LENGTH) {
+            return classify(userAgent);
+        }
+        UserAgentInfo info = cache.get(userAgent, false);
+        if (info == null) {
+            info = classify(userAgent);
+            cache.put(userAgent, info);
+        }
+        return info;
+    }
+
+    /**
+     * 缓存条目数
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * 不经缓存直接解析
+     */
+    static UserAgentInfo classify(String userAgent) {
+        String browser = UserAgentInfo.UNKNOWN;
+        String version = null;
+        Rule browserRule = firstMatch(BROWSER_RULES, userAgent);
+        if (browserRule != null) {
+            browser = browserRule.name;
+            version = extractVersion(userAgent, browserRule.versionPrefix);
+        }
+        Rule osRule = firstMatch(OS_RULES, userAgent);
+        String os = osRule != null ? osRule.name : UserAgentInfo.UNKNOWN;
+        int deviceType = isMobile(userAgent) ? UserAgentInfo.DEVICE_MOBILE : UserAgentInfo.DEVICE_PC;
+        return new UserAgentInfo(browser, version, os, deviceType);
+    }
+
+    private static Rule firstMatch(Rule[] rules, String userAgent) {
+        for (Rule rule : rules) {
+            if (userAgent.contains(rule.keyword)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isMobile(String userAgent) {
+        for (String keyword : MOBILE_KEYWORDS) {
+            if (userAgent.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取版本前缀之后的版本号（数字和点）
+     */
+    private static String extractVersion(String userAgent, String prefix) {
+        int start = userAgent.indexOf(prefix);
+        if (start < 0) {
+            return null;
+        }
+        start += prefix.length();
+        int end = start;
+        int limit = Math.min(userAgent.length(), start + MAX_VERSION_LENGTH);
+        while (end < limit && (Character.isDigit(userAgent.charAt(end)) || userAgent.charAt(end) == '.')) {
+            end++;
+        }
+        return end > start ? userAgent.substring(start, end) : null;
+    }
+
+    /**
+     * 识别规则
+     */
+    private static final class Rule {
+
+        private final String name;
+        private final String keyword;
+        private final String versionPrefix;
+
+        private Rule(String name, String keyword, String versionPrefix) {
+            this.name = name;
+            this.keyword = keyword;
+            this.versionPrefix = versionPrefix;
+        }
+    }
+}
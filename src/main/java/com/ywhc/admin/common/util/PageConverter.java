@@ -2,6 +2,8 @@ package com.ywhc.admin.common.util;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ywhc.admin.common.dto.BaseQueryDTO;
+import com.ywhc.admin.common.dto.CursorPage;
 
 import java.util.List;
 import java.util.function.Function;
@@ -9,7 +11,7 @@ import java.util.stream.Collectors;
 
 /**
  * 分页数据转换工具类
- * 用于将 IPage<Entity> 转换为 Page<VO>
+ * 用于将 IPage<Entity> 转换为 Page<VO>，游标分页时转换为 {@link CursorPage}
  *
  * @author YWHC Team
  * @since 2024-01-01
@@ -42,6 +44,54 @@ public class PageConverter {
         return targetPage;
     }
 
+    /**
+     * 创建分页查询参数
+     * 游标分页时从第一行起多查一条用于判断是否还有下一页，不执行COUNT查询
+     *
+     * @param queryDTO 查询条件
+     * @param <T>      实体类型
+     * @return 分页查询参数
+     */
+    public static <T> Page<T> of(BaseQueryDTO queryDTO) {
+        if (queryDTO.isCursorPaging()) {
+            return new Page<>(1, queryDTO.getSize() + 1, false);
+        }
+        return new Page<>(queryDTO.getCurrent(), queryDTO.getSize());
+    }
+
+    /**
+     * 将分页查询结果转换为 Page<R>，游标分页时转换为 CursorPage<R>
+     * 查询参数需由 {@link #of(BaseQueryDTO)} 创建，查询条件需由 {@link QueryProcessor} 构建
+     *
+     * @param sourcePage 源分页对象
+     * @param queryDTO   查询条件
+     * @param converter  转换函数，将 T 类型转换为 R 类型
+     * @param <T>        源数据类型
+     * @param <R>        目标数据类型
+     * @return 转换后的分页对象
+     */
+    public static <T, R> Page<R> convert(IPage<T> sourcePage, BaseQueryDTO queryDTO, Function<T, R> converter) {
+        if (sourcePage == null || !queryDTO.isCursorPaging()) {
+            return convert(sourcePage, converter);
+        }
+
+        List<T> records = sourcePage.getRecords();
+        int size = queryDTO.getSize().intValue();
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = records.subList(0, size);
+        }
+
+        CursorPage<R> targetPage = new CursorPage<>(size);
+        targetPage.setRecords(records.stream().map(converter).collect(Collectors.toList()));
+        targetPage.setHasMore(hasMore);
+        if (hasMore) {
+            // 续查令牌取自转换前的最后一行，VO可能不包含排序字段
+            targetPage.setNextCursor(SeekCursor.of(queryDTO).next(records.get(records.size() - 1)));
+        }
+        return targetPage;
+    }
+
     /**
      * 将 IPage<T> 转换为 Page<R>，支持批量转换优化
      * 当需要对整个列表进行额外处理时使用此方法
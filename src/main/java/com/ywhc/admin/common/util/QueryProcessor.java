@@ -3,6 +3,7 @@ package com.ywhc.admin.common.util;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.ywhc.admin.common.annotation.QueryField;
 import com.ywhc.admin.common.annotation.QueryType;
+import com.ywhc.admin.common.dto.BaseQueryDTO;
 import com.ywhc.admin.common.dto.DateRange;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
@@ -31,7 +32,7 @@ public class QueryProcessor {
      * @param <T>          实体类型
      */
     public static <T> void buildQuery(QueryWrapper<T> queryWrapper, Object queryDto) {
-        buildQueryWithSort(queryWrapper, queryDto, false);
+        buildQueryWithSort(queryWrapper, queryDto, false, null);
     }
 
     /**
@@ -44,7 +45,7 @@ public class QueryProcessor {
      * @return 返回传入的queryWrapper，支持链式调用
      */
     public static <T> QueryWrapper<T> buildQueryWithSort(QueryWrapper<T> queryWrapper, Object queryDto) {
-        return buildQueryWithSort(queryWrapper, queryDto, true);
+        return buildQueryWithSort(queryWrapper, queryDto, true, null);
     }
 
     /**
@@ -53,10 +54,12 @@ public class QueryProcessor {
      * @param queryWrapper 查询包装器
      * @param queryDto     查询DTO对象
      * @param withSort     是否添加排序
+     * @param tableAlias   游标分页定位字段所属的表别名，单表查询为null
      * @param <T>          实体类型
      * @return 返回传入的queryWrapper，支持链式调用
      */
-    private static <T> QueryWrapper<T> buildQueryWithSort(QueryWrapper<T> queryWrapper, Object queryDto, boolean withSort) {
+    private static <T> QueryWrapper<T> buildQueryWithSort(QueryWrapper<T> queryWrapper, Object queryDto,
+                                                          boolean withSort, String tableAlias) {
         if (queryDto == null) {
             return queryWrapper;
         }
@@ -90,7 +93,12 @@ public class QueryProcessor {
 
         // 添加排序（如果需要且DTO继承了BaseQueryDTO）
         if (withSort) {
-            addSorting(queryWrapper, queryDto);
+            if (queryDto instanceof BaseQueryDTO baseQuery && baseQuery.isCursorPaging()) {
+                // 游标分页：按 (排序字段, id) 定位并排序，代替OFFSET
+                SeekCursor.of(baseQuery).apply(queryWrapper, tableAlias);
+            } else {
+                addSorting(queryWrapper, queryDto);
+            }
         }
 
         return queryWrapper;
@@ -333,4 +341,17 @@ public class QueryProcessor {
     public static <T> QueryWrapper<T> createQueryWrapper(Object queryDto) {
         return buildQueryWithSort(new QueryWrapper<>(), queryDto);
     }
+
+    /**
+     * 创建联表查询的QueryWrapper
+     * 游标分页时排序字段和id需要加表别名，避免与关联表的同名字段冲突
+     *
+     * @param queryDto   查询DTO对象
+     * @param tableAlias 主表别名
+     * @param <T>        实体类型
+     * @return 构建好的QueryWrapper
+     */
+    public static <T> QueryWrapper<T> createQueryWrapper(Object queryDto, String tableAlias) {
+        return buildQueryWithSort(new QueryWrapper<>(), queryDto, true, tableAlias);
+    }
 }
@@ -1,125 +1,94 @@
 package com.ywhc.admin.common.util;
 
+import com.ywhc.admin.common.context.RequestUserContext;
+import com.ywhc.admin.common.context.RequestUserContextHolder;
 import com.ywhc.admin.common.security.service.SecurityUser;
-import com.ywhc.admin.common.utils.JwtUtils;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * 安全工具类
  * 用于获取当前用户信息
+ * 静态方法与实例方法统一读取JwtAuthenticationFilter构建的请求用户上下文，
+ * 没有上下文时（如登录流程中手动设置认证信息）回退到Spring Security上下文
  *
  * @author YWHC Team
  * @since 2024-01-01
  */
 @Component
-@RequiredArgsConstructor
 public class SecurityUtils {
 
-    private final JwtUtils jwtUtils;
-
     /**
      * 获取当前用户名
-     * 需要根据你的认证方式进行调整
      */
     public String getCurrentUsername() {
-        // 方式1: 从Spring Security获取
-//         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-//         if (authentication != null && authentication.isAuthenticated()) {
-//             return authentication.getName();
-//         }
-
-        // 方式2: 从JWT token获取
-        // 这里需要根据你的JWT实现来获取用户信息
-
-        // 方式3: 从请求头获取
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        if (attributes != null) {
-            HttpServletRequest request = attributes.getRequest();
-            String token = request.getHeader("Authorization");
-            if (token != null) {
-                // 解析token获取用户名
-                // 这里需要根据你的token解析逻辑来实现
-                token = token.replace(jwtUtils.getTokenPrefix(), "");
-                String username = jwtUtils.getUsernameFromToken(token);
-                return username;
-            }
-        }
-
-        return "anonymous";
+        String username = getUsername();
+        return username != null ? username : "anonymous";
     }
 
     /**
      * 获取当前用户ID
      */
     public Long getCurrentUserId() {
-        // 方式3: 从请求头获取
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        if (attributes != null) {
-            HttpServletRequest request = attributes.getRequest();
-            String token = request.getHeader("Authorization");
-            if (token != null) {
-                // 解析token获取用户名
-                // 这里需要根据你的token解析逻辑来实现
-                token = token.replace(jwtUtils.getTokenPrefix(), "");
-                Long userId = jwtUtils.getUserIdFromToken(token);
-                return userId;
-            }
-        }
-
-        return null;
+        return getUserId();
     }
 
     /**
      * 静态方法获取当前用户ID
-     * 通过Spring Security上下文获取
      */
     public static Long getUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof SecurityUser securityUser) {
-            return securityUser.getUser().getId();
+        RequestUserContext context = RequestUserContextHolder.get();
+        if (context != null) {
+            return context.getUserId();
         }
-        return null;
+        SecurityUser securityUser = getSecurityUser();
+        return securityUser != null ? securityUser.getUser().getId() : null;
     }
 
     /**
      * 静态方法获取当前用户名
-     * 通过Spring Security上下文获取
      */
     public static String getUsername() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof SecurityUser securityUser) {
-            return securityUser.getUser().getUsername();
+        RequestUserContext context = RequestUserContextHolder.get();
+        if (context != null) {
+            return context.getUsername();
         }
-        return null;
+        SecurityUser securityUser = getSecurityUser();
+        return securityUser != null ? securityUser.getUser().getUsername() : null;
     }
 
     /**
      * 获取当前用户部门ID
      */
     public static Long getCurrentUserDeptId() {
-        // 从Spring Security获取
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof SecurityUser securityUser) {
-            return securityUser.getUser().getDeptId();
+        RequestUserContext context = RequestUserContextHolder.get();
+        if (context != null) {
+            return context.getDeptId();
         }
-        return null;
+        SecurityUser securityUser = getSecurityUser();
+        return securityUser != null ? securityUser.getUser().getDeptId() : null;
     }
 
     /**
      * 获取当前用户部门名称
      */
     public String getCurrentUserDeptName() {
-        // 从Spring Security获取
+        RequestUserContext context = RequestUserContextHolder.get();
+        if (context != null) {
+            return context.getDeptName();
+        }
+        SecurityUser securityUser = getSecurityUser();
+        return securityUser != null ? securityUser.getUser().getDeptName() : null;
+    }
+
+    /**
+     * 从Spring Security上下文获取认证用户
+     */
+    private static SecurityUser getSecurityUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof SecurityUser securityUser) {
-            return securityUser.getUser().getDeptName();
+            return securityUser;
         }
         return null;
     }
@@ -0,0 +1,255 @@
+package com.ywhc.admin.common.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ywhc.admin.common.dto.BaseQueryDTO;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 游标分页定位条件
+ * 按 (排序字段, id) 定位上一页最后一行之后的数据，代替OFFSET跳过前面的行：
+ * <pre>
+ * 降序：col &lt; v OR (col = v AND id &lt; lastId) OR col IS NULL
+ * 升序：col &gt; v OR (col = v AND id &gt; lastId)
+ * </pre>
+ * MySQL升序时NULL排在最前、降序时排在最后，排序值为NULL时单独处理。
+ * 续查令牌为Base64URL编码的JSON，包含排序字段、方向、排序值和ID，解析时校验与当前排序一致
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class SeekCursor {
+
+    private static final String ID_COLUMN = "id";
+    private static final String DEFAULT_SORT_COLUMN = "create_time";
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("[a-z][a-z0-9_]*");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String TYPE_LONG = "n";
+    private static final String TYPE_DECIMAL = "d";
+    private static final String TYPE_DATE_TIME = "t";
+    private static final String TYPE_DATE = "D";
+    private static final String TYPE_BOOLEAN = "b";
+    private static final String TYPE_STRING = "s";
+
+    private final String column;
+    private final boolean asc;
+
+    /**
+     * 上一页最后一行的位置，首页时为null
+     */
+    private final Position position;
+
+    private SeekCursor(String column, boolean asc, Position position) {
+        this.column = column;
+        this.asc = asc;
+        this.position = position;
+    }
+
+    /**
+     * 根据查询条件的排序设置和续查令牌创建定位条件
+     * 未指定排序字段时与普通分页一致，按create_time降序
+     *
+     * @throws RuntimeException 排序字段不合法或令牌与当前排序不一致
+     */
+    public static SeekCursor of(BaseQueryDTO queryDto) {
+        String orderBy = queryDto.getOrderBy();
+        String column;
+        boolean asc;
+        if (orderBy == null || orderBy.trim().isEmpty()) {
+            column = DEFAULT_SORT_COLUMN;
+            asc = false;
+        } else {
+            column = camelToUnderscore(orderBy.trim());
+            asc = !"desc".equalsIgnoreCase(queryDto.getOrderDirection());
+        }
+        if (!COLUMN_PATTERN.matcher(column).matches()) {
+            throw new RuntimeException("排序字段不合法: " + orderBy);
+        }
+
+        String cursor = queryDto.getCursor();
+        Position position = null;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            position = decode(cursor.trim(), column, asc);
+        }
+        return new SeekCursor(column, asc, position);
+    }
+
+    /**
+     * 添加定位条件和排序
+     *
+     * @param tableAlias 联表查询时排序字段所属的表别名，单表查询传null
+     */
+    public <T> void apply(QueryWrapper<T> queryWrapper, String tableAlias) {
+        String prefix = tableAlias != null && !tableAlias.isEmpty() ? tableAlias + "." : "";
+        String col = prefix + column;
+        String id = prefix + ID_COLUMN;
+        boolean sortById = ID_COLUMN.equals(column);
+
+        if (position != null) {
+            Object value = position.value;
+            Long lastId = position.id;
+            if (sortById) {
+                if (asc) {
+                    queryWrapper.gt(id, lastId);
+                } else {
+                    queryWrapper.lt(id, lastId);
+                }
+            } else if (value == null) {
+                // 上一行排序值为NULL：降序时NULL在末尾，只剩同为NULL的行；升序时NULL在开头，之后是全部非NULL行
+                if (asc) {
+                    queryWrapper.and(w -> w.nested(x -> x.isNull(col).gt(id, lastId)).or().isNotNull(col));
+                } else {
+                    queryWrapper.and(w -> w.isNull(col).lt(id, lastId));
+                }
+            } else if (asc) {
+                queryWrapper.and(w -> w.gt(col, value).or(x -> x.eq(col, value).gt(id, lastId)));
+            } else {
+                queryWrapper.and(w -> w.lt(col, value).or(x -> x.eq(col, value).lt(id, lastId)).or().isNull(col));
+            }
+        }
+
+        queryWrapper.orderBy(true, asc, col);
+        if (!sortById) {
+            queryWrapper.orderBy(true, asc, id);
+        }
+    }
+
+    /**
+     * 根据本页最后一行生成续查令牌
+     *
+     * @param lastRow 本页最后一行（实体或VO），需包含排序字段和id对应的属性
+     */
+    public String next(Object lastRow) {
+        Object value = ID_COLUMN.equals(column) ? null : readProperty(lastRow, column);
+        Object id = readProperty(lastRow, ID_COLUMN);
+        if (!(id instanceof Number)) {
+            throw new RuntimeException("游标分页需要数值类型的ID: " + lastRow.getClass().getSimpleName());
+        }
+        return encode(column, asc, value, ((Number) id).longValue());
+    }
+
+    static String encode(String column, boolean asc, Object value, long id) {
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("c", column);
+        token.put("a", asc);
+        if (value != null) {
+            token.put("t", typeOf(value));
+            token.put("v", value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString());
+        }
+        token.put("i", id);
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(token);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (Exception e) {
+            throw new RuntimeException("生成分页游标失败", e);
+        }
+    }
+
+    static Position decode(String cursor, String column, boolean asc) {
+        Map<?, ?> token;
+        try {
+            token = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)), Map.class);
+        } catch (Exception e) {
+            throw new RuntimeException("分页游标无效");
+        }
+        if (!column.equals(token.get("c")) || !Boolean.valueOf(asc).equals(token.get("a"))) {
+            throw new RuntimeException("分页游标与当前排序不一致，请从第一页重新查询");
+        }
+        if (!(token.get("i") instanceof Number)) {
+            throw new RuntimeException("分页游标无效");
+        }
+        long id = ((Number) token.get("i")).longValue();
+        Object type = token.get("t");
+        Object raw = token.get("v");
+        try {
+            return new Position(type == null ? null : parseValue(type.toString(), String.valueOf(raw)), id);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+
+    private static String typeOf(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return TYPE_LONG;
+        }
+        if (value instanceof BigDecimal || value instanceof Double || value instanceof Float) {
+            return TYPE_DECIMAL;
+        }
+        if (value instanceof LocalDateTime) {
+            return TYPE_DATE_TIME;
+        }
+        if (value instanceof LocalDate) {
+            return TYPE_DATE;
+        }
+        if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        }
+        return TYPE_STRING;
+    }
+
+    private static Object parseValue(String type, String value) {
+        return switch (type) {
+            case TYPE_LONG -> Long.valueOf(value);
+            case TYPE_DECIMAL -> new BigDecimal(value);
+            case TYPE_DATE_TIME -> LocalDateTime.parse(value);
+            case TYPE_DATE -> LocalDate.parse(value);
+            case TYPE_BOOLEAN -> Boolean.valueOf(value);
+            case TYPE_STRING -> value;
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    private static Object readProperty(Object row, String column) {
+        String property = underscoreToCamel(column);
+        Field field = ReflectionUtils.findField(row.getClass(), property);
+        if (field == null) {
+            throw new RuntimeException("游标分页排序字段不存在: " + row.getClass().getSimpleName() + "." + property);
+        }
+        ReflectionUtils.makeAccessible(field);
+        return ReflectionUtils.getField(field, row);
+    }
+
+    private static String camelToUnderscore(String camelCase) {
+        return camelCase.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    private static String underscoreToCamel(String column) {
+        StringBuilder property = new StringBuilder(column.length());
+        boolean upper = false;
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+            if (c == '_') {
+                upper = true;
+            } else {
+                property.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return property.toString();
+    }
+
+    /**
+     * 上一页最后一行的排序值和ID
+     */
+    static final class Position {
+
+        final Object value;
+        final Long id;
+
+        Position(Object value, Long id) {
+            this.value = value;
+            this.id = id;
+        }
+    }
+}
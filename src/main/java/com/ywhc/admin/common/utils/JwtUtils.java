@@ -1,7 +1,12 @@
 package com.ywhc.admin.common.utils;
 
+import com.ywhc.admin.common.security.token.PermissionClaims;
+import com.ywhc.admin.common.security.token.VerifiedToken;
+import com.ywhc.admin.common.security.token.VerifiedTokenCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -20,8 +25,11 @@ import java.util.Map;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
+    private final VerifiedTokenCache verifiedTokenCache;
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -34,13 +42,49 @@ public class JwtUtils {
     @Value("${jwt.token-prefix}")
     private String tokenPrefix;
 
+    /**
+     * 是否在访问Token中携带权限快照
+     */
+    @Value("${jwt.embed-permissions:true}")
+    private boolean embedPermissions;
+
+    /**
+     * 签名密钥，启动时构建一次
+     */
+    private SecretKey signKey;
+
+    /**
+     * 线程安全的解析器，启动时构建一次
+     */
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() {
+        this.signKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signKey)
+                .build();
+    }
+
     /**
      * 生成JWT Token
      */
     public String generateToken(String username, Long userId) {
+        return generateToken(username, userId, null);
+    }
+
+    /**
+     * 生成携带权限快照的JWT Token
+     *
+     * @param permissionClaims 权限快照，为null或未开启携带时与普通Token相同
+     */
+    public String generateToken(String username, Long userId, PermissionClaims permissionClaims) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("username", username);
+        if (embedPermissions && permissionClaims != null) {
+            permissionClaims.writeTo(claims);
+        }
         return createToken(claims, username, expiration);
     }
 
@@ -67,10 +111,37 @@ public class JwtUtils {
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSignKey())
+                .signWith(signKey)
                 .compact();
     }
 
+    /**
+     * 解析并验签Token，返回已验签的Token对象
+     * 每个请求只应调用一次，结果通过请求属性传递给后续使用方
+     *
+     * @param token JWT Token
+     * @return 已验签的Token，Token无效时返回null
+     */
+    public VerifiedToken parseToken(String token) {
+        try {
+            return verifyToken(token);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 验签Token，优先使用已验签缓存，未命中时验签并写入缓存
+     */
+    private VerifiedToken verifyToken(String token) {
+        VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+        if (verifiedToken == null) {
+            verifiedToken = new VerifiedToken(token, parseClaims(token));
+            verifiedTokenCache.put(verifiedToken);
+        }
+        return verifiedToken;
+    }
+
     /**
      * 从Token中获取用户名
      */
@@ -111,8 +182,8 @@ public class JwtUtils {
      */
     public Boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = getUsernameFromToken(token);
-            return (username.equals(tokenUsername) && !isTokenExpired(token));
+            Claims claims = getClaimsFromToken(token);
+            return (username.equals(claims.getSubject()) && claims.getExpiration().after(new Date()));
         } catch (Exception e) {
             log.error("Token验证失败: {}", e.getMessage());
             return false;
@@ -136,12 +207,15 @@ public class JwtUtils {
      * 从Token中获取Claims
      */
     private Claims getClaimsFromToken(String token) {
+        return verifyToken(token).getClaims();
+    }
+
+    /**
+     * 解析并验签Token
+     */
+    private Claims parseClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.error("Token已过期: {}", e.getMessage());
             throw e;
@@ -160,14 +234,6 @@ public class JwtUtils {
         }
     }
 
-    /**
-     * 获取签名密钥
-     */
-    private SecretKey getSignKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * 刷新Token
      */
@@ -190,6 +256,13 @@ public class JwtUtils {
         return tokenPrefix;
     }
 
+    /**
+     * 是否在访问Token中携带权限快照
+     */
+    public boolean isEmbedPermissions() {
+        return embedPermissions;
+    }
+
     /**
      * 获取Token过期时长
      */
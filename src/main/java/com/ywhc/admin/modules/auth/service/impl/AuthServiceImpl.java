@@ -2,6 +2,11 @@ package com.ywhc.admin.modules.auth.service.impl;
 
 import com.ywhc.admin.common.result.ResultCode;
 import com.ywhc.admin.common.security.service.SecurityUser;
+import com.ywhc.admin.common.security.service.UserDetailsServiceImpl;
+import com.ywhc.admin.common.security.token.PermissionClaims;
+import com.ywhc.admin.common.security.token.VerifiedToken;
+import com.ywhc.admin.common.useragent.UserAgentInfo;
+import com.ywhc.admin.common.useragent.UserAgentParser;
 import com.ywhc.admin.common.utils.JwtUtils;
 import com.ywhc.admin.modules.auth.dto.ChangePasswordDTO;
 import com.ywhc.admin.modules.auth.dto.LoginDTO;
@@ -48,6 +53,8 @@ public class AuthServiceImpl implements AuthService {
     private final SlideCaptchaService slideCaptchaService;
     private final PasswordEncoder passwordEncoder;
     private final RSAKeyService rsaKeyService;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final UserAgentParser userAgentParser;
 
     @Override
     public LoginVO login(
@@ -112,10 +119,14 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException(ResultCode.USER_DISABLED.getMessage());
         }
 
-        // 生成Token
+        // 生成Token（开启时携带权限快照，认证过滤器可免查数据库）
+        PermissionClaims permissionClaims = jwtUtils.isEmbedPermissions()
+            ? userDetailsService.buildPermissionClaims(securityUser)
+            : null;
         String accessToken = jwtUtils.generateToken(
             user.getUsername(),
-            user.getId()
+            user.getId(),
+            permissionClaims
         );
         String refreshToken = jwtUtils.generateRefreshToken(
             user.getUsername(),
@@ -202,7 +213,11 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException(ResultCode.UNAUTHORIZED.getMessage());
         }
 
-        SysUser user = securityUser.getUser();
+        // 认证用户可能由Token权限快照构建，只包含部分字段，需重新查询完整信息
+        SysUser user = userService.getById(securityUser.getUserId());
+        if (user == null) {
+            throw new RuntimeException(ResultCode.USER_NOT_FOUND.getMessage());
+        }
 
         UserInfoVO userInfoVO = new UserInfoVO();
         BeanUtils.copyProperties(user, userInfoVO);
@@ -244,19 +259,30 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public LoginVO refreshToken(String refreshToken) {
         try {
-            // 验证刷新Token
-            if (!jwtUtils.isValidToken(refreshToken)) {
+            // 验证刷新Token（只解析验签一次）
+            VerifiedToken verifiedToken = jwtUtils.parseToken(refreshToken);
+            if (verifiedToken == null) {
                 throw new RuntimeException(
                     ResultCode.REFRESH_TOKEN_INVALID.getMessage()
                 );
             }
 
             // 从Token中获取用户信息
-            String username = jwtUtils.getUsernameFromToken(refreshToken);
-            Long userId = jwtUtils.getUserIdFromToken(refreshToken);
-
-            // 生成新的访问Token
-            String newAccessToken = jwtUtils.generateToken(username, userId);
+            String username = verifiedToken.getUsername();
+            Long userId = verifiedToken.getUserId();
+
+            // 生成新的访问Token（重新加载用户，权限快照以当前权限为准）
+            PermissionClaims permissionClaims = null;
+            if (jwtUtils.isEmbedPermissions()) {
+                SecurityUser securityUser =
+                    (SecurityUser) userDetailsService.loadUserByUsername(username);
+                permissionClaims = userDetailsService.buildPermissionClaims(securityUser);
+            }
+            String newAccessToken = jwtUtils.generateToken(
+                username,
+                userId,
+                permissionClaims
+            );
             String newRefreshToken = jwtUtils.generateRefreshToken(
                 username,
                 userId
@@ -316,33 +342,13 @@ public class AuthServiceImpl implements AuthService {
             onlineUser.setRefreshToken(refreshToken);
             onlineUser.setIpAddress(clientIp);
 
-            // 解析User-Agent获取浏览器和操作系统信息
-            if (request != null) {
-                String userAgent = request.getHeader("User-Agent");
-                onlineUser.setUserAgent(userAgent);
-
-                String[] browserAndOS = onlineUserService.parseUserAgent(
-                    userAgent
-                );
-                onlineUser.setBrowser(browserAndOS[0]);
-                onlineUser.setOs(browserAndOS[1]);
-
-                // 判断设备类型（简单判断，可以根据需要优化）
-                if (
-                    userAgent != null &&
-                    (userAgent.contains("Mobile") ||
-                        userAgent.contains("Android") ||
-                        userAgent.contains("iPhone"))
-                ) {
-                    onlineUser.setDeviceType(2); // 移动端
-                } else {
-                    onlineUser.setDeviceType(1); // PC
-                }
-            } else {
-                onlineUser.setDeviceType(1); // 默认PC
-                onlineUser.setBrowser("Unknown");
-                onlineUser.setOs("Unknown");
-            }
+            // 解析User-Agent获取浏览器、操作系统和设备类型
+            String userAgent = request != null ? request.getHeader("User-Agent") : null;
+            UserAgentInfo userAgentInfo = userAgentParser.parse(userAgent);
+            onlineUser.setUserAgent(userAgent);
+            onlineUser.setBrowser(userAgentInfo.getBrowser());
+            onlineUser.setOs(userAgentInfo.getOs());
+            onlineUser.setDeviceType(userAgentInfo.getDeviceType());
 
             // 获取地理位置信息
             onlineUser.setLocation(onlineUserService.getLocationByIp(clientIp));
@@ -392,7 +398,11 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException(ResultCode.UNAUTHORIZED.getMessage());
         }
 
-        SysUser user = securityUser.getUser();
+        // 校验原密码需要密码哈希，认证用户可能由Token权限快照构建，需重新查询
+        SysUser user = userService.getById(securityUser.getUserId());
+        if (user == null) {
+            throw new RuntimeException(ResultCode.USER_NOT_FOUND.getMessage());
+        }
         
         // 处理密码解密
         String actualOldPassword = changePasswordDTO.getOldPassword();
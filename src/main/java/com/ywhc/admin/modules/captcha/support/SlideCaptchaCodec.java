@@ -0,0 +1,68 @@
+package com.ywhc.admin.modules.captcha.support;
+
+import com.ywhc.admin.common.redis.CompactCodec;
+import com.ywhc.admin.common.redis.CompactReader;
+import com.ywhc.admin.common.redis.CompactWriter;
+import com.ywhc.admin.modules.captcha.entity.SlideCaptcha;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 滑块验证码Redis二进制编解码器
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Component
+public class SlideCaptchaCodec implements CompactCodec<SlideCaptcha> {
+
+    public static final int TYPE_ID = 1;
+
+    @Override
+    public Class<SlideCaptcha> type() {
+        return SlideCaptcha.class;
+    }
+
+    @Override
+    public int typeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(SlideCaptcha captcha, CompactWriter out) {
+        out.writeString(captcha.getCaptchaId());
+        out.writeString(captcha.getBackgroundImage());
+        out.writeString(captcha.getPuzzleImage());
+        out.writeInteger(captcha.getPuzzleX());
+        out.writeInteger(captcha.getPuzzleY());
+        out.writeInteger(captcha.getPuzzleWidth());
+        out.writeInteger(captcha.getPuzzleHeight());
+        out.writeDateTime(captcha.getCreateTime());
+        out.writeDateTime(captcha.getExpireTime());
+        out.writeBoolean(captcha.getVerified());
+        out.writeString(captcha.getToken());
+    }
+
+    @Override
+    public SlideCaptcha read(CompactReader in, int version) throws IOException {
+        SlideCaptcha captcha = new SlideCaptcha();
+        captcha.setCaptchaId(in.readString());
+        captcha.setBackgroundImage(in.readString());
+        captcha.setPuzzleImage(in.readString());
+        captcha.setPuzzleX(in.readInteger());
+        captcha.setPuzzleY(in.readInteger());
+        captcha.setPuzzleWidth(in.readInteger());
+        captcha.setPuzzleHeight(in.readInteger());
+        captcha.setCreateTime(in.readDateTime());
+        captcha.setExpireTime(in.readDateTime());
+        captcha.setVerified(in.readBoolean());
+        captcha.setToken(in.readString());
+        return captcha;
+    }
+}
@@ -1,10 +1,12 @@
 package com.ywhc.admin.modules.monitor.online.controller;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.ywhc.admin.common.annotation.LogAccess;
 import com.ywhc.admin.common.enums.OperationType;
 import com.ywhc.admin.common.result.Result;
 import com.ywhc.admin.modules.monitor.online.dto.OnlineUserQueryDTO;
 import com.ywhc.admin.modules.monitor.online.service.OnlineUserService;
+import com.ywhc.admin.modules.monitor.online.vo.OnlineUserStatsVO;
 import com.ywhc.admin.modules.monitor.online.vo.OnlineUserVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,8 +15,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * 在线用户管理控制器
  *
@@ -32,8 +32,8 @@ public class OnlineUserController {
     @Operation(summary = "获取在线用户列表")
     @GetMapping("/list")
     @PreAuthorize("hasAuthority('monitor:online:list')")
-    public Result<List<OnlineUserVO>> getOnlineUsers(OnlineUserQueryDTO queryDTO) {
-        List<OnlineUserVO> onlineUsers = onlineUserService.getOnlineUsers(queryDTO);
+    public Result<IPage<OnlineUserVO>> getOnlineUsers(OnlineUserQueryDTO queryDTO) {
+        IPage<OnlineUserVO> onlineUsers = onlineUserService.getOnlineUsers(queryDTO);
         return Result.success(onlineUsers);
     }
 
@@ -45,6 +45,13 @@ public class OnlineUserController {
         return Result.success(count);
     }
 
+    @Operation(summary = "获取在线统计", description = "在线总数、设备类型与部门分布、今日独立用户数")
+    @GetMapping("/stats")
+    @PreAuthorize("hasAuthority('monitor:online:list')")
+    public Result<OnlineUserStatsVO> getOnlineUserStats() {
+        return Result.success(onlineUserService.getOnlineUserStats());
+    }
+
     @LogAccess(value = "强制用户下线", module = "在线用户管理", operationType = OperationType.DELETE)
     @Operation(summary = "强制用户下线")
     @DeleteMapping("/force-logout")
@@ -63,6 +70,14 @@ public class OnlineUserController {
         return Result.success("用户所有会话已强制下线");
     }
 
+    @LogAccess(value = "强制部门所有会话下线", module = "在线用户管理", operationType = OperationType.DELETE)
+    @Operation(summary = "强制部门所有会话下线")
+    @DeleteMapping("/force-logout-dept/{deptId}")
+    @PreAuthorize("hasAuthority('monitor:online:forceLogout')")
+    public Result<Integer> forceLogoutByDeptId(@Parameter(description = "部门ID") @PathVariable Long deptId) {
+        return Result.success(onlineUserService.forceLogoutByDeptId(deptId));
+    }
+
     @Operation(summary = "清理过期用户")
     @DeleteMapping("/clean-expired")
     @PreAuthorize("hasAuthority('monitor:online:clean')")
@@ -59,6 +59,10 @@ public class OnlineUserQueryDTO extends BaseQueryDTO {
     @QueryField(column = "device_type", type = QueryType.EQUAL)
     private Integer deviceType;
 
+    @Schema(description = "部门ID - 精确匹配")
+    @QueryField(column = "dept_id", type = QueryType.EQUAL)
+    private Long deptId;
+
     @Schema(description = "登录时间范围")
     @QueryField(column = "login_time", type = QueryType.DATE_RANGE)
     private DateRange loginTimeRange;
@@ -0,0 +1,66 @@
+package com.ywhc.admin.modules.monitor.online.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 会话校验结果
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Getter
+@AllArgsConstructor
+public class SessionCheckResult {
+
+    private static final SessionCheckResult BLACKLISTED_RESULT = new SessionCheckResult(Status.BLACKLISTED, null);
+    private static final SessionCheckResult MISSING_RESULT = new SessionCheckResult(Status.MISSING, null);
+
+    /**
+     * 校验状态
+     */
+    private final Status status;
+
+    /**
+     * 在线用户信息，仅ACTIVE状态下有值
+     */
+    private final OnlineUser onlineUser;
+
+    public static SessionCheckResult blacklisted() {
+        return BLACKLISTED_RESULT;
+    }
+
+    public static SessionCheckResult missing() {
+        return MISSING_RESULT;
+    }
+
+    public static SessionCheckResult active(OnlineUser onlineUser) {
+        return new SessionCheckResult(Status.ACTIVE, onlineUser);
+    }
+
+    public boolean isBlacklisted() {
+        return status == Status.BLACKLISTED;
+    }
+
+    public boolean isActive() {
+        return status == Status.ACTIVE;
+    }
+
+    /**
+     * 校验状态
+     */
+    public enum Status {
+        /**
+         * Token已加入黑名单
+         */
+        BLACKLISTED,
+        /**
+         * 会话不存在（已过期或被清理）
+         */
+        MISSING,
+        /**
+         * 会话有效
+         */
+        ACTIVE
+    }
+}
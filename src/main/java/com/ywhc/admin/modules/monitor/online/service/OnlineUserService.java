@@ -1,7 +1,10 @@
 package com.ywhc.admin.modules.monitor.online.service;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.ywhc.admin.modules.monitor.online.dto.OnlineUserQueryDTO;
 import com.ywhc.admin.modules.monitor.online.entity.OnlineUser;
+import com.ywhc.admin.modules.monitor.online.entity.SessionCheckResult;
+import com.ywhc.admin.modules.monitor.online.vo.OnlineUserStatsVO;
 import com.ywhc.admin.modules.monitor.online.vo.OnlineUserVO;
 
 import java.util.List;
@@ -29,6 +32,14 @@ public interface OnlineUserService {
      */
     OnlineUser getOnlineUserByToken(String token);
 
+    /**
+     * 校验会话：一次Redis往返完成黑名单检查和会话读取
+     *
+     * @param token 访问Token
+     * @return 校验结果
+     */
+    SessionCheckResult checkSession(String token);
+
     /**
      * 根据用户ID获取在线用户信息
      *
@@ -38,15 +49,15 @@ public interface OnlineUserService {
     List<OnlineUser> getOnlineUsersByUserId(Long userId);
 
     /**
-     * 获取所有在线用户列表
+     * 分页获取在线用户列表（按最后活动时间倒序）
      *
      * @param queryDTO 查询条件
-     * @return 在线用户列表
+     * @return 在线用户分页列表
      */
-    List<OnlineUserVO> getOnlineUsers(OnlineUserQueryDTO queryDTO);
+    IPage<OnlineUserVO> getOnlineUsers(OnlineUserQueryDTO queryDTO);
 
     /**
-     * 更新用户最后活动时间
+     * 更新用户最后活动时间（写缓冲合并后异步批量写入）
      *
      * @param token 访问Token
      */
@@ -66,6 +77,14 @@ public interface OnlineUserService {
      */
     void forceLogoutByUserId(Long userId);
 
+    /**
+     * 根据部门ID强制所有会话下线
+     *
+     * @param deptId 部门ID
+     * @return 下线的会话数
+     */
+    int forceLogoutByDeptId(Long deptId);
+
     /**
      * 删除过期的在线用户
      */
@@ -85,6 +104,13 @@ public interface OnlineUserService {
      */
     long getOnlineUserCount();
 
+    /**
+     * 获取在线统计（总数、设备类型与部门分布、今日独立用户数）
+     *
+     * @return 在线统计信息
+     */
+    OnlineUserStatsVO getOnlineUserStats();
+
     /**
      * 检查Token是否在黑名单中
      *
@@ -1,24 +1,47 @@
 package com.ywhc.admin.modules.monitor.online.service.impl;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ywhc.admin.common.constant.RedisKeys;
+import com.ywhc.admin.common.dto.DateRange;
+import com.ywhc.admin.common.ip.IpRegionSearcher;
+import com.ywhc.admin.common.security.token.TokenBlacklistFilter;
+import com.ywhc.admin.common.security.token.VerifiedTokenCache;
+import com.ywhc.admin.common.useragent.UserAgentInfo;
+import com.ywhc.admin.common.useragent.UserAgentParser;
 import com.ywhc.admin.modules.monitor.online.dto.OnlineUserQueryDTO;
 import com.ywhc.admin.modules.monitor.online.entity.OnlineUser;
+import com.ywhc.admin.modules.monitor.online.entity.SessionCheckResult;
 import com.ywhc.admin.modules.monitor.online.service.OnlineUserService;
+import com.ywhc.admin.modules.monitor.online.support.LastAccessTimeBuffer;
+import com.ywhc.admin.modules.monitor.online.support.OnlineSessionIndex;
+import com.ywhc.admin.modules.monitor.online.support.OnlineSessionStore;
+import com.ywhc.admin.modules.monitor.online.support.SessionNearCache;
+import com.ywhc.admin.modules.monitor.online.vo.OnlineUserStatsVO;
 import com.ywhc.admin.modules.monitor.online.vo.OnlineUserVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -33,29 +56,80 @@ import java.util.stream.Collectors;
 public class OnlineUserServiceImpl implements OnlineUserService {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenBlacklistFilter tokenBlacklistFilter;
+    private final LastAccessTimeBuffer lastAccessTimeBuffer;
+    private final OnlineSessionIndex sessionIndex;
+    private final OnlineSessionStore sessionStore;
+    private final IpRegionSearcher ipRegionSearcher;
+    private final UserAgentParser userAgentParser;
+    private final SessionNearCache sessionNearCache;
 
     /**
-     * Redis Key 前缀
+     * 分段读取索引时每批的条目数
      */
-    private static final String ONLINE_USER_KEY = "online_user:";
-    private static final String TOKEN_BLACKLIST_KEY = "token_blacklist:";
-    private static final String USER_TOKEN_KEY = "user_tokens:";
+    private static final int SCAN_CHUNK_SIZE = 500;
+
+    /**
+     * 批量下线、过期清理时每次脚本调用处理的会话数
+     */
+    private static final int EVICT_BATCH_SIZE = 500;
+
+    /**
+     * 单页最大条数
+     */
+    private static final long MAX_PAGE_SIZE = 500L;
+
+    /**
+     * 会话校验脚本（EVALSHA执行，脚本未加载时自动回退为EVAL）
+     */
+    private static final DefaultRedisScript<List> SESSION_CHECK_SCRIPT = new DefaultRedisScript<>();
+
+    /**
+     * 会话校验脚本返回状态
+     */
+    private static final long SESSION_BLACKLISTED = 0L;
+    private static final long SESSION_ACTIVE = 2L;
+    private static final long SESSION_LEGACY = 3L;
+
+    /**
+     * 认证过滤器只需要的会话字段
+     */
+    private static final String[] CHECK_FIELDS = {
+        OnlineSessionStore.FIELD_USER_ID, OnlineSessionStore.FIELD_LAST_ACCESS_TIME
+    };
+
+    /**
+     * 重建索引需要的会话字段
+     */
+    private static final String[] INDEX_FIELDS = {
+        OnlineSessionStore.FIELD_USER_ID, OnlineSessionStore.FIELD_LAST_ACCESS_TIME,
+        OnlineSessionStore.FIELD_DEPT_ID, OnlineSessionStore.FIELD_DEVICE_TYPE,
+        OnlineSessionStore.FIELD_EXPIRE_TIME
+    };
+
+    static {
+        SESSION_CHECK_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/session_check.lua")));
+        SESSION_CHECK_SCRIPT.setResultType(List.class);
+    }
 
     @Override
     public void saveOnlineUser(OnlineUser onlineUser) {
         try {
-            String key = ONLINE_USER_KEY + onlineUser.getAccessToken();
-
-            // 保存在线用户信息，设置过期时间
-            redisTemplate.opsForValue().set(key, onlineUser,
-                Duration.between(LocalDateTime.now(), onlineUser.getExpireTime()));
+            // 保存在线用户信息（哈希存储），设置过期时间
+            sessionStore.save(onlineUser, Duration.between(LocalDateTime.now(), onlineUser.getExpireTime()));
+            sessionNearCache.invalidate(onlineUser.getAccessToken());
 
             // 保存用户ID与Token的映射关系，用于根据用户ID查找所有Token
-            String userTokenKey = USER_TOKEN_KEY + onlineUser.getUserId();
+            String userTokenKey = RedisKeys.USER_TOKEN_KEY + onlineUser.getUserId();
             redisTemplate.opsForSet().add(userTokenKey, onlineUser.getAccessToken());
             redisTemplate.expire(userTokenKey,
                 Duration.between(LocalDateTime.now(), onlineUser.getExpireTime()));
 
+            // 维护会话索引
+            sessionIndex.add(onlineUser);
+
             log.debug("保存在线用户信息成功: userId={}, token={}",
                 onlineUser.getUserId(), maskToken(onlineUser.getAccessToken()));
         } catch (Exception e) {
@@ -66,18 +140,70 @@ public class OnlineUserServiceImpl implements OnlineUserService {
     @Override
     public OnlineUser getOnlineUserByToken(String token) {
         try {
-            String key = ONLINE_USER_KEY + token;
-            return (OnlineUser) redisTemplate.opsForValue().get(key);
+            return sessionStore.get(token);
         } catch (Exception e) {
             log.error("获取在线用户信息失败: {}", e.getMessage(), e);
             return null;
         }
     }
 
+    @Override
+    public SessionCheckResult checkSession(String token) {
+        try {
+            // 本地过滤器未命中时跳过黑名单检查
+            boolean checkBlacklist = tokenBlacklistFilter.mightBeBlacklisted(token);
+            SessionNearCache.Entry entry = sessionNearCache.get(token, checkBlacklist, CHECK_FIELDS,
+                () -> loadSessionCheck(token, checkBlacklist));
+            if (entry.getStatus() == SessionNearCache.Entry.Status.BLACKLISTED) {
+                return SessionCheckResult.blacklisted();
+            }
+
+            // 只读取认证需要的字段，不反序列化整个会话
+            OnlineUser onlineUser = null;
+            if (entry.getStatus() == SessionNearCache.Entry.Status.ACTIVE) {
+                onlineUser = sessionStore.fromValues(entry.getValues(), CHECK_FIELDS);
+            } else if (entry.getStatus() == SessionNearCache.Entry.Status.LEGACY && !entry.getValues().isEmpty()) {
+                onlineUser = sessionStore.migrateLegacy(token, String.valueOf(entry.getValues().get(0)));
+            }
+            if (onlineUser == null) {
+                return SessionCheckResult.missing();
+            }
+            onlineUser.setAccessToken(token);
+            return SessionCheckResult.active(onlineUser);
+        } catch (Exception e) {
+            log.error("校验会话失败: {}", e.getMessage(), e);
+            return SessionCheckResult.missing();
+        }
+    }
+
+    /**
+     * 通过Lua脚本一次往返完成黑名单检查和会话读取
+     */
+    @SuppressWarnings("unchecked")
+    private SessionNearCache.Entry loadSessionCheck(String token, boolean checkBlacklist) {
+        Object[] args = new Object[CHECK_FIELDS.length + 1];
+        args[0] = checkBlacklist ? "1" : "0";
+        System.arraycopy(CHECK_FIELDS, 0, args, 1, CHECK_FIELDS.length);
+        List<Object> result = stringRedisTemplate.execute(SESSION_CHECK_SCRIPT,
+            List.of(RedisKeys.TOKEN_BLACKLIST_KEY + token, RedisKeys.ONLINE_USER_KEY + token), args);
+
+        long status = result != null && !result.isEmpty() ? (Long) result.get(0) : -1L;
+        if (status == SESSION_BLACKLISTED) {
+            return SessionNearCache.Entry.blacklisted();
+        }
+        if (status == SESSION_ACTIVE) {
+            return SessionNearCache.Entry.active(new ArrayList<>(result.subList(1, result.size())), checkBlacklist);
+        }
+        if (status == SESSION_LEGACY && result.size() > 1 && result.get(1) != null) {
+            return SessionNearCache.Entry.legacy(String.valueOf(result.get(1)));
+        }
+        return SessionNearCache.Entry.missing(checkBlacklist);
+    }
+
     @Override
     public List<OnlineUser> getOnlineUsersByUserId(Long userId) {
         try {
-            String userTokenKey = USER_TOKEN_KEY + userId;
+            String userTokenKey = RedisKeys.USER_TOKEN_KEY + userId;
             Set<Object> tokens = redisTemplate.opsForSet().members(userTokenKey);
 
             if (tokens == null || tokens.isEmpty()) {
@@ -104,49 +230,104 @@ public class OnlineUserServiceImpl implements OnlineUserService {
     }
 
     @Override
-    public List<OnlineUserVO> getOnlineUsers(OnlineUserQueryDTO queryDTO) {
+    public IPage<OnlineUserVO> getOnlineUsers(OnlineUserQueryDTO queryDTO) {
+        OnlineUserQueryDTO query = queryDTO != null ? queryDTO : new OnlineUserQueryDTO();
+        long current = query.getCurrent() != null && query.getCurrent() > 0 ? query.getCurrent() : 1L;
+        long size = query.getSize() != null && query.getSize() > 0 ? Math.min(query.getSize(), MAX_PAGE_SIZE) : 10L;
+        Page<OnlineUserVO> page = new Page<>(current, size, 0);
+        page.setRecords(new ArrayList<>());
+
         try {
-            Set<String> keys = redisTemplate.keys(ONLINE_USER_KEY + "*");
-            if (keys == null || keys.isEmpty()) {
-                return new ArrayList<>();
+            // 部门、设备类型条件下推到二级索引
+            String indexKey = query.getDeptId() != null ? OnlineSessionIndex.deptIndexKey(query.getDeptId())
+                : query.getDeviceType() != null ? OnlineSessionIndex.deviceIndexKey(query.getDeviceType())
+                : OnlineSessionIndex.ACCESS_INDEX_KEY;
+            long offset = (current - 1) * size;
+
+            if (!hasResidualFilters(query)) {
+                // 无其他条件：总数取ZCARD，只读取当前页
+                page.setTotal(sessionIndex.count(indexKey));
+                List<OnlineUser> onlineUsers = loadSessions(sessionIndex.range(indexKey, offset, offset + size - 1));
+                page.setRecords(onlineUsers.stream().map(this::convertToVO).collect(Collectors.toList()));
+                return page;
             }
 
-            List<OnlineUser> onlineUsers = new ArrayList<>();
-            for (String key : keys) {
-                OnlineUser onlineUser = (OnlineUser) redisTemplate.opsForValue().get(key);
-                if (onlineUser != null && matchesQuery(onlineUser, queryDTO)) {
-                    onlineUsers.add(onlineUser);
+            // 存在无法下推的条件：分段读取索引并在内存中过滤，只保留当前页
+            List<OnlineUserVO> records = new ArrayList<>();
+            // 扫描期间不修改正在分段读取的索引，已失效的Token在扫描结束后统一移除，避免排名前移导致漏读
+            List<String> missing = new ArrayList<>();
+            long matched = 0;
+            long start = 0;
+            while (true) {
+                List<String> tokens = sessionIndex.range(indexKey, start, start + SCAN_CHUNK_SIZE - 1);
+                if (tokens.isEmpty()) {
+                    break;
                 }
+                for (OnlineUser onlineUser : loadSessions(tokens, missing)) {
+                    if (matchesQuery(onlineUser, query)) {
+                        if (matched >= offset && records.size() < size) {
+                            records.add(convertToVO(onlineUser));
+                        }
+                        matched++;
+                    }
+                }
+                start += tokens.size();
             }
-
-            // 转换为VO并排序
-            return onlineUsers.stream()
-                .map(this::convertToVO)
-                .sorted((a, b) -> b.getLoginTime().compareTo(a.getLoginTime()))
-                .collect(Collectors.toList());
+            if (!missing.isEmpty()) {
+                sessionIndex.removeAll(missing);
+            }
+            page.setTotal(matched);
+            page.setRecords(records);
+            return page;
         } catch (Exception e) {
             log.error("获取在线用户列表失败: {}", e.getMessage(), e);
-            return new ArrayList<>();
+            return page;
         }
     }
 
-    @Override
-    public void updateLastAccessTime(String token) {
+    /**
+     * 启动时索引为空或不完整则从现有会话重建（兼容索引上线前登录的会话）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSessionIndexIfEmpty() {
         try {
-            OnlineUser onlineUser = getOnlineUserByToken(token);
-            if (onlineUser != null) {
-                onlineUser.setLastAccessTime(LocalDateTime.now());
-                saveOnlineUser(onlineUser);
+            // 过期时间索引、用户索引在后续版本加入，条目数不一致时同样需要重建
+            long accessCount = sessionIndex.count(OnlineSessionIndex.ACCESS_INDEX_KEY);
+            if (accessCount > 0 && sessionIndex.count(OnlineSessionIndex.EXPIRE_INDEX_KEY) >= accessCount) {
+                return;
+            }
+            int indexed = 0;
+            List<String> keys = new ArrayList<>(SCAN_CHUNK_SIZE);
+            ScanOptions options = ScanOptions.scanOptions().match(RedisKeys.ONLINE_USER_KEY + "*").count(1000).build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == SCAN_CHUNK_SIZE) {
+                        indexed += indexSessions(keys);
+                        keys.clear();
+                    }
+                }
+            }
+            indexed += indexSessions(keys);
+            if (indexed > 0) {
+                log.info("在线会话索引重建完成: {} 个", indexed);
             }
         } catch (Exception e) {
-            log.error("更新用户最后活动时间失败: {}", e.getMessage(), e);
+            log.error("在线会话索引重建失败: {}", e.getMessage(), e);
         }
     }
 
+    @Override
+    public void updateLastAccessTime(String token) {
+        // 只记录到写缓冲，由定时任务合并后批量写入Redis
+        lastAccessTimeBuffer.record(token);
+    }
+
     @Override
     public void forceLogout(String token) {
         try {
-            OnlineUser onlineUser = getOnlineUserByToken(token);
+            OnlineUser onlineUser = sessionStore.get(token,
+                OnlineSessionStore.FIELD_USER_ID, OnlineSessionStore.FIELD_EXPIRE_TIME);
             if (onlineUser != null) {
                 // 将Token加入黑名单
                 long expireTime = Duration.between(LocalDateTime.now(), onlineUser.getExpireTime()).getSeconds();
@@ -166,33 +347,30 @@ public class OnlineUserServiceImpl implements OnlineUserService {
     @Override
     public void forceLogoutByUserId(Long userId) {
         try {
-            List<OnlineUser> onlineUsers = getOnlineUsersByUserId(userId);
-            for (OnlineUser onlineUser : onlineUsers) {
-                forceLogout(onlineUser.getAccessToken());
-            }
-            log.info("强制用户所有会话下线成功: userId={}", userId);
+            int count = forceLogoutByIndex(OnlineSessionIndex.userIndexKey(userId));
+            log.info("强制用户所有会话下线成功: userId={}, count={}", userId, count);
         } catch (Exception e) {
             log.error("强制用户所有会话下线失败: userId={}, error={}", userId, e.getMessage(), e);
         }
     }
 
     @Override
-    public void removeExpiredUsers() {
+    public int forceLogoutByDeptId(Long deptId) {
         try {
-            Set<String> keys = redisTemplate.keys(ONLINE_USER_KEY + "*");
-            if (keys == null || keys.isEmpty()) {
-                return;
-            }
-
-            int removedCount = 0;
-            for (String key : keys) {
-                OnlineUser onlineUser = (OnlineUser) redisTemplate.opsForValue().get(key);
-                if (onlineUser == null || onlineUser.getExpireTime().isBefore(LocalDateTime.now())) {
-                    redisTemplate.delete(key);
-                    removedCount++;
-                }
-            }
+            int count = forceLogoutByIndex(OnlineSessionIndex.deptIndexKey(deptId));
+            log.info("强制部门所有会话下线成功: deptId={}, count={}", deptId, count);
+            return count;
+        } catch (Exception e) {
+            log.error("强制部门所有会话下线失败: deptId={}, error={}", deptId, e.getMessage(), e);
+            return 0;
+        }
+    }
 
+    @Override
+    public void removeExpiredUsers() {
+        try {
+            // 会话Key由TTL自动过期，这里按过期时间索引清理残留的索引条目，不读取会话内容
+            int removedCount = sessionIndex.sweepExpired(EVICT_BATCH_SIZE);
             if (removedCount > 0) {
                 log.info("清理过期在线用户: {} 个", removedCount);
             }
@@ -204,16 +382,19 @@ public class OnlineUserServiceImpl implements OnlineUserService {
     @Override
     public void removeOnlineUserByToken(String token) {
         try {
-            OnlineUser onlineUser = getOnlineUserByToken(token);
+            OnlineUser onlineUser = sessionStore.get(token, OnlineSessionStore.FIELD_USER_ID);
             if (onlineUser != null) {
                 // 删除在线用户信息
-                String key = ONLINE_USER_KEY + token;
-                redisTemplate.delete(key);
+                sessionStore.delete(token);
+                sessionNearCache.invalidate(token);
 
                 // 删除用户Token映射
-                String userTokenKey = USER_TOKEN_KEY + onlineUser.getUserId();
+                String userTokenKey = RedisKeys.USER_TOKEN_KEY + onlineUser.getUserId();
                 redisTemplate.opsForSet().remove(userTokenKey, token);
 
+                // 删除会话索引
+                sessionIndex.remove(token);
+
                 log.debug("删除在线用户信息成功: userId={}, token={}",
                     onlineUser.getUserId(), maskToken(token));
             }
@@ -225,18 +406,34 @@ public class OnlineUserServiceImpl implements OnlineUserService {
     @Override
     public long getOnlineUserCount() {
         try {
-            Set<String> keys = redisTemplate.keys(ONLINE_USER_KEY + "*");
-            return keys != null ? keys.size() : 0;
+            return sessionIndex.count(OnlineSessionIndex.ACCESS_INDEX_KEY);
         } catch (Exception e) {
             log.error("获取在线用户总数失败: {}", e.getMessage(), e);
             return 0;
         }
     }
 
+    @Override
+    public OnlineUserStatsVO getOnlineUserStats() {
+        try {
+            return sessionIndex.stats();
+        } catch (Exception e) {
+            log.error("获取在线统计失败: {}", e.getMessage(), e);
+            OnlineUserStatsVO stats = new OnlineUserStatsVO();
+            stats.setTotal(0L);
+            stats.setUniqueUsersToday(0L);
+            return stats;
+        }
+    }
+
     @Override
     public boolean isTokenBlacklisted(String token) {
+        // 本地过滤器未命中则一定不在黑名单中，命中后再到Redis确认
+        if (!tokenBlacklistFilter.mightBeBlacklisted(token)) {
+            return false;
+        }
         try {
-            String key = TOKEN_BLACKLIST_KEY + token;
+            String key = RedisKeys.TOKEN_BLACKLIST_KEY + token;
             return Boolean.TRUE.equals(redisTemplate.hasKey(key));
         } catch (Exception e) {
             log.error("检查Token黑名单状态失败: {}", e.getMessage(), e);
@@ -247,8 +444,13 @@ public class OnlineUserServiceImpl implements OnlineUserService {
     @Override
     public void addTokenToBlacklist(String token, long expireTime) {
         try {
-            String key = TOKEN_BLACKLIST_KEY + token;
+            String key = RedisKeys.TOKEN_BLACKLIST_KEY + token;
             redisTemplate.opsForValue().set(key, "blacklisted", expireTime, TimeUnit.SECONDS);
+            // 更新本地黑名单过滤器并通知其他节点
+            tokenBlacklistFilter.publish(token, expireTime);
+            // 清除本地已验签缓存和会话近端缓存，避免继续使用缓存的结果
+            verifiedTokenCache.invalidate(token);
+            sessionNearCache.invalidate(token);
             log.debug("Token已加入黑名单: {}", maskToken(token));
         } catch (Exception e) {
             log.error("将Token加入黑名单失败: {}", e.getMessage(), e);
@@ -257,26 +459,13 @@ public class OnlineUserServiceImpl implements OnlineUserService {
 
     @Override
     public String[] parseUserAgent(String userAgent) {
-        if (!StringUtils.hasText(userAgent)) {
-            return new String[]{"Unknown", "Unknown"};
-        }
-
-        String browser = parseBrowser(userAgent);
-        String os = parseOS(userAgent);
-
-        return new String[]{browser, os};
+        UserAgentInfo info = userAgentParser.parse(userAgent);
+        return new String[]{info.getBrowser(), info.getOs()};
     }
 
     @Override
     public String getLocationByIp(String ipAddress) {
-        // TODO: 集成IP地址库或第三方API获取地理位置
-        // 这里暂时返回默认值，可以后续集成如：
-        // 1. 使用离线IP数据库（如MaxMind GeoLite2）
-        // 2. 调用第三方API（如百度地图、高德地图等）
-        if ("127.0.0.1".equals(ipAddress) || "0:0:0:0:0:0:0:1".equals(ipAddress)) {
-            return "本地";
-        }
-        return "未知";
+        return ipRegionSearcher.search(ipAddress);
     }
 
     /**
@@ -323,7 +512,128 @@ public class OnlineUserServiceImpl implements OnlineUserService {
             return false;
         }
 
-        return true;
+        // 部门匹配
+        if (queryDTO.getDeptId() != null && !queryDTO.getDeptId().equals(onlineUser.getDeptId())) {
+            return false;
+        }
+
+        // 其他模糊匹配
+        if (!containsIgnoreNull(onlineUser.getIpAddress(), queryDTO.getIpAddressLike())
+            || !containsIgnoreNull(onlineUser.getLocation(), queryDTO.getLocationLike())
+            || !containsIgnoreNull(onlineUser.getBrowser(), queryDTO.getBrowserLike())
+            || !containsIgnoreNull(onlineUser.getOs(), queryDTO.getOsLike())) {
+            return false;
+        }
+
+        // 时间范围匹配
+        return inRange(onlineUser.getLoginTime(), queryDTO.getLoginTimeRange())
+            && inRange(onlineUser.getLastAccessTime(), queryDTO.getLastAccessTimeRange());
+    }
+
+    /**
+     * 是否存在无法通过索引下推的查询条件
+     */
+    private boolean hasResidualFilters(OnlineUserQueryDTO queryDTO) {
+        return StringUtils.hasText(queryDTO.getUsername())
+            || StringUtils.hasText(queryDTO.getUsernameLike())
+            || StringUtils.hasText(queryDTO.getNicknameLike())
+            || StringUtils.hasText(queryDTO.getIpAddress())
+            || StringUtils.hasText(queryDTO.getIpAddressLike())
+            || StringUtils.hasText(queryDTO.getLocationLike())
+            || StringUtils.hasText(queryDTO.getBrowserLike())
+            || StringUtils.hasText(queryDTO.getOsLike())
+            || queryDTO.getStatus() != null
+            // 部门索引已选用时设备类型需在内存中过滤
+            || (queryDTO.getDeptId() != null && queryDTO.getDeviceType() != null)
+            || (queryDTO.getLoginTimeRange() != null && !queryDTO.getLoginTimeRange().isEmpty())
+            || (queryDTO.getLastAccessTimeRange() != null && !queryDTO.getLastAccessTimeRange().isEmpty());
+    }
+
+    /**
+     * 批量读取列表所需的会话字段（管道执行），已不存在的会话从索引中移除
+     */
+    private List<OnlineUser> loadSessions(List<String> tokens) {
+        List<String> missing = new ArrayList<>();
+        List<OnlineUser> onlineUsers = loadSessions(tokens, missing);
+        if (!missing.isEmpty()) {
+            sessionIndex.removeAll(missing);
+        }
+        return onlineUsers;
+    }
+
+    /**
+     * 批量读取列表所需的会话字段（管道执行），已不存在的会话Token加入missing，由调用方移除
+     */
+    private List<OnlineUser> loadSessions(List<String> tokens, List<String> missing) {
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<OnlineUser> sessions = sessionStore.getAll(tokens, OnlineSessionStore.LIST_FIELDS);
+
+        List<OnlineUser> onlineUsers = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            OnlineUser onlineUser = sessions.get(i);
+            if (onlineUser != null) {
+                onlineUsers.add(onlineUser);
+            } else {
+                missing.add(tokens.get(i));
+            }
+        }
+        return onlineUsers;
+    }
+
+    /**
+     * 将一批会话Key加入索引
+     */
+    private int indexSessions(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<String> tokens = keys.stream()
+            .map(key -> key.substring(RedisKeys.ONLINE_USER_KEY.length()))
+            .collect(Collectors.toList());
+        List<OnlineUser> sessions = sessionStore.getAll(tokens, INDEX_FIELDS);
+        int indexed = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            OnlineUser onlineUser = sessions.get(i);
+            if (onlineUser != null) {
+                onlineUser.setAccessToken(tokens.get(i));
+                sessionIndex.add(onlineUser);
+                indexed++;
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * 按用户或部门索引批量强制下线，黑名单写入在脚本中完成，本地过滤器与其他节点按批通知
+     */
+    private int forceLogoutByIndex(String indexKey) {
+        Map<String, Long> blacklisted = new LinkedHashMap<>();
+        int count = sessionIndex.forceLogout(indexKey, EVICT_BATCH_SIZE, blacklisted::put);
+        if (!blacklisted.isEmpty()) {
+            tokenBlacklistFilter.publishAll(blacklisted);
+            blacklisted.keySet().forEach(token -> {
+                verifiedTokenCache.invalidate(token);
+                sessionNearCache.invalidate(token);
+            });
+        }
+        return count;
+    }
+
+    private boolean containsIgnoreNull(String value, String keyword) {
+        return !StringUtils.hasText(keyword) || (value != null && value.contains(keyword));
+    }
+
+    private boolean inRange(LocalDateTime time, DateRange range) {
+        if (range == null || range.isEmpty()) {
+            return true;
+        }
+        if (time == null) {
+            return false;
+        }
+        return (range.getStartTime() == null || !time.isBefore(range.getStartTime()))
+            && (range.getEndTime() == null || !time.isAfter(range.getEndTime()));
     }
 
     /**
@@ -353,52 +663,6 @@ public class OnlineUserServiceImpl implements OnlineUserService {
         return vo;
     }
 
-    /**
-     * 解析浏览器信息
-     */
-    private String parseBrowser(String userAgent) {
-        if (userAgent.contains("Edg/")) {
-            return "Microsoft Edge";
-        } else if (userAgent.contains("Chrome/")) {
-            return "Google Chrome";
-        } else if (userAgent.contains("Firefox/")) {
-            return "Mozilla Firefox";
-        } else if (userAgent.contains("Safari/") && !userAgent.contains("Chrome/")) {
-            return "Safari";
-        } else if (userAgent.contains("Opera/") || userAgent.contains("OPR/")) {
-            return "Opera";
-        } else if (userAgent.contains("MSIE") || userAgent.contains("Trident/")) {
-            return "Internet Explorer";
-        }
-        return "Unknown";
-    }
-
-    /**
-     * 解析操作系统信息
-     */
-    private String parseOS(String userAgent) {
-        if (userAgent.contains("Windows NT 10.0")) {
-            return "Windows 10";
-        } else if (userAgent.contains("Windows NT 6.3")) {
-            return "Windows 8.1";
-        } else if (userAgent.contains("Windows NT 6.2")) {
-            return "Windows 8";
-        } else if (userAgent.contains("Windows NT 6.1")) {
-            return "Windows 7";
-        } else if (userAgent.contains("Windows")) {
-            return "Windows";
-        } else if (userAgent.contains("Mac OS X")) {
-            return "macOS";
-        } else if (userAgent.contains("Linux")) {
-            return "Linux";
-        } else if (userAgent.contains("Android")) {
-            return "Android";
-        } else if (userAgent.contains("iPhone") || userAgent.contains("iPad")) {
-            return "iOS";
-        }
-        return "Unknown";
-    }
-
     /**
      * Token脱敏处理
      */
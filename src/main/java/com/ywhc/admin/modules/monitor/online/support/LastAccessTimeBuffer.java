@@ -0,0 +1,212 @@
+package com.ywhc.admin.modules.monitor.online.support;
+
+import com.ywhc.admin.common.constant.RedisKeys;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 最后活动时间写缓冲
+ * 请求只在内存中记录每个Token的最新访问时间，定时合并后以管道方式批量写入Redis，
+ * 同一Token在最小写入间隔内只写一次，避免每个请求都重写整个会话
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LastAccessTimeBuffer {
+
+    /**
+     * 与OnlineUser时间字段的@JsonFormat格式保持一致
+     */
+    private static final DateTimeFormatter ACCESS_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final DefaultRedisScript<Long> SESSION_TOUCH_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        SESSION_TOUCH_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/session_touch.lua")));
+        SESSION_TOUCH_SCRIPT.setResultType(Long.class);
+    }
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 同一Token两次写入的最小间隔（毫秒）
+     */
+    @Value("${online-user.access-min-interval:15000}")
+    private long minInterval;
+
+    /**
+     * 单次管道写入的最大条数
+     */
+    @Value("${online-user.access-flush-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 待写入的最新访问时间：token -> 访问时间戳
+     */
+    private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次写入时间：token -> 写入时间戳，超过最小间隔的条目在刷新时清理
+     */
+    private final Map<String, Long> lastFlushed = new ConcurrentHashMap<>();
+
+    private final LongAdder recordCount = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+
+    /**
+     * 记录Token的访问时间
+     *
+     * @param token 访问Token
+     */
+    public void record(String token) {
+        pending.merge(token, System.currentTimeMillis(), Math::max);
+        recordCount.increment();
+    }
+
+    /**
+     * 定时刷新
+     */
+    @Scheduled(fixedDelayString = "${online-user.access-flush-interval:5000}")
+    public void flush() {
+        flush(false);
+    }
+
+    /**
+     * 应用关闭时写入全部待写数据
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush(true);
+    }
+
+    /**
+     * 待写入条目数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 累计记录次数
+     */
+    public long getRecordCount() {
+        return recordCount.sum();
+    }
+
+    /**
+     * 累计实际写入次数
+     */
+    public long getWriteCount() {
+        return writeCount.sum();
+    }
+
+    private void flush(boolean force) {
+        if (pending.isEmpty()) {
+            evictFlushHistory(System.currentTimeMillis());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> tokens = new ArrayList<>();
+        List<Long> accessTimes = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : pending.entrySet()) {
+            String token = entry.getKey();
+            Long accessTime = entry.getValue();
+            Long flushedAt = lastFlushed.get(token);
+            // 最近刚写过的Token留到下一轮，期间的访问继续合并
+            if (!force && flushedAt != null && now - flushedAt < minInterval) {
+                continue;
+            }
+            // 条件删除：期间有更新的访问时则保留，留给下一轮写入
+            pending.remove(token, accessTime);
+            tokens.add(token);
+            accessTimes.add(accessTime);
+            lastFlushed.put(token, now);
+        }
+
+        for (int from = 0; from < tokens.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, tokens.size());
+            writeBatch(tokens.subList(from, to), accessTimes.subList(from, to));
+        }
+        evictFlushHistory(now);
+
+        if (!tokens.isEmpty()) {
+            log.debug("刷新最后活动时间: 写入={}, 待写={}", tokens.size(), pending.size());
+        }
+    }
+
+    private void writeBatch(List<String> tokens, List<Long> accessTimes) {
+        try {
+            byte[] sha = SESSION_TOUCH_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+            byte[] script = SESSION_TOUCH_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+            byte[][] fields = tokens.stream()
+                .map(token -> token.getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+            // 管道中无法处理NOSCRIPT回退，先确保脚本已加载；同时读取索引元数据，用于计算脚本涉及的二级索引Key
+            List<byte[]> metas = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> {
+                connection.scriptingCommands().scriptLoad(script);
+                return connection.hashCommands().hMGet(
+                    OnlineSessionIndex.META_KEY.getBytes(StandardCharsets.UTF_8), fields);
+            });
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < tokens.size(); i++) {
+                    byte[] meta = metas != null ? metas.get(i) : null;
+                    touch(connection, sha, tokens.get(i), accessTimes.get(i),
+                        meta != null ? new String(meta, StandardCharsets.UTF_8) : "");
+                }
+                return null;
+            });
+            writeCount.add(tokens.size());
+        } catch (Exception e) {
+            log.error("批量写入最后活动时间失败: count={}, error={}", tokens.size(), e.getMessage());
+        }
+    }
+
+    private void touch(RedisConnection connection, byte[] sha, String token, long accessTime, String meta) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(accessTime), ZoneId.systemDefault());
+        String value = time.format(ACCESS_TIME_FORMATTER);
+        List<String> indexKeys = OnlineSessionIndex.metaIndexKeys(meta);
+        connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 7,
+            (RedisKeys.ONLINE_USER_KEY + token).getBytes(StandardCharsets.UTF_8),
+            OnlineSessionIndex.ACCESS_INDEX_KEY.getBytes(StandardCharsets.UTF_8),
+            OnlineSessionIndex.META_KEY.getBytes(StandardCharsets.UTF_8),
+            OnlineSessionIndex.uvKey(time.toLocalDate()).getBytes(StandardCharsets.UTF_8),
+            indexKeys.get(0).getBytes(StandardCharsets.UTF_8),
+            indexKeys.get(1).getBytes(StandardCharsets.UTF_8),
+            indexKeys.get(2).getBytes(StandardCharsets.UTF_8),
+            value.getBytes(StandardCharsets.UTF_8),
+            String.valueOf(accessTime).getBytes(StandardCharsets.UTF_8),
+            token.getBytes(StandardCharsets.UTF_8),
+            String.valueOf(OnlineSessionIndex.UV_RETAIN_SECONDS).getBytes(StandardCharsets.UTF_8),
+            meta.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void evictFlushHistory(long now) {
+        lastFlushed.entrySet().removeIf(entry -> now - entry.getValue() >= minInterval);
+    }
+}
@@ -0,0 +1,395 @@
+package com.ywhc.admin.modules.monitor.online.support;
+
+import com.ywhc.admin.common.constant.RedisKeys;
+import com.ywhc.admin.modules.monitor.online.entity.OnlineUser;
+import com.ywhc.admin.modules.monitor.online.vo.OnlineUserStatsVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 在线会话索引
+ * 以有序集合维护会话Token（分值为最后活动时间），并按部门、设备类型、用户建立二级索引，另以过期时间索引支持到期清理，
+ * 列表、统计和清理都基于索引分段读取，不再使用KEYS扫描全库；
+ * 索引增删通过Lua脚本原子完成，同时维护分组计数和每日独立用户HyperLogLog
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OnlineSessionIndex {
+
+    /**
+     * Redis Key 前缀
+     */
+    public static final String ACCESS_INDEX_KEY = "online_session:idx:access";
+    public static final String DEPT_INDEX_KEY = "online_session:idx:dept:";
+    public static final String DEVICE_INDEX_KEY = "online_session:idx:device:";
+    public static final String USER_INDEX_KEY = "online_session:idx:user:";
+    public static final String EXPIRE_INDEX_KEY = "online_session:idx:expire";
+    public static final String META_KEY = "online_session:meta";
+    public static final String STATS_KEY = "online_session:stats";
+    public static final String UV_KEY = "online_session:uv:";
+
+    private static final String STATS_DEPT_FIELD = "dept:";
+    private static final String STATS_DEVICE_FIELD = "device:";
+
+    /**
+     * 独立用户统计保留两天，便于跨天查询昨日数据
+     */
+    public static final long UV_RETAIN_SECONDS = 2 * 24 * 3600L;
+
+    private static final DateTimeFormatter UV_DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final DefaultRedisScript<Long> SESSION_INDEX_SCRIPT = new DefaultRedisScript<>();
+    private static final DefaultRedisScript<List> SESSION_EVICT_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        SESSION_INDEX_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/session_index.lua")));
+        SESSION_INDEX_SCRIPT.setResultType(Long.class);
+        SESSION_EVICT_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/session_evict.lua")));
+        SESSION_EVICT_SCRIPT.setResultType(List.class);
+    }
+
+    /**
+     * 驱逐脚本模式
+     */
+    private static final String EVICT_LOGOUT = "logout";
+    private static final String EVICT_EXPIRE = "expire";
+
+    /**
+     * 黑名单值（与OnlineUserServiceImpl写入的值一致）
+     */
+    private static final String BLACKLIST_VALUE = "blacklisted";
+
+    private static final String NONE = "";
+
+    /**
+     * 索引脚本返回值：元数据在读取后已变化
+     */
+    private static final long META_CHANGED = -1L;
+
+    /**
+     * 元数据并发变化时索引脚本的最大执行次数
+     */
+    private static final int MAX_INDEX_ATTEMPTS = 3;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 将会话加入索引
+     */
+    public void add(OnlineUser onlineUser) {
+        LocalDateTime accessTime = onlineUser.getLastAccessTime() != null
+            ? onlineUser.getLastAccessTime() : LocalDateTime.now();
+        String expireAt = onlineUser.getExpireTime() != null
+            ? String.valueOf(toEpochMilli(onlineUser.getExpireTime())) : NONE;
+        String deptId = toArg(onlineUser.getDeptId());
+        String deviceType = toArg(onlineUser.getDeviceType());
+        String userId = toArg(onlineUser.getUserId());
+        executeIndexScript("add", onlineUser.getAccessToken(), accessTime.toLocalDate(),
+            List.of(DEPT_INDEX_KEY + deptId, DEVICE_INDEX_KEY + deviceType, USER_INDEX_KEY + userId),
+            String.valueOf(toEpochMilli(accessTime)), deptId, deviceType, userId,
+            String.valueOf(UV_RETAIN_SECONDS), expireAt);
+    }
+
+    /**
+     * 将会话从索引中移除
+     */
+    public void remove(String token) {
+        executeIndexScript("remove", token, LocalDate.now(), Collections.emptyList());
+    }
+
+    /**
+     * 批量将会话从索引中移除
+     */
+    public void removeAll(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        List<String> tokenList = new ArrayList<>(tokens);
+        List<Object> metas = stringRedisTemplate.opsForHash().multiGet(META_KEY, new ArrayList<>(tokenList));
+        LocalDate today = LocalDate.now();
+        byte[] sha = SESSION_INDEX_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        byte[] script = SESSION_INDEX_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+
+        // 管道中无法处理NOSCRIPT回退，先确保脚本已加载
+        stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < tokenList.size(); i++) {
+                String meta = metas != null && metas.get(i) != null ? String.valueOf(metas.get(i)) : NONE;
+                List<String> keys = indexKeys(today, meta);
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, keys.size(),
+                    toBytes(keys, "remove", tokenList.get(i), meta));
+            }
+            return null;
+        });
+        // 读取后元数据发生变化的Token逐个重试
+        for (int i = 0; i < results.size(); i++) {
+            if (Long.valueOf(META_CHANGED).equals(results.get(i))) {
+                remove(tokenList.get(i));
+            }
+        }
+    }
+
+    /**
+     * 在线统计：总数、设备类型与部门分布、今日独立用户数，一次管道读取
+     */
+    public OnlineUserStatsVO stats() {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zCard(ACCESS_INDEX_KEY);
+            conn.hGetAll(STATS_KEY);
+            conn.pfCount(uvKey(LocalDate.now()));
+            return null;
+        });
+
+        OnlineUserStatsVO stats = new OnlineUserStatsVO();
+        stats.setTotal(results.get(0) != null ? (Long) results.get(0) : 0L);
+        stats.setUniqueUsersToday(results.get(2) != null ? (Long) results.get(2) : 0L);
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> counts = (Map<String, String>) results.get(1);
+        if (counts != null) {
+            for (Map.Entry<String, String> entry : counts.entrySet()) {
+                String field = entry.getKey();
+                long value = Long.parseLong(entry.getValue());
+                try {
+                    if (field.startsWith(STATS_DEPT_FIELD)) {
+                        stats.getDeptCounts().put(Long.valueOf(field.substring(STATS_DEPT_FIELD.length())), value);
+                    } else if (field.startsWith(STATS_DEVICE_FIELD)) {
+                        stats.getDeviceTypeCounts().put(Integer.valueOf(field.substring(STATS_DEVICE_FIELD.length())), value);
+                    }
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无法识别的在线统计字段: {}", field);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 索引中的会话数量
+     */
+    public long count(String indexKey) {
+        Long count = stringRedisTemplate.opsForZSet().zCard(indexKey);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * 按最后活动时间倒序读取索引区间
+     *
+     * @param indexKey 索引Key
+     * @param start    起始位置（包含）
+     * @param end      结束位置（包含）
+     * @return Token列表
+     */
+    public List<String> range(String indexKey, long start, long end) {
+        Set<String> tokens = stringRedisTemplate.opsForZSet().reverseRange(indexKey, start, end);
+        return tokens != null ? new ArrayList<>(tokens) : Collections.emptyList();
+    }
+
+    /**
+     * 强制下线来源索引中的全部会话：服务端分批拉黑Token、删除会话、移除映射和索引
+     *
+     * @param sourceKey     来源索引（用户索引或部门索引）
+     * @param batchSize     每批处理数量
+     * @param onBlacklisted 每个被拉黑的Token及黑名单剩余毫秒数的回调
+     * @return 下线的会话数
+     */
+    public int forceLogout(String sourceKey, int batchSize, BiConsumer<String, Long> onBlacklisted) {
+        return evict(EVICT_LOGOUT, sourceKey, batchSize, onBlacklisted);
+    }
+
+    /**
+     * 按过期时间索引清理已到期的会话，不读取会话内容
+     *
+     * @param batchSize 每批处理数量
+     * @return 清理的会话数
+     */
+    public int sweepExpired(int batchSize) {
+        return evict(EVICT_EXPIRE, EXPIRE_INDEX_KEY, batchSize, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int evict(String mode, String sourceKey, int batchSize, BiConsumer<String, Long> onBlacklisted) {
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] blacklistValue = valueSerializer.serialize(BLACKLIST_VALUE);
+        int total = 0;
+        while (true) {
+            // 先读取一批Token及其元数据，计算脚本涉及的全部Key
+            List<String> tokens = EVICT_LOGOUT.equals(mode)
+                ? range(sourceKey, batchSize)
+                : rangeExpired(sourceKey, batchSize);
+            if (tokens.isEmpty()) {
+                break;
+            }
+            List<Object> metas = stringRedisTemplate.opsForHash().multiGet(META_KEY, new ArrayList<>(tokens));
+
+            List<String> keys = new ArrayList<>(5 + tokens.size() * 6);
+            Collections.addAll(keys, sourceKey, ACCESS_INDEX_KEY, META_KEY, STATS_KEY, EXPIRE_INDEX_KEY);
+            List<byte[]> args = new ArrayList<>(3 + tokens.size() * 3);
+            args.add(mode.getBytes(StandardCharsets.UTF_8));
+            args.add(String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+            args.add(blacklistValue);
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                String meta = metas != null && metas.get(i) != null ? String.valueOf(metas.get(i)) : NONE;
+                String[] fields = parseMeta(meta);
+                Collections.addAll(keys, RedisKeys.ONLINE_USER_KEY + token, RedisKeys.TOKEN_BLACKLIST_KEY + token,
+                    RedisKeys.USER_TOKEN_KEY + fields[2], DEPT_INDEX_KEY + fields[0], DEVICE_INDEX_KEY + fields[1],
+                    USER_INDEX_KEY + fields[2]);
+                args.add(token.getBytes(StandardCharsets.UTF_8));
+                args.add(meta.getBytes(StandardCharsets.UTF_8));
+                args.add(valueSerializer.serialize(token));
+            }
+
+            List<Object> result = stringRedisTemplate.execute(SESSION_EVICT_SCRIPT, RedisSerializer.byteArray(),
+                (RedisSerializer) stringRedisTemplate.getStringSerializer(), keys, args.toArray());
+            if (result != null && !result.isEmpty()) {
+                total += ((Long) result.get(0)).intValue();
+                if (onBlacklisted != null) {
+                    for (int i = 1; i + 1 < result.size(); i += 2) {
+                        onBlacklisted.accept(String.valueOf(result.get(i)), (Long) result.get(i + 1));
+                    }
+                }
+            }
+            if (tokens.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private List<String> range(String indexKey, int count) {
+        Set<String> tokens = stringRedisTemplate.opsForZSet().range(indexKey, 0, count - 1);
+        return tokens != null ? new ArrayList<>(tokens) : Collections.emptyList();
+    }
+
+    private List<String> rangeExpired(String indexKey, int count) {
+        Set<String> tokens = stringRedisTemplate.opsForZSet()
+            .rangeByScore(indexKey, Double.NEGATIVE_INFINITY, System.currentTimeMillis(), 0, count);
+        return tokens != null ? new ArrayList<>(tokens) : Collections.emptyList();
+    }
+
+    /**
+     * 解析索引元数据 deptId|deviceType|userId（与脚本中的匹配规则一致），格式不符时各字段为空串
+     */
+    private static String[] parseMeta(String meta) {
+        int first = meta.indexOf('|');
+        int second = first < 0 ? -1 : meta.indexOf('|', first + 1);
+        if (second < 0) {
+            return new String[]{NONE, NONE, NONE};
+        }
+        return new String[]{meta.substring(0, first), meta.substring(first + 1, second), meta.substring(second + 1)};
+    }
+
+    /**
+     * 按索引元数据计算会话所在的部门、设备、用户索引Key，缺少的字段对应前缀本身（脚本不会访问）
+     */
+    static List<String> metaIndexKeys(String meta) {
+        String[] fields = parseMeta(meta);
+        return List.of(DEPT_INDEX_KEY + fields[0], DEVICE_INDEX_KEY + fields[1], USER_INDEX_KEY + fields[2]);
+    }
+
+    /**
+     * 部门索引Key
+     */
+    public static String deptIndexKey(Long deptId) {
+        return DEPT_INDEX_KEY + deptId;
+    }
+
+    /**
+     * 用户索引Key
+     */
+    public static String userIndexKey(Long userId) {
+        return USER_INDEX_KEY + userId;
+    }
+
+    /**
+     * 设备类型索引Key
+     */
+    public static String deviceIndexKey(Integer deviceType) {
+        return DEVICE_INDEX_KEY + deviceType;
+    }
+
+    /**
+     * 指定日期的独立用户统计Key
+     */
+    public static String uvKey(LocalDate date) {
+        return UV_KEY + date.format(UV_DATE_FORMATTER);
+    }
+
+    /**
+     * 读取会话当前的索引元数据并据此计算脚本涉及的全部Key后执行，元数据在此期间被并发修改时重新读取
+     */
+    private void executeIndexScript(String op, String token, LocalDate date, List<String> extraKeys, String... extraArgs) {
+        for (int attempt = 0; attempt < MAX_INDEX_ATTEMPTS; attempt++) {
+            Object value = stringRedisTemplate.opsForHash().get(META_KEY, token);
+            String meta = value != null ? String.valueOf(value) : NONE;
+            List<String> keys = new ArrayList<>(indexKeys(date, meta));
+            keys.addAll(extraKeys);
+            Object[] args = new Object[3 + extraArgs.length];
+            args[0] = op;
+            args[1] = token;
+            args[2] = meta;
+            System.arraycopy(extraArgs, 0, args, 3, extraArgs.length);
+            Long result = stringRedisTemplate.execute(SESSION_INDEX_SCRIPT, keys, args);
+            if (result == null || result != META_CHANGED) {
+                return;
+            }
+        }
+        log.warn("会话索引元数据持续变化，本次索引更新未完成: op={}", op);
+    }
+
+    private List<String> indexKeys(LocalDate date, String meta) {
+        List<String> keys = new ArrayList<>(8);
+        Collections.addAll(keys, ACCESS_INDEX_KEY, META_KEY, STATS_KEY, uvKey(date), EXPIRE_INDEX_KEY);
+        keys.addAll(metaIndexKeys(meta));
+        return keys;
+    }
+
+    private static byte[][] toBytes(List<String> keys, String... args) {
+        byte[][] bytes = new byte[keys.size() + args.length][];
+        for (int i = 0; i < keys.size(); i++) {
+            bytes[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        for (int i = 0; i < args.length; i++) {
+            bytes[keys.size() + i] = args[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private String toArg(Object value) {
+        return value != null ? String.valueOf(value) : NONE;
+    }
+
+    private long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
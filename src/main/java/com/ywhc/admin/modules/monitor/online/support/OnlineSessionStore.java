@@ -0,0 +1,399 @@
+package com.ywhc.admin.modules.monitor.online.support;
+
+import com.ywhc.admin.common.constant.RedisKeys;
+import com.ywhc.admin.modules.monitor.online.entity.OnlineUser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在线会话存储
+ * 会话以Redis哈希保存，热点字段（最后活动时间等）可单独HSET更新，读取时只取调用方需要的字段；
+ * 兼容旧版Jackson JSON字符串会话：读取时按原格式解码并原地迁移为哈希，启动时批量迁移存量数据
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OnlineSessionStore {
+
+    /**
+     * 哈希字段名，与OnlineUser属性名一致
+     */
+    public static final String FIELD_USER_ID = "userId";
+    public static final String FIELD_USERNAME = "username";
+    public static final String FIELD_NICKNAME = "nickname";
+    public static final String FIELD_ACCESS_TOKEN = "accessToken";
+    public static final String FIELD_REFRESH_TOKEN = "refreshToken";
+    public static final String FIELD_IP_ADDRESS = "ipAddress";
+    public static final String FIELD_LOCATION = "location";
+    public static final String FIELD_BROWSER = "browser";
+    public static final String FIELD_OS = "os";
+    public static final String FIELD_USER_AGENT = "userAgent";
+    public static final String FIELD_LOGIN_TIME = "loginTime";
+    public static final String FIELD_LAST_ACCESS_TIME = "lastAccessTime";
+    public static final String FIELD_EXPIRE_TIME = "expireTime";
+    public static final String FIELD_STATUS = "status";
+    public static final String FIELD_DEVICE_TYPE = "deviceType";
+    public static final String FIELD_REMARK = "remark";
+    public static final String FIELD_DEPT_ID = "deptId";
+    public static final String FIELD_DEPT_NAME = "deptName";
+
+    /**
+     * 全部字段
+     */
+    public static final String[] ALL_FIELDS = {
+        FIELD_USER_ID, FIELD_USERNAME, FIELD_NICKNAME, FIELD_ACCESS_TOKEN, FIELD_REFRESH_TOKEN,
+        FIELD_IP_ADDRESS, FIELD_LOCATION, FIELD_BROWSER, FIELD_OS, FIELD_USER_AGENT,
+        FIELD_LOGIN_TIME, FIELD_LAST_ACCESS_TIME, FIELD_EXPIRE_TIME, FIELD_STATUS,
+        FIELD_DEVICE_TYPE, FIELD_REMARK, FIELD_DEPT_ID, FIELD_DEPT_NAME
+    };
+
+    /**
+     * 列表展示所需字段（不含刷新Token和完整UA）
+     */
+    public static final String[] LIST_FIELDS = {
+        FIELD_USER_ID, FIELD_USERNAME, FIELD_NICKNAME, FIELD_ACCESS_TOKEN,
+        FIELD_IP_ADDRESS, FIELD_LOCATION, FIELD_BROWSER, FIELD_OS,
+        FIELD_LOGIN_TIME, FIELD_LAST_ACCESS_TIME, FIELD_EXPIRE_TIME, FIELD_STATUS,
+        FIELD_DEVICE_TYPE, FIELD_REMARK, FIELD_DEPT_ID, FIELD_DEPT_NAME
+    };
+
+    /**
+     * 与OnlineUser时间字段的@JsonFormat格式保持一致
+     */
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 读取脚本返回状态
+     */
+    private static final long READ_LEGACY = 1L;
+    private static final long READ_HASH = 2L;
+
+    private static final int MIGRATE_BATCH_SIZE = 500;
+
+    private static final DefaultRedisScript<List> SESSION_READ_SCRIPT = new DefaultRedisScript<>();
+    private static final DefaultRedisScript<Long> SESSION_MIGRATE_SCRIPT = new DefaultRedisScript<>();
+
+    static {
+        SESSION_READ_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/session_read.lua")));
+        SESSION_READ_SCRIPT.setResultType(List.class);
+        SESSION_MIGRATE_SCRIPT.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/session_migrate.lua")));
+        SESSION_MIGRATE_SCRIPT.setResultType(Long.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 仅用于解码旧版JSON会话
+     */
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 保存会话（整体覆盖）
+     *
+     * @param onlineUser 在线用户信息
+     * @param ttl        有效期
+     */
+    public void save(OnlineUser onlineUser, Duration ttl) {
+        String key = RedisKeys.ONLINE_USER_KEY + onlineUser.getAccessToken();
+        Map<String, String> hash = toHash(onlineUser);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            // 先删除，避免残留旧字段或旧版字符串值
+            conn.del(key);
+            conn.hMSet(key, hash);
+            conn.pExpire(key, ttl.toMillis());
+            return null;
+        });
+    }
+
+    /**
+     * 读取完整会话
+     *
+     * @param token 访问Token
+     * @return 会话，不存在时返回null
+     */
+    public OnlineUser get(String token) {
+        return get(token, ALL_FIELDS);
+    }
+
+    /**
+     * 读取会话的指定字段
+     *
+     * @param token  访问Token
+     * @param fields 需要的字段
+     * @return 只填充了指定字段的会话，不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public OnlineUser get(String token, String... fields) {
+        List<Object> result = stringRedisTemplate.execute(SESSION_READ_SCRIPT,
+            Collections.singletonList(RedisKeys.ONLINE_USER_KEY + token), (Object[]) fields);
+        return decode(token, result, fields);
+    }
+
+    /**
+     * 批量读取会话的指定字段（管道执行），返回顺序与Token顺序一致，不存在的位置为null
+     *
+     * @param tokens 访问Token列表
+     * @param fields 需要的字段
+     * @return 会话列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<OnlineUser> getAll(List<String> tokens, String... fields) {
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        byte[] sha = SESSION_READ_SCRIPT.getSha1().getBytes(StandardCharsets.UTF_8);
+        byte[] script = SESSION_READ_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        byte[][] fieldArgs = new byte[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            fieldArgs[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        // 管道中无法处理NOSCRIPT回退，先确保脚本已加载
+        stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String token : tokens) {
+                byte[][] keysAndArgs = new byte[fieldArgs.length + 1][];
+                keysAndArgs[0] = (RedisKeys.ONLINE_USER_KEY + token).getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(fieldArgs, 0, keysAndArgs, 1, fieldArgs.length);
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, 1, keysAndArgs);
+            }
+            return null;
+        });
+
+        List<OnlineUser> onlineUsers = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            onlineUsers.add(decode(tokens.get(i), (List<Object>) results.get(i), fields));
+        }
+        return onlineUsers;
+    }
+
+    /**
+     * 删除会话
+     */
+    public void delete(String token) {
+        stringRedisTemplate.delete(RedisKeys.ONLINE_USER_KEY + token);
+    }
+
+    /**
+     * 解码会话校验、读取脚本返回的字段值
+     *
+     * @param values 按fields顺序排列的字段值
+     * @param fields 字段名
+     * @return 会话，字段值全为空时视为不存在
+     */
+    public OnlineUser fromValues(List<Object> values, String... fields) {
+        Map<String, String> hash = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length && i < values.size(); i++) {
+            if (values.get(i) != null) {
+                hash.put(fields[i], String.valueOf(values.get(i)));
+            }
+        }
+        return hash.isEmpty() ? null : fromHash(hash);
+    }
+
+    /**
+     * 解码旧版JSON会话并原地迁移为哈希
+     *
+     * @param token 访问Token
+     * @param json  旧版JSON
+     * @return 会话，无法解码时返回null
+     */
+    public OnlineUser migrateLegacy(String token, String json) {
+        Object value = redisTemplate.getValueSerializer().deserialize(json.getBytes(StandardCharsets.UTF_8));
+        if (!(value instanceof OnlineUser onlineUser)) {
+            return null;
+        }
+        try {
+            Map<String, String> hash = toHash(onlineUser);
+            Object[] args = new Object[hash.size() * 2 + 1];
+            int i = 0;
+            args[i++] = json;
+            for (Map.Entry<String, String> entry : hash.entrySet()) {
+                args[i++] = entry.getKey();
+                args[i++] = entry.getValue();
+            }
+            stringRedisTemplate.execute(SESSION_MIGRATE_SCRIPT, Collections.singletonList(RedisKeys.ONLINE_USER_KEY + token), args);
+        } catch (Exception e) {
+            log.warn("迁移旧版会话失败: {}", e.getMessage());
+        }
+        return onlineUser;
+    }
+
+    /**
+     * 启动时将存量的旧版JSON字符串会话批量迁移为哈希
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacySessions() {
+        try {
+            int migrated = 0;
+            List<String> keys = new ArrayList<>(MIGRATE_BATCH_SIZE);
+            ScanOptions options = ScanOptions.scanOptions().match(RedisKeys.ONLINE_USER_KEY + "*").count(1000).build();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == MIGRATE_BATCH_SIZE) {
+                        migrated += migrateBatch(keys);
+                        keys.clear();
+                    }
+                }
+            }
+            migrated += migrateBatch(keys);
+            if (migrated > 0) {
+                log.info("旧版在线会话迁移完成: {} 个", migrated);
+            }
+        } catch (Exception e) {
+            log.error("旧版在线会话迁移失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private int migrateBatch(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Object> types = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (String key : keys) {
+                conn.type(key);
+            }
+            return null;
+        });
+        List<String> legacyKeys = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (types.get(i) == DataType.STRING) {
+                legacyKeys.add(keys.get(i));
+            }
+        }
+        if (legacyKeys.isEmpty()) {
+            return 0;
+        }
+
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(legacyKeys);
+        int migrated = 0;
+        for (int i = 0; i < legacyKeys.size(); i++) {
+            String json = values != null ? values.get(i) : null;
+            if (json != null && migrateLegacy(legacyKeys.get(i).substring(RedisKeys.ONLINE_USER_KEY.length()), json) != null) {
+                migrated++;
+            }
+        }
+        return migrated;
+    }
+
+    private OnlineUser decode(String token, List<Object> result, String... fields) {
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        long status = (Long) result.get(0);
+        if (status == READ_HASH) {
+            return fromValues(result.subList(1, result.size()), fields);
+        }
+        if (status == READ_LEGACY && result.size() > 1 && result.get(1) != null) {
+            return migrateLegacy(token, String.valueOf(result.get(1)));
+        }
+        return null;
+    }
+
+    /**
+     * 会话转换为哈希字段，空值字段不写入
+     */
+    static Map<String, String> toHash(OnlineUser onlineUser) {
+        Map<String, String> hash = new LinkedHashMap<>();
+        put(hash, FIELD_USER_ID, onlineUser.getUserId());
+        put(hash, FIELD_USERNAME, onlineUser.getUsername());
+        put(hash, FIELD_NICKNAME, onlineUser.getNickname());
+        put(hash, FIELD_ACCESS_TOKEN, onlineUser.getAccessToken());
+        put(hash, FIELD_REFRESH_TOKEN, onlineUser.getRefreshToken());
+        put(hash, FIELD_IP_ADDRESS, onlineUser.getIpAddress());
+        put(hash, FIELD_LOCATION, onlineUser.getLocation());
+        put(hash, FIELD_BROWSER, onlineUser.getBrowser());
+        put(hash, FIELD_OS, onlineUser.getOs());
+        put(hash, FIELD_USER_AGENT, onlineUser.getUserAgent());
+        put(hash, FIELD_LOGIN_TIME, formatTime(onlineUser.getLoginTime()));
+        put(hash, FIELD_LAST_ACCESS_TIME, formatTime(onlineUser.getLastAccessTime()));
+        put(hash, FIELD_EXPIRE_TIME, formatTime(onlineUser.getExpireTime()));
+        put(hash, FIELD_STATUS, onlineUser.getStatus());
+        put(hash, FIELD_DEVICE_TYPE, onlineUser.getDeviceType());
+        put(hash, FIELD_REMARK, onlineUser.getRemark());
+        put(hash, FIELD_DEPT_ID, onlineUser.getDeptId());
+        put(hash, FIELD_DEPT_NAME, onlineUser.getDeptName());
+        return hash;
+    }
+
+    /**
+     * 哈希字段转换为会话，缺失的字段保持为null
+     */
+    static OnlineUser fromHash(Map<String, String> hash) {
+        OnlineUser onlineUser = new OnlineUser();
+        onlineUser.setUserId(parseLong(hash.get(FIELD_USER_ID)));
+        onlineUser.setUsername(hash.get(FIELD_USERNAME));
+        onlineUser.setNickname(hash.get(FIELD_NICKNAME));
+        onlineUser.setAccessToken(hash.get(FIELD_ACCESS_TOKEN));
+        onlineUser.setRefreshToken(hash.get(FIELD_REFRESH_TOKEN));
+        onlineUser.setIpAddress(hash.get(FIELD_IP_ADDRESS));
+        onlineUser.setLocation(hash.get(FIELD_LOCATION));
+        onlineUser.setBrowser(hash.get(FIELD_BROWSER));
+        onlineUser.setOs(hash.get(FIELD_OS));
+        onlineUser.setUserAgent(hash.get(FIELD_USER_AGENT));
+        onlineUser.setLoginTime(parseTime(hash.get(FIELD_LOGIN_TIME)));
+        onlineUser.setLastAccessTime(parseTime(hash.get(FIELD_LAST_ACCESS_TIME)));
+        onlineUser.setExpireTime(parseTime(hash.get(FIELD_EXPIRE_TIME)));
+        onlineUser.setStatus(parseInteger(hash.get(FIELD_STATUS)));
+        onlineUser.setDeviceType(parseInteger(hash.get(FIELD_DEVICE_TYPE)));
+        onlineUser.setRemark(hash.get(FIELD_REMARK));
+        onlineUser.setDeptId(parseLong(hash.get(FIELD_DEPT_ID)));
+        onlineUser.setDeptName(hash.get(FIELD_DEPT_NAME));
+        return onlineUser;
+    }
+
+    /**
+     * 格式化时间字段
+     */
+    public static String formatTime(LocalDateTime time) {
+        return time != null ? time.format(TIME_FORMATTER) : null;
+    }
+
+    private static void put(Map<String, String> hash, String field, Object value) {
+        if (value != null) {
+            hash.put(field, String.valueOf(value));
+        }
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return value != null ? LocalDateTime.parse(value, TIME_FORMATTER) : null;
+    }
+
+    private static Long parseLong(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private static Integer parseInteger(String value) {
+        return value != null ? Integer.valueOf(value) : null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ywhc.admin.modules.monitor.online.support;
+
+import com.ywhc.admin.common.constant.RedisKeys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 会话过期事件监听
+ * 订阅Redis键过期事件，会话Key因TTL过期时立即从索引中移除并修正计数；
+ * 需要Redis开启 notify-keyspace-events（至少包含 Ex），未开启时由定时清理兜底
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionExpiryListener implements MessageListener {
+
+    private static final String EXPIRED_TOPIC = "__keyevent@*__:expired";
+
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final OnlineSessionIndex sessionIndex;
+
+    @Value("${online-user.keyspace-events.enabled:false}")
+    private boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            redisMessageListenerContainer.addMessageListener(this, new PatternTopic(EXPIRED_TOPIC));
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!key.startsWith(RedisKeys.ONLINE_USER_KEY)) {
+            return;
+        }
+        try {
+            // 多个节点都会收到事件，索引脚本幂等，重复移除不影响计数
+            sessionIndex.remove(key.substring(RedisKeys.ONLINE_USER_KEY.length()));
+        } catch (Exception e) {
+            log.warn("处理会话过期事件失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.ywhc.admin.modules.monitor.online.support;
+
+import com.ywhc.admin.common.constant.RedisKeys;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 会话近端缓存
+ * 在本地缓存会话校验所需的会话字段和黑名单状态，减少每个请求对Redis的访问：
+ * <ul>
+ *   <li>客户端跟踪模式：使用独立的RESP3连接开启 CLIENT TRACKING，通过该连接读取的Key发生修改、删除或过期时，
+ *   Redis主动推送失效消息，本地缓存随即移除对应条目</li>
+ *   <li>TTL模式：无法开启跟踪时（Redis 6以下、RESP2、集群等）退化为短时间过期，本节点的写操作主动失效</li>
+ * </ul>
+ * 连接断开期间无法收到失效消息，断开时清空缓存，重连后重新开启跟踪
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionNearCache implements PushListener, RedisConnectionStateListener {
+
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    @Value("${online-user.near-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${online-user.near-cache.max-size:10000}")
+    private int maxSize;
+
+    /**
+     * 跟踪模式下条目的最长存活时间（毫秒），防止极端情况下丢失失效消息
+     */
+    @Value("${online-user.near-cache.max-ttl:600000}")
+    private long maxTtl;
+
+    /**
+     * TTL模式下条目的存活时间（毫秒）
+     */
+    @Value("${online-user.near-cache.fallback-ttl:1000}")
+    private long fallbackTtl;
+
+    private LRUCache<String, Entry> cache;
+
+    /**
+     * 正在从Redis加载的条目：加载期间收到失效消息时移除标记，加载结果不再写入缓存
+     */
+    private final Map<String, Object> loading = new ConcurrentHashMap<>();
+
+    private AbstractRedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private volatile boolean tracking;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheUtil.newLRUCache(maxSize);
+        if (!enabled) {
+            return;
+        }
+        if (!(redisConnectionFactory instanceof LettuceConnectionFactory lettuceFactory)
+            || !(lettuceFactory.getNativeClient() instanceof RedisClient redisClient)) {
+            log.info("会话近端缓存：当前连接不支持客户端跟踪，使用TTL模式（{}ms）", fallbackTtl);
+            return;
+        }
+        try {
+            this.client = redisClient;
+            this.connection = redisClient.connect(StringCodec.UTF8);
+            connection.addListener(this);
+            redisClient.addListener(this);
+            connection.sync().clientTracking(TrackingArgs.Builder.enabled());
+            this.tracking = true;
+            log.info("会话近端缓存：已开启Redis客户端跟踪");
+        } catch (Exception e) {
+            log.warn("会话近端缓存：开启客户端跟踪失败，使用TTL模式（{}ms）: {}", fallbackTtl, e.getMessage());
+            closeConnection();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        closeConnection();
+    }
+
+    /**
+     * 获取会话校验数据
+     * 跟踪模式下未命中时通过跟踪连接读取并缓存；TTL模式下调用加载函数并短时间缓存；加载失败时直接调用加载函数且不缓存
+     *
+     * @param token          访问Token
+     * @param checkBlacklist 是否需要检查黑名单
+     * @param fields         需要读取的会话字段
+     * @param loader         通过常规连接加载（Lua脚本）的函数
+     * @return 会话校验数据
+     */
+    public Entry get(String token, boolean checkBlacklist, String[] fields, Supplier<Entry> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry entry = cache.get(token, false);
+        // 缓存时未检查黑名单、但本地过滤器现在命中的条目不能使用
+        if (entry != null && (entry.blacklistChecked || !checkBlacklist)) {
+            hitCount.increment();
+            return entry;
+        }
+        missCount.increment();
+
+        if (tracking) {
+            entry = loadTracked(token, checkBlacklist, fields);
+            if (entry != null) {
+                return entry;
+            }
+            return loader.get();
+        }
+        entry = loader.get();
+        if (entry != null && entry.cacheable) {
+            cache.put(token, entry, fallbackTtl);
+        }
+        return entry;
+    }
+
+    /**
+     * 移除Token的缓存（本节点修改会话或黑名单时调用，TTL模式下保证本节点立即可见）
+     */
+    public void invalidate(String token) {
+        if (token == null) {
+            return;
+        }
+        // 与加载完成时的写入在同一个Key锁内串行，避免失效消息夹在判断和写入之间
+        loading.compute(token, (key, marker) -> {
+            cache.remove(token);
+            return null;
+        });
+    }
+
+    /**
+     * 通过跟踪连接读取，读取的Key由Redis记录，之后的修改会推送失效消息
+     */
+    private Entry loadTracked(String token, boolean checkBlacklist, String[] fields) {
+        Object marker = new Object();
+        loading.put(token, marker);
+        try {
+            RedisAsyncCommands<String, String> commands = connection.async();
+            long timeout = connection.getTimeout().toMillis();
+            RedisFuture<Long> blacklisted = checkBlacklist ? commands.exists(RedisKeys.TOKEN_BLACKLIST_KEY + token) : null;
+            RedisFuture<List<KeyValue<String, String>>> values =
+                commands.hmget(RedisKeys.ONLINE_USER_KEY + token, fields);
+
+            Entry entry;
+            if (blacklisted != null && blacklisted.get(timeout, TimeUnit.MILLISECONDS) > 0) {
+                entry = Entry.blacklisted();
+            } else {
+                List<Object> fieldValues = new ArrayList<>(fields.length);
+                boolean found = false;
+                for (KeyValue<String, String> value : values.get(timeout, TimeUnit.MILLISECONDS)) {
+                    fieldValues.add(value.getValueOrElse(null));
+                    found |= value.hasValue();
+                }
+                entry = found ? Entry.active(fieldValues, checkBlacklist) : Entry.missing(checkBlacklist);
+            }
+            // 加载期间未收到失效消息才写入缓存
+            Entry loaded = entry;
+            loading.computeIfPresent(token, (key, current) -> {
+                if (current != marker) {
+                    return current;
+                }
+                cache.put(token, loaded, maxTtl);
+                return null;
+            });
+            return entry;
+        } catch (Exception e) {
+            // 旧版字符串会话（WRONGTYPE）、超时等交给常规路径处理
+            loading.remove(token, marker);
+            log.debug("会话近端缓存加载失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        if (!(keys instanceof List<?> keyList)) {
+            // FLUSHALL/FLUSHDB 时推送空列表
+            clear();
+            return;
+        }
+        for (Object key : keyList) {
+            String token = tokenOf(String.valueOf(key));
+            if (token != null) {
+                invalidationCount.increment();
+                invalidate(token);
+            }
+        }
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+        if (handler != connection || tracking) {
+            return;
+        }
+        // 跟踪状态随连接丢失，重连后重新开启；在IO线程中回调，不能同步等待
+        connection.async().clientTracking(TrackingArgs.Builder.enabled()).whenComplete((result, e) -> {
+            if (e == null) {
+                clear();
+                tracking = true;
+                log.info("会话近端缓存：重连后已重新开启客户端跟踪");
+            } else {
+                log.warn("会话近端缓存：重新开启客户端跟踪失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+        if (handler == connection && tracking) {
+            tracking = false;
+            clear();
+            log.warn("会话近端缓存：跟踪连接断开，已清空缓存");
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+    }
+
+    /**
+     * 是否处于客户端跟踪模式
+     */
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.sum();
+    }
+
+    /**
+     * 命中率
+     */
+    public double getHitRatio() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    private void clear() {
+        loading.clear();
+        cache.clear();
+    }
+
+    private static String tokenOf(String key) {
+        if (key.startsWith(RedisKeys.ONLINE_USER_KEY)) {
+            return key.substring(RedisKeys.ONLINE_USER_KEY.length());
+        }
+        if (key.startsWith(RedisKeys.TOKEN_BLACKLIST_KEY)) {
+            return key.substring(RedisKeys.TOKEN_BLACKLIST_KEY.length());
+        }
+        return null;
+    }
+
+    private void closeConnection() {
+        tracking = false;
+        if (client != null) {
+            client.removeListener(this);
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (Exception e) {
+                log.debug("关闭跟踪连接失败: {}", e.getMessage());
+            }
+        }
+        connection = null;
+        client = null;
+    }
+
+    /**
+     * 会话校验数据
+     */
+    @Getter
+    public static final class Entry {
+
+        private static final Entry LEGACY = new Entry(Status.LEGACY, Collections.emptyList(), true, false);
+
+        private final Status status;
+
+        /**
+         * ACTIVE：与请求字段顺序一致的字段值；LEGACY：旧版JSON
+         */
+        private final List<Object> values;
+
+        /**
+         * 读取时是否检查了黑名单
+         */
+        private final boolean blacklistChecked;
+
+        /**
+         * 是否允许缓存
+         */
+        private final boolean cacheable;
+
+        private Entry(Status status, List<Object> values, boolean blacklistChecked, boolean cacheable) {
+            this.status = status;
+            this.values = values;
+            this.blacklistChecked = blacklistChecked;
+            this.cacheable = cacheable;
+        }
+
+        public static Entry blacklisted() {
+            return new Entry(Status.BLACKLISTED, Collections.emptyList(), true, true);
+        }
+
+        public static Entry missing(boolean blacklistChecked) {
+            return new Entry(Status.MISSING, Collections.emptyList(), blacklistChecked, true);
+        }
+
+        public static Entry active(List<Object> values, boolean blacklistChecked) {
+            return new Entry(Status.ACTIVE, Collections.unmodifiableList(values), blacklistChecked, true);
+        }
+
+        /**
+         * 旧版字符串会话，需迁移后再读取，不缓存
+         */
+        public static Entry legacy(String json) {
+            return json == null ? LEGACY : new Entry(Status.LEGACY, Collections.singletonList(json), true, false);
+        }
+
+        public enum Status {
+            BLACKLISTED,
+            MISSING,
+            ACTIVE,
+            LEGACY
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ywhc.admin.modules.monitor.online.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 在线用户统计VO
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Data
+@Schema(description = "在线用户统计信息")
+public class OnlineUserStatsVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "在线会话总数")
+    private Long total;
+
+    @Schema(description = "今日独立用户数（HyperLogLog估算，标准误差约0.81%）")
+    private Long uniqueUsersToday;
+
+    @Schema(description = "按设备类型统计：设备类型 -> 会话数")
+    private Map<Integer, Long> deviceTypeCounts = new LinkedHashMap<>();
+
+    @Schema(description = "按部门统计：部门ID -> 会话数")
+    private Map<Long, Long> deptCounts = new LinkedHashMap<>();
+}
@@ -34,27 +34,13 @@ public interface SysDeptMapper extends BaseMapper<SysDept> {
     List<Long> selectDeptListByRoleId(@Param("roleId") Long roleId);
 
     /**
-     * 根据部门ID查询所有子部门
+     * 替换子孙部门祖级列表的前缀
      * 
-     * @param deptId 部门ID
-     * @return 子部门ID列表
-     */
-    List<Long> selectChildrenDeptById(@Param("deptId") Long deptId);
-
-    /**
-     * 根据部门ID查询所有父级部门
-     * 
-     * @param deptId 部门ID
-     * @return 父级部门ID列表
-     */
-    List<Long> selectAncestorsDeptById(@Param("deptId") Long deptId);
-
-    /**
-     * 修改子元素关系
-     * 
-     * @param depts 部门数据
+     * @param oldPrefix 原前缀（原祖级列表,部门ID）
+     * @param newPrefix 新前缀（新祖级列表,部门ID）
+     * @return 更新行数
      */
-    void updateDeptChildren(@Param("depts") List<SysDept> depts);
+    int moveDeptChildren(@Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix);
 
     /**
      * 检查部门名称是否唯一
@@ -1,6 +1,7 @@
 package com.ywhc.admin.modules.system.dept.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.ywhc.admin.common.datascope.DataScope;
 import com.ywhc.admin.modules.system.dept.dto.DeptQueryDTO;
 import com.ywhc.admin.modules.system.dept.dto.DeptSaveDTO;
 import com.ywhc.admin.modules.system.dept.entity.SysDept;
@@ -87,6 +88,13 @@ public interface SysDeptService extends IService<SysDept> {
      */
     Set<Long> getDataScope(Long userId);
 
+    /**
+     * 获取用户数据权限范围结构，用于生成数据权限SQL条件
+     * @param userId 用户ID
+     * @return 数据权限范围
+     */
+    DataScope resolveDataScope(Long userId);
+
     /**
      * 根据角色ID查询部门树信息
      * 
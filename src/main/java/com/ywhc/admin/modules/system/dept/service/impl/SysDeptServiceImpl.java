@@ -2,13 +2,19 @@ package com.ywhc.admin.modules.system.dept.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ywhc.admin.common.context.RequestUserContext;
+import com.ywhc.admin.common.context.RequestUserContextHolder;
+import com.ywhc.admin.common.datascope.DataScope;
+import com.ywhc.admin.common.datascope.DataScopeCache;
 import com.ywhc.admin.common.enums.DataScopeType;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
 import com.ywhc.admin.common.util.SecurityUtils;
 import com.ywhc.admin.modules.system.dept.dto.DeptQueryDTO;
 import com.ywhc.admin.modules.system.dept.dto.DeptSaveDTO;
 import com.ywhc.admin.modules.system.dept.entity.SysDept;
 import com.ywhc.admin.modules.system.dept.mapper.SysDeptMapper;
 import com.ywhc.admin.modules.system.dept.service.SysDeptService;
+import com.ywhc.admin.modules.system.dept.support.DeptHierarchyIndex;
 import com.ywhc.admin.modules.system.dept.vo.DeptTreeVO;
 import com.ywhc.admin.modules.system.role.entity.SysRole;
 import com.ywhc.admin.modules.system.role.service.RoleService;
@@ -34,6 +40,10 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
     private final SysDeptMapper baseMapper;
     private final RoleService roleService;
     private final SecurityUtils securityUtils;
+    private final DataScopeCache dataScopeCache;
+    private final UserDetailsCache userDetailsCache;
+    private final DeptHierarchyIndex deptHierarchyIndex;
+
     @Override
     public List<DeptTreeVO> getDeptTree(DeptQueryDTO queryDTO) {
         LambdaQueryWrapper<SysDept> wrapper = new LambdaQueryWrapper<>();
@@ -79,7 +89,9 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
             dept.setAncestors("0");
         }
 
-        return save(dept);
+        boolean saved = save(dept);
+        deptHierarchyIndex.changed();
+        return saved;
     }
 
     @Override
@@ -102,8 +114,14 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
         BeanUtils.copyProperties(saveDTO, dept);
 
         // 如果父部门发生变化，需要更新祖级列表
-        if (!Objects.equals(oldDept.getParentId(), saveDTO.getParentId())) {
+        boolean moved = !Objects.equals(oldDept.getParentId(), saveDTO.getParentId());
+        if (moved) {
             updateDeptChildren(dept, oldDept);
+            deptHierarchyIndex.changed();
+        }
+        // 部门路径变化时已缓存的部门子树数据权限范围失效；部门名称变化时Token携带的部门名称快照失效
+        if (moved || !Objects.equals(oldDept.getDeptName(), saveDTO.getDeptName())) {
+            userDetailsCache.invalidateAll();
         }
 
         return updateById(dept);
@@ -125,7 +143,9 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
         //     throw new RuntimeException("部门存在用户，不允许删除");
         // }
 
-        return removeById(deptId);
+        boolean removed = removeById(deptId);
+        deptHierarchyIndex.changed();
+        return removed;
     }
 
     @Override
@@ -154,13 +174,36 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
 
     @Override
     public Set<Long> getDataScope(Long userId) {
-        // 获取用户角色
-        List<SysRole> roles = roleService.getRolesByUserId(userId);
-        if (roles.isEmpty()) {
-            return Collections.emptySet();
+        DataScope dataScope = resolveDataScope(userId);
+        if (dataScope.isAll()) {
+            return new HashSet<>(getAllDeptIds());
         }
 
-        Set<Long> deptIds = new HashSet<>();
+        Set<Long> deptIds = new HashSet<>(dataScope.getDeptIds());
+        deptIds.addAll(dataScope.getCustomDeptIds());
+        for (Long rootId : dataScope.getSubtrees().keySet()) {
+            deptIds.addAll(getChildrenDeptIds(rootId));
+        }
+        return deptIds;
+    }
+
+    @Override
+    public DataScope resolveDataScope(Long userId) {
+        // 当前用户在同一请求内只解析一次
+        RequestUserContext context = RequestUserContextHolder.get();
+        if (context != null && Objects.equals(context.getUserId(), userId)) {
+            return context.getDataScope().getOrLoad(() -> dataScopeCache.get(userId, this::loadDataScope));
+        }
+        return dataScopeCache.get(userId, this::loadDataScope);
+    }
+
+    /**
+     * 查询角色解析用户数据权限范围
+     */
+    private DataScope loadDataScope(Long userId) {
+        // 获取用户角色
+        List<SysRole> roles = roleService.getRolesByUserId(userId);
+        DataScope scope = new DataScope();
 
         for (SysRole role : roles) {
             Integer dataScope = role.getDataScope();
@@ -171,31 +214,33 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
             DataScopeType dataScopeType = DataScopeType.fromCode(dataScope);
             switch (dataScopeType) {
                 case ALL_DATA:
-                    return new HashSet<>(getAllDeptIds());
+                    return DataScope.all();
                 case CUSTOM_DEPT:
-                    List<Long> roleDeptIds = getDeptIdsByRoleId(role.getId());
-                    deptIds.addAll(roleDeptIds);
+                    scope.addCustomRole(role.getId(), getDeptIdsByRoleId(role.getId()));
                     break;
                 case CURRENT_DEPT:
                     Long userDeptId = getUserDeptId(userId);
                     if (userDeptId != null) {
-                        deptIds.add(userDeptId);
+                        scope.addDept(userDeptId);
                     }
                     break;
                 case CURRENT_AND_SUB_DEPT:
                     Long userDeptId2 = getUserDeptId(userId);
-                    if (userDeptId2 != null) {
-                        List<Long> childrenIds = getChildrenDeptIds(userDeptId2);
-                        deptIds.addAll(childrenIds);
+                    SysDept userDept = userDeptId2 != null ? getById(userDeptId2) : null;
+                    if (userDept != null) {
+                        // 下级部门的祖级列表以 本部门祖级列表,本部门ID 开头
+                        String ancestors = StringUtils.hasText(userDept.getAncestors())
+                                ? userDept.getAncestors() : getAncestors(userDept.getParentId());
+                        scope.addSubtree(userDept.getId(), ancestors + "," + userDept.getId());
                     }
                     break;
                 case SELF_ONLY:
-                    // 返回空列表，表示只能看到自己的数据
-                    return new HashSet<>();
+                    // 不授权部门，只能看到自己的数据
+                    break;
             }
         }
 
-        return deptIds;
+        return scope;
     }
 
     @Override
@@ -215,18 +260,29 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
 
     @Override
     public List<Long> getChildrenDeptIds(Long deptId) {
-        List<Long> childrenIds = baseMapper.selectChildrenDeptById(deptId);
-        childrenIds.add(deptId); // 包含自身
-        return childrenIds;
+        // 子树包含自身
+        long[] descendants = deptHierarchyIndex.current().descendants(deptId);
+        if (descendants.length == 0) {
+            return new ArrayList<>(List.of(deptId));
+        }
+        return toList(descendants);
     }
 
     @Override
     public List<Long> getAncestorsDeptIds(Long deptId) {
-        List<Long> ancestorsIds = baseMapper.selectAncestorsDeptById(deptId);
+        List<Long> ancestorsIds = toList(deptHierarchyIndex.current().ancestors(deptId));
         ancestorsIds.add(deptId); // 包含自身
         return ancestorsIds;
     }
 
+    private static List<Long> toList(long[] ids) {
+        List<Long> list = new ArrayList<>(ids.length + 1);
+        for (long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+
     /**
      * 构建部门树
      */
@@ -277,22 +333,24 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
 
     /**
      * 修改子元素关系
+     * 子孙部门的祖级列表都以 原祖级列表,部门ID 开头，用一条UPDATE整体替换该前缀
      */
     private void updateDeptChildren(SysDept dept, SysDept oldDept) {
-        String newAncestors = getAncestors(dept.getParentId());
-        String oldAncestors = oldDept.getAncestors();
-        dept.setAncestors(newAncestors);
-
-        List<SysDept> children = list(new LambdaQueryWrapper<SysDept>()
-                .like(SysDept::getAncestors, oldDept.getId()));
-
-        for (SysDept child : children) {
-            child.setAncestors(child.getAncestors().replaceFirst(oldAncestors, newAncestors));
+        Long deptId = oldDept.getId();
+        Long parentId = dept.getParentId() == null ? 0L : dept.getParentId();
+        String newAncestors = getAncestors(parentId);
+
+        // 不能移动到自身或下级部门下，否则形成循环
+        if (Objects.equals(parentId, deptId)
+                || deptHierarchyIndex.current().isDescendantOf(parentId, deptId)
+                || ("," + newAncestors + ",").contains("," + deptId + ",")) {
+            throw new RuntimeException("上级部门不能是自身或下级部门");
         }
 
-        if (!children.isEmpty()) {
-            updateBatchById(children);
-        }
+        String oldAncestors = StringUtils.hasText(oldDept.getAncestors())
+                ? oldDept.getAncestors() : getAncestors(oldDept.getParentId());
+        dept.setAncestors(newAncestors);
+        baseMapper.moveDeptChildren(oldAncestors + "," + deptId, newAncestors + "," + deptId);
     }
 
     /**
@@ -315,8 +373,8 @@ public class SysDeptServiceImpl extends ServiceImpl<SysDeptMapper, SysDept> impl
      * 获取所有部门ID
      */
     private List<Long> getAllDeptIds() {
-        List<SysDept> allDepts = list();
-        return allDepts.stream().map(SysDept::getId).collect(Collectors.toList());
+        return listObjs(new LambdaQueryWrapper<SysDept>().select(SysDept::getId),
+                id -> ((Number) id).longValue());
     }
 
     /**
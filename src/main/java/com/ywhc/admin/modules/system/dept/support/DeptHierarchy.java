@@ -0,0 +1,244 @@
+package com.ywhc.admin.modules.system.dept.support;
+
+import java.util.Arrays;
+
+/**
+ * 部门层级快照（不可变）
+ * 按先序遍历为每个部门分配位置，子树对应连续区间 [pre, end)，部门ID按先序位置存放：
+ * <ul>
+ *     <li>子孙部门：区间内的部门ID，O(k)</li>
+ *     <li>是否为下级：pre(ancestor) &lt; pre(dept) &lt; end(ancestor)，O(1)（按ID定位为O(log n)）</li>
+ *     <li>祖先部门：沿父节点位置上溯，O(depth)</li>
+ * </ul>
+ * 父部门不存在的部门作为根部门；成环的部门无法从根部门到达，不纳入快照
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class DeptHierarchy {
+
+    /**
+     * 空快照
+     */
+    public static final DeptHierarchy EMPTY = build(new long[0], new long[0], 0L);
+
+    private final long version;
+
+    /**
+     * 先序位置 -> 部门ID
+     */
+    private final long[] order;
+
+    /**
+     * 先序位置 -> 父部门的先序位置，根部门为-1
+     */
+    private final int[] parent;
+
+    /**
+     * 先序位置 -> 子树结束位置（不含）
+     */
+    private final int[] end;
+
+    /**
+     * 先序位置 -> 层级深度，根部门为0
+     */
+    private final int[] depth;
+
+    /**
+     * 升序部门ID及其先序位置，用于按ID二分定位
+     */
+    private final long[] sortedIds;
+    private final int[] sortedPositions;
+
+    /**
+     * 无法从根部门到达（成环）的部门数
+     */
+    private final int unreachable;
+
+    private DeptHierarchy(long version, long[] order, int[] parent, int[] end, int[] depth,
+                          long[] sortedIds, int[] sortedPositions, int unreachable) {
+        this.version = version;
+        this.order = order;
+        this.parent = parent;
+        this.end = end;
+        this.depth = depth;
+        this.sortedIds = sortedIds;
+        this.sortedPositions = sortedPositions;
+        this.unreachable = unreachable;
+    }
+
+    /**
+     * 构建层级快照
+     * 同一父部门下的子部门保持传入顺序
+     *
+     * @param ids       部门ID
+     * @param parentIds 对应的父部门ID，0或不存在的部门表示根部门
+     * @param version   快照版本
+     */
+    public static DeptHierarchy build(long[] ids, long[] parentIds, long version) {
+        int n = ids.length;
+        if (parentIds.length != n) {
+            throw new IllegalArgumentException("部门ID与父部门ID数量不一致");
+        }
+
+        // 输入下标按ID排序，用于查找父部门下标
+        long[] byId = ids.clone();
+        Arrays.sort(byId);
+        int[] inputIndex = new int[n];
+        for (int i = 0; i < n; i++) {
+            inputIndex[Arrays.binarySearch(byId, ids[i])] = i;
+        }
+
+        // 子部门链表：firstChild / nextSibling，倒序插入以保持传入顺序
+        int[] firstChild = new int[n];
+        int[] nextSibling = new int[n];
+        boolean[] root = new boolean[n];
+        Arrays.fill(firstChild, -1);
+        for (int i = n - 1; i >= 0; i--) {
+            int found = parentIds[i] == ids[i] ? -1 : Arrays.binarySearch(byId, parentIds[i]);
+            if (found < 0) {
+                root[i] = true;
+            } else {
+                int p = inputIndex[found];
+                nextSibling[i] = firstChild[p];
+                firstChild[p] = i;
+            }
+        }
+
+        // 从根部门迭代先序遍历
+        long[] order = new long[n];
+        int[] parent = new int[n];
+        int[] end = new int[n];
+        int[] depth = new int[n];
+        int[] positionOf = new int[n];
+        int[] cursor = firstChild.clone();
+        int[] stack = new int[n];
+        int count = 0;
+        for (int r = 0; r < n; r++) {
+            if (!root[r]) {
+                continue;
+            }
+            int sp = 0;
+            stack[sp++] = r;
+            positionOf[r] = count;
+            order[count] = ids[r];
+            parent[count] = -1;
+            depth[count] = 0;
+            count++;
+            while (sp > 0) {
+                int top = stack[sp - 1];
+                int child = cursor[top];
+                if (child >= 0) {
+                    cursor[top] = nextSibling[child];
+                    int topPosition = positionOf[top];
+                    positionOf[child] = count;
+                    order[count] = ids[child];
+                    parent[count] = topPosition;
+                    depth[count] = depth[topPosition] + 1;
+                    count++;
+                    stack[sp++] = child;
+                } else {
+                    end[positionOf[top]] = count;
+                    sp--;
+                }
+            }
+        }
+
+        long[] sortedIds = new long[count];
+        int[] sortedPositions = new int[count];
+        for (int position = 0; position < count; position++) {
+            sortedIds[position] = order[position];
+        }
+        Arrays.sort(sortedIds);
+        for (int position = 0; position < count; position++) {
+            sortedPositions[Arrays.binarySearch(sortedIds, order[position])] = position;
+        }
+
+        return new DeptHierarchy(version, Arrays.copyOf(order, count), Arrays.copyOf(parent, count),
+            Arrays.copyOf(end, count), Arrays.copyOf(depth, count), sortedIds, sortedPositions, n - count);
+    }
+
+    /**
+     * 快照版本
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 部门数
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * 成环而未纳入快照的部门数
+     */
+    public int unreachable() {
+        return unreachable;
+    }
+
+    /**
+     * 是否包含部门
+     */
+    public boolean contains(long deptId) {
+        return position(deptId) >= 0;
+    }
+
+    /**
+     * 子树部门ID（含自身，先序），部门不存在时返回空数组
+     */
+    public long[] descendants(long deptId) {
+        int position = position(deptId);
+        if (position < 0) {
+            return new long[0];
+        }
+        return Arrays.copyOfRange(order, position, end[position]);
+    }
+
+    /**
+     * 子树部门数（含自身），部门不存在时返回0
+     */
+    public int subtreeSize(long deptId) {
+        int position = position(deptId);
+        return position < 0 ? 0 : end[position] - position;
+    }
+
+    /**
+     * 祖先部门ID（从根部门到直接上级，不含自身），部门不存在时返回空数组
+     */
+    public long[] ancestors(long deptId) {
+        int position = position(deptId);
+        if (position < 0) {
+            return new long[0];
+        }
+        long[] ancestors = new long[depth[position]];
+        for (int i = ancestors.length - 1, p = parent[position]; i >= 0; i--, p = parent[p]) {
+            ancestors[i] = order[p];
+        }
+        return ancestors;
+    }
+
+    /**
+     * deptId是否为ancestorId的下级部门（不含自身）
+     */
+    public boolean isDescendantOf(long deptId, long ancestorId) {
+        int position = position(deptId);
+        int ancestor = position(ancestorId);
+        return position >= 0 && ancestor >= 0 && ancestor < position && position < end[ancestor];
+    }
+
+    /**
+     * 层级深度，根部门为0，部门不存在时返回-1
+     */
+    public int depth(long deptId) {
+        int position = position(deptId);
+        return position < 0 ? -1 : depth[position];
+    }
+
+    private int position(long deptId) {
+        int found = Arrays.binarySearch(sortedIds, deptId);
+        return found < 0 ? -1 : sortedPositions[found];
+    }
+}
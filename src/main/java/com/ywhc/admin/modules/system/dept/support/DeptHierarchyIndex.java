@@ -0,0 +1,175 @@
+package com.ywhc.admin.modules.system.dept.support;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.ywhc.admin.modules.system.dept.entity.SysDept;
+import com.ywhc.admin.modules.system.dept.mapper.SysDeptMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 部门层级索引
+ * 在本节点内存中维护sys_dept的不可变层级快照 {@link DeptHierarchy}，代替FIND_IN_SET和祖级列表拆分查询。
+ * 部门新增、删除、调整上级后在事务提交后重建快照并整体替换，同时递增Redis中的版本号并通知其他节点重建；
+ * 定时比对版本号，防止丢失通知时长期使用旧快照
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DeptHierarchyIndex implements MessageListener {
+
+    /**
+     * 部门层级变更通知频道
+     */
+    public static final String CHANNEL = "dept:hierarchy_changed";
+
+    private static final String VERSION_KEY = "dept:hierarchy_version";
+
+    private final SysDeptMapper deptMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private volatile DeptHierarchy hierarchy;
+
+    /**
+     * 本节点已应用的版本
+     */
+    private final AtomicLong appliedVersion = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 获取当前快照，首次访问时加载
+     */
+    public DeptHierarchy current() {
+        DeptHierarchy current = hierarchy;
+        if (current == null) {
+            synchronized (this) {
+                current = hierarchy;
+                if (current == null) {
+                    current = rebuild(readVersion());
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 部门层级已变更（事务提交后重建本节点快照并通知其他节点）
+     */
+    public void changed() {
+        afterCommit(() -> {
+            long version = appliedVersion.get();
+            try {
+                Long next = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+                version = next != null ? next : version;
+            } catch (Exception e) {
+                log.error("递增部门层级版本失败: {}", e.getMessage());
+            }
+            rebuild(version);
+            try {
+                stringRedisTemplate.convertAndSend(CHANNEL, String.valueOf(version));
+            } catch (Exception e) {
+                log.error("发布部门层级变更通知失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            long version = Long.parseLong(body);
+            if (version > appliedVersion.get()) {
+                rebuild(version);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的部门层级变更消息: {}", body);
+        }
+    }
+
+    /**
+     * 比对版本号，丢失通知时重建
+     */
+    @Scheduled(fixedDelayString = "${dept-hierarchy.check-interval:60000}")
+    public void checkVersion() {
+        if (hierarchy == null) {
+            return;
+        }
+        long version = readVersion();
+        if (version > appliedVersion.get()) {
+            log.info("部门层级版本落后，重新加载: {} -> {}", appliedVersion.get(), version);
+            rebuild(version);
+        }
+    }
+
+    /**
+     * 从数据库加载部门并替换快照
+     */
+    private synchronized DeptHierarchy rebuild(long version) {
+        List<SysDept> depts = deptMapper.selectList(new LambdaQueryWrapper<SysDept>()
+            .select(SysDept::getId, SysDept::getParentId)
+            .orderByAsc(SysDept::getParentId, SysDept::getSortOrder, SysDept::getId));
+        long[] ids = new long[depts.size()];
+        long[] parentIds = new long[depts.size()];
+        for (int i = 0; i < ids.length; i++) {
+            SysDept dept = depts.get(i);
+            ids[i] = dept.getId();
+            parentIds[i] = dept.getParentId() != null ? dept.getParentId() : 0L;
+        }
+
+        DeptHierarchy rebuilt = DeptHierarchy.build(ids, parentIds, version);
+        if (rebuilt.unreachable() > 0) {
+            log.warn("部门上级关系存在循环，{} 个部门未纳入层级索引", rebuilt.unreachable());
+        }
+        hierarchy = rebuilt;
+        appliedVersion.accumulateAndGet(version, Math::max);
+        log.debug("部门层级索引已重建: version={}, size={}", version, rebuilt.size());
+        return rebuilt;
+    }
+
+    private long readVersion() {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (Exception e) {
+            log.warn("读取部门层级版本失败: {}", e.getMessage());
+            return 0L;
+        }
+    }
+
+    /**
+     * 存在事务时在提交后执行，否则立即执行
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -34,9 +34,9 @@ public class DictDataServiceImpl extends ServiceImpl<DictDataMapper, SysDictData
 
     @Override
     public IPage<DictDataVO> pageDictData(DictDataQueryDTO queryDTO) {
-        Page<SysDictData> page = new Page<>(queryDTO.getCurrent(), queryDTO.getSize());
+        Page<SysDictData> page = PageConverter.of(queryDTO);
         IPage<SysDictData> dictDataPage = this.page(page, QueryProcessor.createQueryWrapper(queryDTO));
-        Page<DictDataVO> voPage = PageConverter.convert(dictDataPage, this::convertToVO);
+        Page<DictDataVO> voPage = PageConverter.convert(dictDataPage, queryDTO, this::convertToVO);
 
         return voPage;
     }
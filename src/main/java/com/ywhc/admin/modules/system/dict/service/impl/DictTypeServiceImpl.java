@@ -37,9 +37,9 @@ public class DictTypeServiceImpl extends ServiceImpl<DictTypeMapper, SysDictType
 
     @Override
     public IPage<DictTypeVO> pageDictTypes(DictTypeQueryDTO queryDTO) {
-        Page<SysDictType> page = new Page<>(queryDTO.getCurrent(), queryDTO.getSize());
+        Page<SysDictType> page = PageConverter.of(queryDTO);
         IPage<SysDictType> dictTypePage = this.page(page, QueryProcessor.createQueryWrapper(queryDTO));
-        Page<DictTypeVO> voPage = PageConverter.convert(dictTypePage, this::convertToVO);
+        Page<DictTypeVO> voPage = PageConverter.convert(dictTypePage, queryDTO, this::convertToVO);
         return voPage;
     }
 
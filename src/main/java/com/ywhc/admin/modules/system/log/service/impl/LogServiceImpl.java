@@ -9,6 +9,7 @@ import com.ywhc.admin.modules.system.log.entity.SysLog;
 import com.ywhc.admin.modules.system.log.dto.LogQueryDTO;
 import com.ywhc.admin.modules.system.log.mapper.LogMapper;
 import com.ywhc.admin.modules.system.log.service.LogService;
+import com.ywhc.admin.modules.system.log.support.SysLogPartitionManager;
 import com.ywhc.admin.modules.system.log.vo.LogVO;
 import com.ywhc.admin.common.util.QueryProcessor;
 import lombok.RequiredArgsConstructor;
@@ -27,11 +28,13 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class LogServiceImpl extends ServiceImpl<LogMapper, SysLog> implements LogService {
 
+    private final SysLogPartitionManager sysLogPartitionManager;
+
     @Override
     public IPage<LogVO> pageLogs(LogQueryDTO queryDTO) {
-        Page<SysLog> page = new Page<>(queryDTO.getCurrent(), queryDTO.getSize());
+        Page<SysLog> page = PageConverter.of(queryDTO);
         Page<SysLog> logPage = this.page(page, QueryProcessor.createQueryWrapper(queryDTO));
-        Page<LogVO> pageVO = PageConverter.convert(logPage, this::convertToVO);
+        Page<LogVO> pageVO = PageConverter.convert(logPage, queryDTO, this::convertToVO);
         return pageVO;
     }
 
@@ -46,6 +49,10 @@ public class LogServiceImpl extends ServiceImpl<LogMapper, SysLog> implements Lo
 
     @Override
     public void clearLogs() {
+        // 已分区时按分区清空，避免逐行删除
+        if (sysLogPartitionManager.truncateAll()) {
+            return;
+        }
         this.remove(new LambdaQueryWrapper<>());
     }
 
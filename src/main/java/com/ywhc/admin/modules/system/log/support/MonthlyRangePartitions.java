@@ -0,0 +1,135 @@
+package com.ywhc.admin.modules.system.log.support;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * 按月RANGE COLUMNS分区的命名与DDL生成
+ * 每月一个分区，命名为 p+年月（如p202401），上界为下月1日零点；
+ * 末尾保留MAXVALUE兜底分区pmax，新分区通过拆分空的pmax追加，避免超出范围的数据插入失败
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+public final class MonthlyRangePartitions {
+
+    /**
+     * 兜底分区名
+     */
+    public static final String MAX_PARTITION = "pmax";
+
+    private static final DateTimeFormatter NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private MonthlyRangePartitions() {
+    }
+
+    /**
+     * 月份对应的分区名
+     */
+    public static String partitionName(YearMonth month) {
+        return "p" + month.format(NAME_FORMATTER);
+    }
+
+    /**
+     * 解析分区名对应的月份
+     *
+     * @return 不是按月命名的分区（如pmax）时返回null
+     */
+    public static YearMonth parseMonth(String partitionName) {
+        if (partitionName == null || partitionName.length() != 7 || partitionName.charAt(0) != 'p') {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(1), NAME_FORMATTER);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 需要新建的月份：从已有最大月份的下一个月到目标月份（含）
+     * RANGE分区只能在末尾追加，早于已有分区的月份已被前面的分区覆盖；
+     * 中间缺失的月份（如定时任务长期未执行）也会补齐，保证按月删除的粒度
+     *
+     * @param existing 已有月份
+     * @param from     没有任何按月分区时的起始月份
+     * @param through  需要覆盖到的月份（含）
+     */
+    public static List<YearMonth> missingMonths(Collection<YearMonth> existing, YearMonth from, YearMonth through) {
+        YearMonth start = from;
+        if (!existing.isEmpty()) {
+            start = Collections.max(existing).plusMonths(1);
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = start; !month.isAfter(through); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /**
+     * 已过期的月份：整月早于最早保留月份
+     *
+     * @param existing       已有月份
+     * @param oldestRetained 最早保留的月份
+     */
+    public static List<YearMonth> expiredMonths(Collection<YearMonth> existing, YearMonth oldestRetained) {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month : existing) {
+            if (month.isBefore(oldestRetained)) {
+                months.add(month);
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /**
+     * 将未分区的表转换为按月分区，覆盖months中的月份并追加pmax
+     * 早于第一个月份的数据（包括create_time为NULL的行）落入第一个分区
+     */
+    public static String partitionBySql(String table, String column, List<YearMonth> months) {
+        return "ALTER TABLE " + table + " PARTITION BY RANGE COLUMNS(" + column + ") (" + definitions(months) + ")";
+    }
+
+    /**
+     * 拆分pmax追加新月份分区
+     */
+    public static String addPartitionsSql(String table, List<YearMonth> months) {
+        return "ALTER TABLE " + table + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" + definitions(months) + ")";
+    }
+
+    /**
+     * 删除月份分区
+     */
+    public static String dropPartitionsSql(String table, List<YearMonth> months) {
+        StringJoiner names = new StringJoiner(", ");
+        for (YearMonth month : months) {
+            names.add(partitionName(month));
+        }
+        return "ALTER TABLE " + table + " DROP PARTITION " + names;
+    }
+
+    /**
+     * 清空全部分区
+     */
+    public static String truncateAllSql(String table) {
+        return "ALTER TABLE " + table + " TRUNCATE PARTITION ALL";
+    }
+
+    private static String definitions(List<YearMonth> months) {
+        StringJoiner definitions = new StringJoiner(", ");
+        for (YearMonth month : months) {
+            definitions.add("PARTITION " + partitionName(month) + " VALUES LESS THAN ('"
+                + month.plusMonths(1).atDay(1) + " 00:00:00')");
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        return definitions.toString();
+    }
+}
@@ -0,0 +1,483 @@
+package com.ywhc.admin.modules.system.log.support;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ywhc.admin.modules.system.log.entity.SysLog;
+import com.ywhc.admin.modules.system.log.service.LogService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作日志异步批量写入器
+ * 请求线程只把日志放入有界无锁环形队列，由专用写线程按批次取出后通过saveBatch批量插入
+ * （连接串已开启rewriteBatchedStatements，驱动会改写为多行INSERT）；
+ * 批次凑满或等待超过linger时间即写入，应用关闭时写完队列中剩余日志
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OperationLogWriter {
+
+    private static final String SPILL_FILE = "operation-log.spill";
+    private static final String REPLAY_FILE = "operation-log.replay";
+
+    /**
+     * 落盘日志两次回放尝试的最小间隔，避免数据库不可用时反复读写文件
+     */
+    private static final long SPILL_REPLAY_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * 丢弃最旧日志时的最大重试次数，超过后丢弃当前日志
+     */
+    private static final int DROP_OLDEST_RETRIES = 3;
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * 队列溢出策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 阻塞请求线程等待队列空位，超过阻塞超时后丢弃
+         */
+        BLOCK,
+        /**
+         * 丢弃队列中最旧的日志
+         */
+        DROP_OLDEST,
+        /**
+         * 写入本地文件，空闲时回放到数据库
+         */
+        SPILL
+    }
+
+    private final LogService logService;
+
+    /**
+     * 落盘文件专用序列化，使用ISO时间格式保证读写一致，不受全局Jackson配置影响
+     */
+    private final ObjectMapper spillMapper = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+
+    /**
+     * 是否异步写入，关闭时在请求线程中同步保存
+     */
+    @Value("${operation-log.async:true}")
+    private boolean async;
+
+    /**
+     * 队列容量（向上取整为2的幂）
+     */
+    @Value("${operation-log.buffer-size:8192}")
+    private int bufferSize;
+
+    /**
+     * 单批写入条数
+     */
+    @Value("${operation-log.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 批次未凑满时的最长等待时间（毫秒）
+     */
+    @Value("${operation-log.linger:200}")
+    private long linger;
+
+    /**
+     * 队列溢出策略：block / drop-oldest / spill
+     */
+    @Value("${operation-log.overflow-policy:block}")
+    private String overflowPolicyName;
+
+    /**
+     * BLOCK策略下请求线程的最长阻塞时间（毫秒）
+     */
+    @Value("${operation-log.block-timeout:100}")
+    private long blockTimeout;
+
+    /**
+     * SPILL策略的落盘目录
+     */
+    @Value("${operation-log.spill-dir:${java.io.tmpdir}/ywhc-admin/operation-log}")
+    private String spillDir;
+
+    /**
+     * 应用关闭时等待写线程写完剩余日志的最长时间（毫秒）
+     */
+    @Value("${operation-log.shutdown-timeout:10000}")
+    private long shutdownTimeout;
+
+    private BoundedRingBuffer<SysLog> buffer;
+    private OverflowPolicy overflowPolicy;
+    private Path spillFile;
+    private Path replayFile;
+    private Thread writerThread;
+    private volatile boolean running;
+    private long lastReplayAttempt;
+
+    private final Object spillLock = new Object();
+
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        if (!async) {
+            log.info("操作日志异步写入未开启，使用同步写入");
+            return;
+        }
+        batchSize = Math.max(1, batchSize);
+        overflowPolicy = OverflowPolicy.valueOf(overflowPolicyName.trim().toUpperCase().replace('-', '_'));
+        buffer = new BoundedRingBuffer<>(Math.max(batchSize, bufferSize));
+        if (StringUtils.hasText(spillDir)) {
+            spillFile = Paths.get(spillDir, SPILL_FILE);
+            replayFile = Paths.get(spillDir, REPLAY_FILE);
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL && spillFile == null) {
+            throw new IllegalStateException("操作日志溢出策略为spill时必须配置operation-log.spill-dir");
+        }
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "operation-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("操作日志异步写入已开启: 队列容量={}, 批次={}, linger={}ms, 溢出策略={}",
+            buffer.capacity(), batchSize, linger, overflowPolicy);
+    }
+
+    /**
+     * 提交日志
+     * 写线程未运行（未开启异步或应用正在关闭）时直接同步保存
+     *
+     * @param sysLog 操作日志
+     */
+    public void submit(SysLog sysLog) {
+        if (!running) {
+            logService.saveLog(sysLog);
+            return;
+        }
+        submittedCount.increment();
+        if (buffer.offer(sysLog)) {
+            // 已积累满一批时唤醒写线程，不必等到linger结束
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writerThread);
+            }
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> offerBlocking(sysLog);
+            case DROP_OLDEST -> offerDroppingOldest(sysLog);
+            case SPILL -> spill(Collections.singletonList(sysLog));
+        }
+    }
+
+    /**
+     * 应用关闭时停止写线程并写完剩余日志，超时未写完的部分落盘（未配置落盘目录时丢弃）
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(shutdownTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<SysLog> remaining = new ArrayList<>();
+        buffer.drainTo(remaining, Integer.MAX_VALUE);
+        if (!remaining.isEmpty()) {
+            log.warn("操作日志写线程未在{}ms内结束，剩余{}条日志转为落盘", shutdownTimeout, remaining.size());
+            if (spillFile != null) {
+                spill(remaining);
+            } else {
+                droppedCount.add(remaining.size());
+            }
+        }
+        log.info("操作日志写入器已关闭: 提交={}, 写入={}, 丢弃={}, 落盘={}, 失败={}",
+            getSubmittedCount(), getWrittenCount(), getDroppedCount(), getSpilledCount(), getFailedCount());
+    }
+
+    /**
+     * 每小时输出写入统计
+     */
+    @Scheduled(cron = "0 0 * * * ?")
+    public void logStats() {
+        if (buffer == null) {
+            return;
+        }
+        log.info("操作日志写入器: 队列={}/{}, 提交={}, 写入={}, 丢弃={}, 落盘={}, 失败={}",
+            getQueueSize(), buffer.capacity(), getSubmittedCount(), getWrittenCount(),
+            getDroppedCount(), getSpilledCount(), getFailedCount());
+    }
+
+    /**
+     * 当前队列中的日志条数
+     */
+    public int getQueueSize() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /**
+     * 累计提交条数
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    /**
+     * 累计写入数据库条数
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * 累计丢弃条数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 累计落盘条数
+     */
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    /**
+     * 累计写入失败条数
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    private void offerBlocking(SysLog sysLog) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+        LockSupport.unpark(writerThread);
+        while (System.nanoTime() < deadline && running) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(sysLog)) {
+                return;
+            }
+        }
+        droppedCount.increment();
+        log.warn("操作日志队列已满，阻塞{}ms后丢弃: {}", blockTimeout, sysLog.getRequestUrl());
+    }
+
+    private void offerDroppingOldest(SysLog sysLog) {
+        for (int i = 0; i < DROP_OLDEST_RETRIES; i++) {
+            if (buffer.poll() != null) {
+                droppedCount.increment();
+            }
+            if (buffer.offer(sysLog)) {
+                return;
+            }
+        }
+        droppedCount.increment();
+    }
+
+    private void runWriter() {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, linger));
+        List<SysLog> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (running) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                replaySpillIfDue();
+                LockSupport.parkNanos(lingerNanos);
+                continue;
+            }
+            if (batch.size() < batchSize) {
+                long now = System.nanoTime();
+                if (deadline == 0) {
+                    deadline = now + lingerNanos;
+                }
+                if (deadline - now > 0) {
+                    LockSupport.parkNanos(deadline - now);
+                    continue;
+                }
+            }
+            writeBatch(batch);
+            batch.clear();
+            deadline = 0;
+        }
+
+        // 关闭前写完剩余日志
+        do {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        } while (!buffer.isEmpty());
+    }
+
+    private void writeBatch(List<SysLog> batch) {
+        if (insert(batch)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            spill(batch);
+        } else {
+            droppedCount.add(batch.size());
+        }
+    }
+
+    private boolean insert(List<SysLog> batch) {
+        try {
+            logService.saveBatch(batch, batchSize);
+            writtenCount.add(batch.size());
+            return true;
+        } catch (Exception e) {
+            failedCount.add(batch.size());
+            log.error("批量保存操作日志失败: count={}, error={}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 追加写入落盘文件，每行一条JSON
+     */
+    private void spill(List<SysLog> logs) {
+        if (appendSpillFile(logs)) {
+            spilledCount.add(logs.size());
+        }
+    }
+
+    private boolean appendSpillFile(List<SysLog> logs) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(spillFile.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (SysLog sysLog : logs) {
+                        writer.write(spillMapper.writeValueAsString(sysLog));
+                        writer.newLine();
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                droppedCount.add(logs.size());
+                log.error("操作日志落盘失败: count={}, error={}", logs.size(), e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 队列空闲时回放落盘日志
+     * 先把落盘文件原子改名为回放文件再读取，回放期间新的溢出日志写入新的落盘文件；
+     * 回放文件在全部处理完后才删除，进程中途退出时下次启动会重新回放（至少一次，可能重复）
+     */
+    private void replaySpillIfDue() {
+        if (spillFile == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (lastReplayAttempt != 0 && now - lastReplayAttempt < SPILL_REPLAY_INTERVAL) {
+            return;
+        }
+        lastReplayAttempt = now;
+        try {
+            if (!Files.exists(replayFile)) {
+                synchronized (spillLock) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            replay();
+        } catch (IOException e) {
+            log.error("回放落盘操作日志失败: {}", e.getMessage());
+        }
+    }
+
+    private void replay() throws IOException {
+        int replayed = 0;
+        boolean failed = false;
+        List<SysLog> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!StringUtils.hasText(line)) {
+                    continue;
+                }
+                try {
+                    batch.add(spillMapper.readValue(line, SysLog.class));
+                } catch (IOException e) {
+                    droppedCount.increment();
+                    log.warn("跳过无法解析的落盘操作日志: {}", e.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    failed = flushReplayBatch(batch, failed);
+                    replayed += failed ? 0 : batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                failed = flushReplayBatch(batch, failed);
+                replayed += failed ? 0 : batch.size();
+            }
+        }
+        Files.delete(replayFile);
+        if (replayed > 0) {
+            log.info("回放落盘操作日志: {}条", replayed);
+        }
+    }
+
+    /**
+     * 写入一批回放日志，写入失败后（包括之前已失败）本轮剩余日志全部重新落盘，等待下次回放
+     *
+     * @return 本轮是否已失败
+     */
+    private boolean flushReplayBatch(List<SysLog> batch, boolean failed) {
+        if (!failed && insert(batch)) {
+            return false;
+        }
+        // 回放失败的日志已计入过落盘数，不重复统计
+        appendSpillFile(batch);
+        return true;
+    }
+}
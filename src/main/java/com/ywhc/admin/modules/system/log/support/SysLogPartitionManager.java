@@ -0,0 +1,261 @@
+package com.ywhc.admin.modules.system.log.support;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 操作日志表分区管理
+ * sys_log按create_time每月一个RANGE COLUMNS分区，定时预建未来月份的分区并删除超出保留期的分区，
+ * 过期数据通过DROP PARTITION清理而不是DELETE；按时间范围的分页查询由MySQL自动裁剪到相关分区
+ *
+ * <p>分区表要求create_time为DATETIME类型且包含在主键中，首次启用时需要将主键改为 (id, create_time)
+ * 并重建表。数据量大时建议在维护窗口手动执行（启用后启动日志会输出需要执行的语句），
+ * 或配置auto-init由应用自动转换。多节点部署时通过MySQL命名锁保证同一时间只有一个节点执行DDL。</p>
+ *
+ * @author YWHC Team
+ * @since 2024-01-01
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SysLogPartitionManager {
+
+    private static final String TABLE = "sys_log";
+    private static final String COLUMN = "create_time";
+    private static final String LOCK_NAME = "ywhc:sys_log_partition";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 是否启用分区管理
+     */
+    @Value("${operation-log.partition.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 保留月数（含当月），小于等于0表示不删除
+     */
+    @Value("${operation-log.partition.retention-months:12}")
+    private int retentionMonths;
+
+    /**
+     * 提前创建的未来月份数
+     */
+    @Value("${operation-log.partition.premake-months:3}")
+    private int premakeMonths;
+
+    /**
+     * 表未分区时是否自动转换（会重建整张表）
+     */
+    @Value("${operation-log.partition.auto-init:false}")
+    private boolean autoInit;
+
+    private volatile boolean partitioned;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            maintain();
+        }
+    }
+
+    /**
+     * 每天预建分区并删除过期分区
+     */
+    @Scheduled(cron = "${operation-log.partition.cron:0 30 2 * * ?}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                // 未取得锁的节点也需要知道分区状态
+                partitioned = loadPartitions(connection, new ArrayList<>());
+                // 命名锁绑定在连接上，加锁、DDL、解锁必须使用同一个连接
+                if (!tryLock(connection)) {
+                    log.debug("其他节点正在维护操作日志分区，跳过");
+                    return null;
+                }
+                try {
+                    maintain(connection);
+                } finally {
+                    unlock(connection);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("维护操作日志分区失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 清空全部分区
+     * 执行前重新读取分区状态，不依赖本节点缓存的状态（其他节点可能已完成转换）
+     *
+     * @return 表未分区时返回false，由调用方按原方式删除
+     */
+    public boolean truncateAll() {
+        if (!enabled) {
+            return false;
+        }
+        partitioned = Boolean.TRUE.equals(jdbcTemplate.execute(
+            (ConnectionCallback<Boolean>) connection -> loadPartitions(connection, new ArrayList<>())));
+        if (!partitioned) {
+            return false;
+        }
+        jdbcTemplate.execute(MonthlyRangePartitions.truncateAllSql(TABLE));
+        log.info("已清空操作日志全部分区");
+        return true;
+    }
+
+    /**
+     * 表是否已按月分区
+     */
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    private void maintain(Connection connection) throws SQLException {
+        List<YearMonth> months = new ArrayList<>();
+        partitioned = loadPartitions(connection, months);
+        YearMonth current = YearMonth.now();
+        YearMonth through = current.plusMonths(Math.max(0, premakeMonths));
+
+        if (!partitioned) {
+            YearMonth from = oldestMonth(connection, current);
+            List<YearMonth> initial = MonthlyRangePartitions.missingMonths(List.of(), from, through);
+            if (!autoInit) {
+                log.warn("操作日志表未分区，请在维护窗口执行以下语句后重启（或配置operation-log.partition.auto-init=true）:\n{};\n{};",
+                    primaryKeySql(), MonthlyRangePartitions.partitionBySql(TABLE, COLUMN, initial));
+                return;
+            }
+            log.info("开始转换操作日志表为按月分区: {} ~ {}", from, through);
+            if (!primaryKeyContainsColumn(connection)) {
+                execute(connection, primaryKeySql());
+            }
+            execute(connection, MonthlyRangePartitions.partitionBySql(TABLE, COLUMN, initial));
+            partitioned = true;
+            months.addAll(initial);
+        }
+
+        List<YearMonth> missing = MonthlyRangePartitions.missingMonths(months, current, through);
+        if (!missing.isEmpty()) {
+            execute(connection, MonthlyRangePartitions.addPartitionsSql(TABLE, missing));
+            log.info("已创建操作日志分区: {}", missing);
+        }
+
+        if (retentionMonths > 0) {
+            List<YearMonth> expired = MonthlyRangePartitions.expiredMonths(months,
+                current.minusMonths(retentionMonths - 1L));
+            // 至少保留一个月份分区，第一个分区还承接早于它的数据
+            if (!expired.isEmpty() && expired.size() < months.size()) {
+                execute(connection, MonthlyRangePartitions.dropPartitionsSql(TABLE, expired));
+                log.info("已删除过期操作日志分区: {}", expired);
+            }
+        }
+    }
+
+    /**
+     * 读取已有的按月分区
+     *
+     * @return 表是否已分区
+     */
+    private boolean loadPartitions(Connection connection, List<YearMonth> months) throws SQLException {
+        String sql = """
+            SELECT partition_name
+            FROM information_schema.partitions
+            WHERE table_schema = (SELECT DATABASE())
+            AND table_name = ?
+            ORDER BY partition_ordinal_position
+            """;
+        boolean hasPartitions = false;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, TABLE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    if (name == null) {
+                        continue;
+                    }
+                    hasPartitions = true;
+                    YearMonth month = MonthlyRangePartitions.parseMonth(name);
+                    if (month != null) {
+                        months.add(month);
+                    }
+                }
+            }
+        }
+        return hasPartitions;
+    }
+
+    private YearMonth oldestMonth(Connection connection, YearMonth fallback) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MIN(" + COLUMN + ") FROM " + TABLE)) {
+            Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+            return oldest != null ? YearMonth.from(oldest.toLocalDateTime()) : fallback;
+        }
+    }
+
+    private boolean primaryKeyContainsColumn(Connection connection) throws SQLException {
+        String sql = """
+            SELECT COUNT(*)
+            FROM information_schema.key_column_usage
+            WHERE table_schema = (SELECT DATABASE())
+            AND table_name = ?
+            AND constraint_name = 'PRIMARY'
+            AND column_name = ?
+            """;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, TABLE);
+            ps.setString(2, COLUMN);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static String primaryKeySql() {
+        return "ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, " + COLUMN + ")";
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            log.warn("释放操作日志分区锁失败: {}", e.getMessage());
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        log.debug("执行分区DDL: {}", sql);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
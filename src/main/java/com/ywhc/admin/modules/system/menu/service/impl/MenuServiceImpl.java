@@ -3,6 +3,7 @@ package com.ywhc.admin.modules.system.menu.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.ywhc.admin.common.result.ResultCode;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
 import com.ywhc.admin.modules.system.menu.dto.MenuCreateDTO;
 import com.ywhc.admin.modules.system.menu.entity.SysMenu;
 import com.ywhc.admin.modules.system.menu.mapper.MenuMapper;
@@ -34,6 +35,7 @@ public class MenuServiceImpl
     implements MenuService {
 
     private final MenuMapper menuMapper;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public List<MenuTreeVO> getMenuTree() {
@@ -92,6 +94,8 @@ public class MenuServiceImpl
             throw new RuntimeException(ResultCode.MENU_NOT_FOUND.getMessage());
         }
         this.updateById(menu);
+        // 菜单权限标识可能变更，影响所有拥有该菜单的用户
+        userDetailsCache.invalidateAll();
     }
 
     @Override
@@ -118,6 +122,7 @@ public class MenuServiceImpl
         menu.setId(menuId);
         menu.setStatus(status);
         this.updateById(menu);
+        userDetailsCache.invalidateAll();
     }
 
     @Override
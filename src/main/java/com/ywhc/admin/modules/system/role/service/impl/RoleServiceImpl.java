@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.ywhc.admin.common.result.ResultCode;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
 import com.ywhc.admin.common.util.PageConverter;
 import com.ywhc.admin.common.util.QueryProcessor;
 import com.ywhc.admin.common.util.ListConverter;
@@ -16,6 +17,7 @@ import com.ywhc.admin.modules.system.role.mapper.RoleMapper;
 import com.ywhc.admin.modules.system.role.service.RoleService;
 import com.ywhc.admin.modules.system.role.service.SysRoleMenuService;
 import com.ywhc.admin.modules.system.role.vo.RoleVO;
+import com.ywhc.admin.modules.system.user.service.UserRoleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -39,14 +41,16 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, SysRole> implements
 
     private final RoleMapper roleMapper;
     private final SysRoleMenuService sysRoleMenuService;
+    private final UserRoleService userRoleService;
+    private final UserDetailsCache userDetailsCache;
     @Override
     public IPage<RoleVO> pageRoles(RoleQueryDTO queryDTO) {
-        Page<SysRole> page = new Page<>(queryDTO.getCurrent(), queryDTO.getSize());
+        Page<SysRole> page = PageConverter.of(queryDTO);
 
         IPage<SysRole> rolePage = this.page(page, QueryProcessor.createQueryWrapper(queryDTO));
 
         // 使用 PageConverter 转换为VO
-        return PageConverter.convert(rolePage, this::convertToVO);
+        return PageConverter.convert(rolePage, queryDTO, this::convertToVO);
     }
 
     @Override
@@ -118,6 +122,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, SysRole> implements
         SysRole role = new SysRole();
         BeanUtils.copyProperties(updateDTO, role);
         this.updateById(role);
+        userDetailsCache.invalidateUsers(userRoleService.getUserIdsByRoleId(role.getId()));
 
         // 更新菜单权限
         if (updateDTO.getMenuIds() != null) {
@@ -167,6 +172,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, SysRole> implements
         role.setId(roleId);
         role.setStatus(status);
         this.updateById(role);
+        userDetailsCache.invalidateUsers(userRoleService.getUserIdsByRoleId(roleId));
     }
 
     @Override
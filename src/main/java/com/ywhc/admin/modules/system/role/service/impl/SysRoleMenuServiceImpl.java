@@ -2,9 +2,11 @@ package com.ywhc.admin.modules.system.role.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
 import com.ywhc.admin.modules.system.role.entity.SysRoleMenu;
 import com.ywhc.admin.modules.system.role.mapper.SysRoleMenuMapper;
 import com.ywhc.admin.modules.system.role.service.SysRoleMenuService;
+import com.ywhc.admin.modules.system.user.service.UserRoleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -26,6 +28,8 @@ import java.util.stream.Collectors;
 public class SysRoleMenuServiceImpl extends ServiceImpl<SysRoleMenuMapper, SysRoleMenu> implements SysRoleMenuService {
 
     private final SysRoleMenuMapper sysRoleMenuMapper;
+    private final UserRoleService userRoleService;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public List<Long> getMenuIdsByRoleId(Long roleId) {
@@ -77,6 +81,7 @@ public class SysRoleMenuServiceImpl extends ServiceImpl<SysRoleMenuMapper, SysRo
         LambdaQueryWrapper<SysRoleMenu> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(SysRoleMenu::getRoleId, roleId);
         remove(wrapper);
+        userDetailsCache.invalidateUsers(userRoleService.getUserIdsByRoleId(roleId));
         log.info("删除角色[{}]的所有菜单权限成功", roleId);
     }
 
@@ -90,6 +95,7 @@ public class SysRoleMenuServiceImpl extends ServiceImpl<SysRoleMenuMapper, SysRo
         LambdaQueryWrapper<SysRoleMenu> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(SysRoleMenu::getMenuId, menuId);
         remove(wrapper);
+        userDetailsCache.invalidateAll();
         log.info("删除菜单[{}]的所有角色关联成功", menuId);
     }
 
@@ -103,6 +109,7 @@ public class SysRoleMenuServiceImpl extends ServiceImpl<SysRoleMenuMapper, SysRo
         LambdaQueryWrapper<SysRoleMenu> wrapper = new LambdaQueryWrapper<>();
         wrapper.in(SysRoleMenu::getRoleId, roleIds);
         remove(wrapper);
+        roleIds.forEach(roleId -> userDetailsCache.invalidateUsers(userRoleService.getUserIdsByRoleId(roleId)));
         log.info("批量删除角色菜单权限成功，角色数量：{}", roleIds.size());
     }
 
@@ -116,6 +123,7 @@ public class SysRoleMenuServiceImpl extends ServiceImpl<SysRoleMenuMapper, SysRo
         LambdaQueryWrapper<SysRoleMenu> wrapper = new LambdaQueryWrapper<>();
         wrapper.in(SysRoleMenu::getMenuId, menuIds);
         remove(wrapper);
+        userDetailsCache.invalidateAll();
         log.info("批量删除菜单角色关联成功，菜单数量：{}", menuIds.size());
     }
 
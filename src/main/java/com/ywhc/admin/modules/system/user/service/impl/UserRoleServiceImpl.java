@@ -2,6 +2,7 @@ package com.ywhc.admin.modules.system.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
 import com.ywhc.admin.modules.system.user.entity.SysUserRole;
 import com.ywhc.admin.modules.system.user.mapper.UserRoleMapper;
 import com.ywhc.admin.modules.system.user.service.UserRoleService;
@@ -27,6 +28,7 @@ import java.util.stream.Collectors;
 public class UserRoleServiceImpl extends ServiceImpl<UserRoleMapper, SysUserRole> implements UserRoleService {
 
     private final UserRoleMapper userRoleMapper;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public List<SysUserRole> getByUserId(Long userId) {
@@ -51,6 +53,7 @@ public class UserRoleServiceImpl extends ServiceImpl<UserRoleMapper, SysUserRole
             return;
         }
         userRoleMapper.deleteByUserId(userId);
+        userDetailsCache.invalidateUser(userId);
         log.info("删除用户ID为{}的角色关联", userId);
     }
 
@@ -60,7 +63,10 @@ public class UserRoleServiceImpl extends ServiceImpl<UserRoleMapper, SysUserRole
         if (roleId == null) {
             return;
         }
+        // 删除前先取出受影响的用户
+        List<Long> userIds = userRoleMapper.selectUserIdsByRoleId(roleId);
         userRoleMapper.deleteByRoleId(roleId);
+        userDetailsCache.invalidateUsers(userIds);
         log.info("删除角色ID为{}的用户关联", roleId);
     }
 
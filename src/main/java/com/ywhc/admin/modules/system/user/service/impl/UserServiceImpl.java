@@ -25,6 +25,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import com.ywhc.admin.common.security.service.RSAKeyService;
+import com.ywhc.admin.common.security.service.UserDetailsCache;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -44,14 +45,15 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements
     private final PasswordEncoder passwordEncoder;
     private final UserRoleService userRoleService;
     private final RSAKeyService rsaKeyService;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public IPage<UserVO> pageUsers(UserQueryDTO queryDTO) {
-        Page<SysUser> page = new Page<>(queryDTO.getCurrent(), queryDTO.getSize());
+        Page<SysUser> page = PageConverter.of(queryDTO);
         IPage<SysUser> userPage = this.page(page, QueryProcessor.createQueryWrapper(queryDTO));
 
         // 使用 PageConverter 转换为VO
-        return PageConverter.convert(userPage, this::convertToVO);
+        return PageConverter.convert(userPage, queryDTO, this::convertToVO);
     }
 
     @Override
@@ -129,6 +131,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements
         SysUser user = new SysUser();
         BeanUtils.copyProperties(updateDTO, user);
         this.updateById(user);
+        userDetailsCache.invalidateUser(updateDTO.getId());
 
         // 更新角色
         if (updateDTO.getRoleIds() != null) {
@@ -143,6 +146,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements
             throw new RuntimeException("不能删除超级管理员");
         }
         this.removeById(userId);
+        userDetailsCache.invalidateUser(userId);
     }
 
     @Override
@@ -152,6 +156,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements
             throw new RuntimeException("不能删除超级管理员");
         }
         this.removeByIds(userIds);
+        userDetailsCache.invalidateUsers(userIds);
     }
 
     @Override
@@ -188,6 +193,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements
         user.setId(userId);
         user.setPassword(passwordEncoder.encode(actualNewPassword));
         this.updateById(user);
+        userDetailsCache.invalidateUser(userId);
         
         log.info("用户ID {} 密码重置成功", userId);
     }
@@ -198,6 +204,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements
         user.setId(userId);
         user.setPassword(encodedPassword);
         this.updateById(user);
+        userDetailsCache.invalidateUser(userId);
     }
 
     @Override
@@ -210,6 +217,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, SysUser> implements
         user.setId(userId);
         user.setStatus(status);
         this.updateById(user);
+        userDetailsCache.invalidateUser(userId);
     }
 
     @Override
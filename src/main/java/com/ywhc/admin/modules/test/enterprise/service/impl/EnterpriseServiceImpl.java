@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 测试企业服务实现类
@@ -43,11 +44,12 @@ public class EnterpriseServiceImpl extends ServiceImpl<EnterpriseMapper, Enterpr
     private final EnterpriseMapper enterpriseMapper;
     @Override
     public IPage<EnterpriseVO> pageEnterprises(EnterpriseQueryDTO dto) {
-        Page<Enterprise> page = new Page<>(dto.getCurrent(), dto.getSize());
+        Page<Enterprise> page = PageConverter.of(dto);
         //Page<Enterprise> entityPage = this.page(page, QueryProcessor.createQueryWrapper(dto));
         //Page<EnterpriseVO> pageVO = PageConverter.convert(entityPage, this::convertToVO);
-        IPage<EnterpriseVO> pageVO = enterpriseMapper.pageJoin(page, QueryProcessor.createQueryWrapper(dto));
-        return pageVO;
+        // 联表查询，游标分页的定位字段需加主表别名
+        IPage<EnterpriseVO> pageVO = enterpriseMapper.pageJoin(page, QueryProcessor.createQueryWrapper(dto, "biz_enterprise"));
+        return PageConverter.convert(pageVO, dto, Function.identity());
     }
 
     @Override
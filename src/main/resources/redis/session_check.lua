@@ -0,0 +1,19 @@
+-- 会话校验脚本：一次往返完成黑名单检查和会话读取
+-- KEYS[1] 黑名单Key  token_blacklist:{token}
+-- KEYS[2] 会话Key    online_user:{token}
+-- ARGV[1] 是否检查黑名单：1-检查（本地过滤器命中），0-跳过
+-- ARGV[2..] 需要读取的会话字段名
+-- 返回 {0} 黑名单，{1} 会话不存在，{2, 字段值...} 会话有效，{3, 旧版JSON} 旧版字符串会话
+
+if ARGV[1] == '1' and redis.call('EXISTS', KEYS[1]) == 1 then
+    return {0}
+end
+
+local keyType = redis.call('TYPE', KEYS[2]).ok
+if keyType == 'hash' then
+    return {2, unpack(redis.call('HMGET', KEYS[2], unpack(ARGV, 2)))}
+end
+if keyType == 'string' then
+    return {3, redis.call('GET', KEYS[2])}
+end
+return {1}
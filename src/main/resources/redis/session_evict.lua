@@ -0,0 +1,81 @@
+-- 会话批量驱逐脚本：强制下线或清理过期会话，一次处理一批
+-- 调用方先从来源索引读取一批Token及其索引元数据，据此计算本批涉及的全部Key并通过KEYS传入；
+-- 删除会话、移除用户Token映射和全部索引都在服务端原子完成，调用方循环执行直到读取数量小于批量大小
+-- KEYS[1] 来源索引      logout：online_session:idx:user:{userId} 或 online_session:idx:dept:{deptId}
+--                       expire：online_session:idx:expire
+-- KEYS[2] 活动时间索引  online_session:idx:access
+-- KEYS[3] 索引元数据    online_session:meta
+-- KEYS[4] 分组计数      online_session:stats
+-- KEYS[5] 过期时间索引  online_session:idx:expire
+-- 之后每个Token依次占用6个Key：
+--   会话Key            online_user:{token}
+--   黑名单Key          token_blacklist:{token}
+--   用户Token映射      user_tokens:{userId}
+--   部门索引           online_session:idx:dept:{deptId}
+--   设备索引           online_session:idx:device:{deviceType}
+--   用户索引           online_session:idx:user:{userId}
+--   （元数据缺少对应字段时传入前缀本身，脚本不会访问）
+-- ARGV[1] 模式 logout（拉黑Token后下线）| expire（清理过期时间已到的会话）
+-- ARGV[2] 当前时间戳（毫秒），expire模式使用
+-- ARGV[3] 黑名单值，由调用方按RedisTemplate的值序列化器编码
+-- 之后每个Token依次占用3个参数：Token、读取时的索引元数据（无则为空串）、用户Token映射成员（按值序列化器编码）
+-- 返回 {处理数量, token1, 黑名单剩余毫秒1, token2, ...}，只包含logout模式下实际拉黑的Token
+
+local logout = ARGV[1] == 'logout'
+local now = tonumber(ARGV[2])
+local result = {0}
+
+local function decrement(field)
+    if redis.call('HINCRBY', KEYS[4], field, -1) <= 0 then
+        redis.call('HDEL', KEYS[4], field)
+    end
+end
+
+for i = 0, (#ARGV - 3) / 3 - 1 do
+    local token = ARGV[4 + i * 3]
+    local expectedMeta = ARGV[5 + i * 3]
+    local member = ARGV[6 + i * 3]
+    local k = 6 + i * 6
+    local sessionKey, blacklistKey, userTokenKey = KEYS[k], KEYS[k + 1], KEYS[k + 2]
+    local deptKey, deviceKey, userKey = KEYS[k + 3], KEYS[k + 4], KEYS[k + 5]
+
+    -- 读取后已被移除、过期时间已延长，或元数据已变化（传入的Key可能不对应）时跳过，由下一批重新读取
+    local score = redis.call('ZSCORE', KEYS[1], token)
+    local meta = redis.call('HGET', KEYS[3], token) or ''
+    if score and (logout or tonumber(score) <= now) and meta == expectedMeta then
+        result[1] = result[1] + 1
+
+        -- 以会话剩余有效期作为黑名单有效期
+        if logout then
+            local ttl = redis.call('PTTL', sessionKey)
+            if ttl > 0 then
+                redis.call('SET', blacklistKey, ARGV[3], 'PX', ttl)
+                result[#result + 1] = token
+                result[#result + 1] = ttl
+            end
+        end
+        redis.call('DEL', sessionKey)
+
+        -- 移除索引（与session_index.lua的移除逻辑一致）
+        redis.call('ZREM', KEYS[2], token)
+        redis.call('ZREM', KEYS[5], token)
+        if meta ~= '' then
+            local deptId, deviceType, userId = string.match(meta, '^([^|]*)|([^|]*)|(.*)$')
+            if deptId and deptId ~= '' and redis.call('ZREM', deptKey, token) == 1 then
+                decrement('dept:' .. deptId)
+            end
+            if deviceType and deviceType ~= '' and redis.call('ZREM', deviceKey, token) == 1 then
+                decrement('device:' .. deviceType)
+            end
+            if userId and userId ~= '' then
+                redis.call('ZREM', userKey, token)
+                redis.call('SREM', userTokenKey, member)
+            end
+            redis.call('HDEL', KEYS[3], token)
+        end
+        -- 没有元数据的残留条目也要从来源索引移除，避免循环处理同一批
+        redis.call('ZREM', KEYS[1], token)
+    end
+end
+
+return result
@@ -0,0 +1,88 @@
+-- 在线会话索引维护脚本：加入/移除索引的同时维护统计计数，保证计数与索引一致
+-- 二级索引Key由调用方根据读取到的索引元数据计算后通过KEYS传入，元数据在此期间发生变化时返回-1，由调用方重新读取后重试
+-- KEYS[1] 活动时间索引  online_session:idx:access
+-- KEYS[2] 索引元数据    online_session:meta
+-- KEYS[3] 分组计数      online_session:stats（dept:{deptId}、device:{deviceType}，总数直接取索引ZCARD）
+-- KEYS[4] 今日独立用户  online_session:uv:{yyyyMMdd}
+-- KEYS[5] 过期时间索引  online_session:idx:expire
+-- KEYS[6] 原部门索引    online_session:idx:dept:{deptId}（按读取时的元数据，缺少对应字段时传入前缀本身，脚本不会访问）
+-- KEYS[7] 原设备索引    online_session:idx:device:{deviceType}
+-- KEYS[8] 原用户索引    online_session:idx:user:{userId}
+-- add 时：
+-- KEYS[9]  新部门索引
+-- KEYS[10] 新设备索引
+-- KEYS[11] 新用户索引
+-- ARGV[1] 操作 add | remove
+-- ARGV[2] Token
+-- ARGV[3] 读取时的索引元数据（无则为空串）
+-- add 时：
+-- ARGV[4] 分值（最后活动时间戳，毫秒）
+-- ARGV[5] 部门ID（可为空串）
+-- ARGV[6] 设备类型（可为空串）
+-- ARGV[7] 用户ID（可为空串）
+-- ARGV[8] 独立用户统计保留秒数
+-- ARGV[9] 会话过期时间戳（毫秒，可为空串）
+-- 返回 1 索引发生变化，0 无变化，-1 元数据已变化需重试
+
+local token = ARGV[2]
+
+local meta = redis.call('HGET', KEYS[2], token) or ''
+if meta ~= ARGV[3] then
+    return -1
+end
+
+local function decrement(field)
+    if redis.call('HINCRBY', KEYS[3], field, -1) <= 0 then
+        redis.call('HDEL', KEYS[3], field)
+    end
+end
+
+local function unindex()
+    local removed = redis.call('ZREM', KEYS[1], token)
+    redis.call('ZREM', KEYS[5], token)
+    if meta ~= '' then
+        local deptId, deviceType, userId = string.match(meta, '^([^|]*)|([^|]*)|(.*)$')
+        if deptId and deptId ~= '' and redis.call('ZREM', KEYS[6], token) == 1 then
+            decrement('dept:' .. deptId)
+        end
+        if deviceType and deviceType ~= '' and redis.call('ZREM', KEYS[7], token) == 1 then
+            decrement('device:' .. deviceType)
+        end
+        if userId and userId ~= '' then
+            redis.call('ZREM', KEYS[8], token)
+        end
+        redis.call('HDEL', KEYS[2], token)
+    end
+    return removed
+end
+
+if ARGV[1] == 'remove' then
+    return unindex()
+end
+
+-- 重复登录同一Token时先移除旧条目，部门或设备变化时计数才能正确迁移
+unindex()
+
+local score, deptId, deviceType, userId = ARGV[4], ARGV[5], ARGV[6], ARGV[7]
+redis.call('ZADD', KEYS[1], score, token)
+if ARGV[9] ~= '' then
+    redis.call('ZADD', KEYS[5], ARGV[9], token)
+end
+if deptId ~= '' then
+    redis.call('ZADD', KEYS[9], score, token)
+    redis.call('HINCRBY', KEYS[3], 'dept:' .. deptId, 1)
+end
+if deviceType ~= '' then
+    redis.call('ZADD', KEYS[10], score, token)
+    redis.call('HINCRBY', KEYS[3], 'device:' .. deviceType, 1)
+end
+if userId ~= '' then
+    redis.call('ZADD', KEYS[11], score, token)
+end
+redis.call('HSET', KEYS[2], token, deptId .. '|' .. deviceType .. '|' .. userId)
+
+if userId ~= '' then
+    redis.call('PFADD', KEYS[4], userId)
+    redis.call('EXPIRE', KEYS[4], ARGV[8])
+end
+return 1
@@ -0,0 +1,17 @@
+-- 旧版会话迁移脚本：将JSON字符串会话原地转换为哈希，保留剩余有效期
+-- KEYS[1] 会话Key  online_user:{token}
+-- ARGV[1] 读取到的旧版JSON（比较后再替换，期间被修改或删除则放弃）
+-- ARGV[2..] 字段名、字段值交替排列
+-- 返回 1 已迁移，0 未迁移
+
+if redis.call('TYPE', KEYS[1]).ok ~= 'string' or redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+
+local ttl = redis.call('PTTL', KEYS[1])
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+if ttl > 0 then
+    redis.call('PEXPIRE', KEYS[1], ttl)
+end
+return 1
@@ -0,0 +1,13 @@
+-- 会话读取脚本：兼容哈希存储与旧版JSON字符串存储
+-- KEYS[1] 会话Key  online_user:{token}
+-- ARGV    需要读取的字段名
+-- 返回 {0} 会话不存在，{1, 旧版JSON} 旧版字符串会话，{2, 字段值...} 按ARGV顺序返回的字段值
+
+local keyType = redis.call('TYPE', KEYS[1]).ok
+if keyType == 'hash' then
+    return {2, unpack(redis.call('HMGET', KEYS[1], unpack(ARGV)))}
+end
+if keyType == 'string' then
+    return {1, redis.call('GET', KEYS[1])}
+end
+return {0}
@@ -0,0 +1,55 @@
+-- 会话最后活动时间更新脚本（由写缓冲批量刷新时以管道方式执行）
+-- KEYS[1] 会话Key      online_user:{token}
+-- KEYS[2] 活动时间索引  online_session:idx:access
+-- KEYS[3] 索引元数据    online_session:meta
+-- KEYS[4] 今日独立用户  online_session:uv:{yyyyMMdd}
+-- KEYS[5] 部门索引      online_session:idx:dept:{deptId}（由调用方按读取到的索引元数据计算，缺少对应字段时传入前缀本身，脚本不会访问）
+-- KEYS[6] 设备索引      online_session:idx:device:{deviceType}
+-- KEYS[7] 用户索引      online_session:idx:user:{userId}
+-- ARGV[1] 最后活动时间（yyyy-MM-dd HH:mm:ss）
+-- ARGV[2] 最后活动时间戳（毫秒），作为索引分值
+-- ARGV[3] Token
+-- ARGV[4] 独立用户统计保留秒数
+-- ARGV[5] 读取时的索引元数据（无则为空串）
+-- 返回 1 已更新，0 会话不存在
+
+local keyType = redis.call('TYPE', KEYS[1]).ok
+if keyType == 'hash' then
+    -- 哈希存储只更新单个字段
+    redis.call('HSET', KEYS[1], 'lastAccessTime', ARGV[1])
+elseif keyType == 'string' then
+    -- 旧版JSON会话：直接替换字段值而不是cjson解码再编码，避免大整数ID精度丢失和字段顺序变化
+    local session = redis.call('GET', KEYS[1])
+    local value = '"lastAccessTime":"' .. ARGV[1] .. '"'
+    local touched, count = string.gsub(session, '"lastAccessTime":"[^"]*"', value, 1)
+    if count == 0 then
+        touched, count = string.gsub(session, '"lastAccessTime":null', value, 1)
+    end
+    if count == 0 then
+        return 0
+    end
+    redis.call('SET', KEYS[1], touched, 'KEEPTTL')
+else
+    return 0
+end
+
+-- 同步更新索引分值（XX：只更新已存在的条目）
+redis.call('ZADD', KEYS[2], 'XX', ARGV[2], ARGV[3])
+-- 元数据在读取后发生变化时传入的Key可能不对应，跳过二级索引，由下一次刷新按新元数据更新
+local meta = redis.call('HGET', KEYS[3], ARGV[3])
+if meta and meta == ARGV[5] then
+    local deptId, deviceType, userId = string.match(meta, '^([^|]*)|([^|]*)|(.*)$')
+    if deptId and deptId ~= '' then
+        redis.call('ZADD', KEYS[5], 'XX', ARGV[2], ARGV[3])
+    end
+    if deviceType and deviceType ~= '' then
+        redis.call('ZADD', KEYS[6], 'XX', ARGV[2], ARGV[3])
+    end
+    if userId and userId ~= '' then
+        redis.call('ZADD', KEYS[7], 'XX', ARGV[2], ARGV[3])
+        -- 跨天仍在线的用户也计入当天独立用户
+        redis.call('PFADD', KEYS[4], userId)
+        redis.call('EXPIRE', KEYS[4], ARGV[4])
+    end
+end
+return 1
@@ -0,0 +1,90 @@
+package com.ywhc.admin.common.datascope;
+
+import com.ywhc.admin.modules.system.dept.support.DeptHierarchy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * DataScopePredicateCompiler测试类
+ */
+public class DataScopePredicateCompilerTest {
+
+    private final DataScopePredicateCompiler compiler = new DataScopePredicateCompiler(4);
+
+    @Test
+    public void testAllDataHasNoPredicate() {
+        assertNull(compiler.compile(DataScope.all(), "dept_id", "user_id", 1L));
+    }
+
+    @Test
+    public void testNoColumnHasNoPredicate() {
+        assertNull(compiler.compile(new DataScope().addDept(3L), null, null, 1L));
+    }
+
+    @Test
+    public void testSingleDept() {
+        DataScopePredicate predicate = compiler.compile(new DataScope().addDept(3L), "e.dept_id", null, 1L);
+        assertEquals("e.dept_id = ?", predicate.sql());
+        assertEquals(List.of(3L), predicate.parameters());
+    }
+
+    @Test
+    public void testInListPaddedToPowerOfTwo() {
+        DataScope scope = new DataScope().addDept(1L).addCustomRole(10L, List.of(2L, 3L));
+        DataScopePredicate predicate = compiler.compile(scope, "dept_id", null, 1L);
+        assertEquals("dept_id IN (?, ?, ?, ?)", predicate.sql());
+        assertEquals(List.of(1L, 2L, 3L, 3L), predicate.parameters());
+
+        // 相同长度区间内的部门数生成相同的SQL
+        DataScope other = new DataScope().addCustomRole(11L, List.of(5L, 6L, 7L, 8L));
+        assertEquals(predicate.sql(), compiler.compile(other, "dept_id", null, 1L).sql());
+    }
+
+    @Test
+    public void testLargeCustomScopeJoinsRoleDept() {
+        DataScope scope = new DataScope().addDept(1L).addCustomRole(10L, List.of(2L, 3L, 4L, 5L));
+        DataScopePredicate predicate = compiler.compile(scope, "dept_id", null, 1L);
+        assertEquals("dept_id = ? OR dept_id IN (SELECT rd.dept_id FROM sys_role_dept rd WHERE rd.role_id = ?)",
+            predicate.sql());
+        assertEquals(List.of(1L, 10L), predicate.parameters());
+    }
+
+    @Test
+    public void testSubtreeUsesAncestorsPrefix() {
+        DataScope scope = new DataScope().addSubtree(5L, "0,1,5");
+        DataScopePredicate predicate = compiler.compile(scope, "dept_id", "user_id", 9L);
+        assertEquals("dept_id IN (SELECT sd.id FROM sys_dept sd WHERE sd.deleted = 0 AND "
+            + "(sd.id = ? OR sd.ancestors = ? OR sd.ancestors LIKE ?)) OR user_id = ?", predicate.sql());
+        assertEquals(List.of(5L, "0,1,5", "0,1,5,%", 9L), predicate.parameters());
+    }
+
+    @Test
+    public void testSmallSubtreeExpandedFromHierarchy() {
+        DeptHierarchy hierarchy = DeptHierarchy.build(new long[]{1, 5, 6, 7, 8}, new long[]{0, 1, 5, 5, 1}, 1L);
+        DataScope scope = new DataScope().addSubtree(5L, "0,1,5");
+        DataScopePredicate predicate = compiler.compile(scope, "dept_id", null, 9L, hierarchy);
+        assertEquals("dept_id IN (?, ?, ?, ?)", predicate.sql());
+        assertEquals(List.of(5L, 6L, 7L, 7L), predicate.parameters());
+
+        // 超过阈值时仍按祖级列表前缀匹配
+        DataScopePredicate large = compiler.compile(new DataScope().addSubtree(1L, "0,1"), "dept_id", null, 9L, hierarchy);
+        assertEquals(List.of(1L, "0,1", "0,1,%"), large.parameters());
+    }
+
+    @Test
+    public void testSelfOnly() {
+        DataScopePredicate predicate = compiler.compile(new DataScope(), "dept_id", "user_id", 9L);
+        assertEquals("user_id = ?", predicate.sql());
+        assertEquals(List.of(9L), predicate.parameters());
+    }
+
+    @Test
+    public void testEmptyScopeMatchesNothing() {
+        assertSame(DataScopePredicate.NONE, compiler.compile(new DataScope(), "dept_id", null, 9L));
+    }
+}
@@ -0,0 +1,86 @@
+package com.ywhc.admin.common.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DataPermissionInterceptor测试类
+ */
+public class DataPermissionInterceptorTest {
+
+    private static final String SCOPE = "dept_id = ?";
+
+    @Test
+    public void testNoWhereAddsCondition() {
+        DataPermissionInterceptor.RewritePlan plan = DataPermissionInterceptor.buildPlan("SELECT id FROM sys_user");
+        assertEquals("SELECT id FROM sys_user WHERE (dept_id = ?)", plan.splice(SCOPE));
+        assertEquals(0, plan.parametersBefore());
+    }
+
+    @Test
+    public void testExistingWhereParenthesised() {
+        DataPermissionInterceptor.RewritePlan plan =
+            DataPermissionInterceptor.buildPlan("SELECT id FROM sys_user WHERE status = ? OR username = ?");
+        // 原条件中的OR不能与数据权限条件混在同一层
+        assertEquals("SELECT id FROM sys_user WHERE (status = ? OR username = ?) AND (dept_id = ?)", plan.splice(SCOPE));
+        assertEquals(2, plan.parametersBefore());
+    }
+
+    @Test
+    public void testInsertionPointBeforeOrderAndLimit() {
+        DataPermissionInterceptor.RewritePlan plan =
+            DataPermissionInterceptor.buildPlan("SELECT id FROM sys_user WHERE username LIKE ? ORDER BY id LIMIT ?");
+        String sql = plan.splice(SCOPE);
+        assertEquals("SELECT id FROM sys_user WHERE (username LIKE ?) AND (dept_id = ?) ORDER BY id LIMIT ?", sql);
+        // 数据权限参数插入在LIKE参数之后、LIMIT参数之前
+        assertEquals(1, plan.parametersBefore());
+    }
+
+    @Test
+    public void testSubqueryPlaceholdersCounted() {
+        DataPermissionInterceptor.RewritePlan plan = DataPermissionInterceptor.buildPlan(
+            "SELECT id FROM sys_user WHERE dept_id IN (SELECT id FROM sys_dept WHERE parent_id = ?) AND status = ?");
+        assertTrue(plan.splice(SCOPE).endsWith(" AND status = ?) AND (dept_id = ?)"));
+        assertEquals(2, plan.parametersBefore());
+    }
+
+    @Test
+    public void testQuotedQuestionMarkNotCounted() {
+        DataPermissionInterceptor.RewritePlan plan =
+            DataPermissionInterceptor.buildPlan("SELECT id FROM sys_user WHERE remark = 'why?' AND status = ?");
+        assertEquals(1, plan.parametersBefore());
+    }
+
+    @Test
+    public void testNotRewritable() {
+        assertSame(DataPermissionInterceptor.NOT_REWRITABLE,
+            DataPermissionInterceptor.buildPlan("SELECT id FROM sys_user UNION SELECT id FROM sys_dept"));
+        assertSame(DataPermissionInterceptor.NOT_REWRITABLE,
+            DataPermissionInterceptor.buildPlan("UPDATE sys_user SET status = ? WHERE id = ?"));
+        assertSame(DataPermissionInterceptor.NOT_REWRITABLE,
+            DataPermissionInterceptor.buildPlan("SELECT __ywhc_data_scope__ FROM sys_user"));
+        assertSame(DataPermissionInterceptor.NOT_REWRITABLE,
+            DataPermissionInterceptor.buildPlan("SELECT FROM WHERE"));
+    }
+
+    @Test
+    public void testCountPlaceholders() {
+        assertEquals(0, DataPermissionInterceptor.countPlaceholders("SELECT 1"));
+        assertEquals(2, DataPermissionInterceptor.countPlaceholders("a = ? AND b = ?"));
+        assertEquals(1, DataPermissionInterceptor.countPlaceholders("a = 'x?y' AND b = ?"));
+        assertEquals(2, DataPermissionInterceptor.countPlaceholders("`we?rd` = ? AND \"q?\" = ?"));
+    }
+
+    @Test
+    public void testCountPlaceholdersEscapes() {
+        // 反斜杠转义的引号不结束字符串
+        assertEquals(1, DataPermissionInterceptor.countPlaceholders("a = 'it\\'s?' AND b = ?"));
+        // 连续两个单引号表示字符串内的单引号
+        assertEquals(1, DataPermissionInterceptor.countPlaceholders("a = 'it''s?' AND b = ?"));
+        // 不同类型的引号互不结束
+        assertEquals(1, DataPermissionInterceptor.countPlaceholders("a = '\"?' AND b = ?"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.ywhc.admin.common.ip;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * IpRegionDatabase测试类
+ */
+public class IpRegionDatabaseTest {
+
+    private static final String CSV = String.join("\n",
+        "start_ip,end_ip,region",
+        "# 注释行",
+        "1.0.0.0,1.0.0.255,澳大利亚",
+        "1.0.1.0,1.0.3.255,中国|福建省|福州市",
+        "1.0.4.0,1.0.7.255,中国|福建省|福州市",
+        "8.8.8.0,8.8.8.255,美国|谷歌",
+        "255.255.255.0,255.255.255.255,保留地址",
+        "2001:db8::,2001:db8::ffff,测试网络",
+        "2400:3200::,2400:3200:ffff:ffff:ffff:ffff:ffff:ffff,中国|浙江省|杭州市");
+
+    private static IpRegionDatabase build(String csv) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IpRegionDatabaseBuilder.build(new StringReader(csv), out);
+        return IpRegionDatabase.wrap(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void testSearchIpv4() throws Exception {
+        IpRegionDatabase database = build(CSV);
+
+        assertEquals("澳大利亚", database.search("1.0.0.0"));
+        assertEquals("澳大利亚", database.search("1.0.0.255"));
+        assertEquals("中国|福建省|福州市", database.search("1.0.1.0"));
+        assertEquals("中国|福建省|福州市", database.search("1.0.7.255"));
+        assertEquals("美国|谷歌", database.search("8.8.8.8"));
+        assertEquals("保留地址", database.search("255.255.255.255"));
+
+        // 区间之间的空隙没有数据
+        assertNull(database.search("0.255.255.255"));
+        assertNull(database.search("1.0.8.0"));
+        assertNull(database.search("8.8.9.0"));
+
+        // 地区字符串只保存一份，相邻同地区区间合并
+        assertEquals(6, database.getRegionCount());
+        assertEquals(7, database.getV4Count());
+    }
+
+    @Test
+    public void testSearchIpv6() throws Exception {
+        IpRegionDatabase database = build(CSV);
+
+        assertEquals("测试网络", database.search("2001:db8::1"));
+        assertEquals("测试网络", database.search("2001:0DB8:0000:0000:0000:0000:0000:ffff"));
+        assertNull(database.search("2001:db8::1:0"));
+        assertEquals("中国|浙江省|杭州市", database.search("2400:3200:1:2:3:4:5:6"));
+        assertEquals("中国|浙江省|杭州市", database.search("2400:3200::%eth0"));
+        assertNull(database.search("::1"));
+
+        // IPv4映射地址按IPv4查询
+        assertEquals("美国|谷歌", database.search("::ffff:8.8.8.8"));
+    }
+
+    @Test
+    public void testInvalidAddress() throws Exception {
+        IpRegionDatabase database = build(CSV);
+
+        assertNull(database.search(null));
+        assertNull(database.search(""));
+        assertNull(database.search("1.2.3"));
+        assertNull(database.search("1.2.3.256"));
+        assertNull(database.search("1.2.3.4.5"));
+        assertNull(database.search("2001:db8:::1"));
+        assertNull(database.search("1:2:3:4:5:6:7:8:9"));
+        assertNull(database.search("2001:db8::g"));
+    }
+
+    @Test
+    public void testParseIpv6() {
+        String ip = "1:2:3:4:5:6:7:8";
+        assertEquals(0x0001000200030004L, IpRegionDatabase.parseIpv6(ip, ip.length(), true));
+        assertEquals(0x0005000600070008L, IpRegionDatabase.parseIpv6(ip, ip.length(), false));
+
+        ip = "1::8";
+        assertEquals(0x0001000000000000L, IpRegionDatabase.parseIpv6(ip, ip.length(), true));
+        assertEquals(0x0000000000000008L, IpRegionDatabase.parseIpv6(ip, ip.length(), false));
+
+        ip = "::";
+        assertEquals(0L, IpRegionDatabase.parseIpv6(ip, ip.length(), true));
+        assertEquals(0L, IpRegionDatabase.parseIpv6(ip, ip.length(), false));
+    }
+
+    @Test
+    public void testOverlappingRanges() {
+        String csv = "1.0.0.0,1.0.0.255,A\n1.0.0.128,1.0.1.255,B";
+        assertThrows(IllegalArgumentException.class, () -> build(csv));
+    }
+
+    @Test
+    public void testOpenMappedFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("ip-region.db");
+        IpRegionDatabaseBuilder.build(new StringReader(CSV), file);
+
+        IpRegionDatabase database = IpRegionDatabase.open(file);
+        assertNull(database.search("8.8.4.4"));
+        assertEquals("美国|谷歌", database.search("8.8.8.8"));
+        assertEquals("中国|福建省|福州市", database.search("1.0.2.3"));
+
+        // 重新生成后原子替换，已打开的映射不受影响
+        IpRegionDatabaseBuilder.build(new StringReader("1.0.0.0,1.255.255.255,新数据"), file);
+        assertEquals("中国|福建省|福州市", database.search("1.0.2.3"));
+        assertEquals("新数据", IpRegionDatabase.open(file).search("1.0.2.3"));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
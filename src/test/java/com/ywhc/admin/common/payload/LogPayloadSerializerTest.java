@@ -0,0 +1,100 @@
+package com.ywhc.admin.common.payload;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LogPayloadSerializer测试类
+ */
+public class LogPayloadSerializerTest {
+
+    private final LogPayloadSerializer serializer = new LogPayloadSerializer(new ObjectMapper());
+
+    @Test
+    public void testBoundedWriterStopsAtLimit() throws Exception {
+        BoundedWriter writer = new BoundedWriter(5);
+        writer.write("abc");
+        assertFalse(writer.isTruncated());
+        assertThrows(BoundedWriter.LimitExceededException.class, () -> writer.write("defg"));
+        assertTrue(writer.isTruncated());
+        assertEquals("abcde...", writer.toString());
+        // 截断后继续写入直接中止
+        assertThrows(BoundedWriter.LimitExceededException.class, () -> writer.write('x'));
+    }
+
+    @Test
+    public void testBoundedWriterExactLimit() throws Exception {
+        BoundedWriter writer = new BoundedWriter(3);
+        writer.write("abc");
+        assertFalse(writer.isTruncated());
+        assertEquals("abc", writer.toString());
+    }
+
+    @Test
+    public void testSerializeSmallValue() {
+        assertEquals("{\"a\":1}", serializer.serialize(Map.of("a", 1), 100));
+    }
+
+    @Test
+    public void testSerializeTruncatesLargeValue() {
+        List<String> rows = new ArrayList<>(Collections.nCopies(100_000, "row-content"));
+        String result = serializer.serialize(rows, 2000);
+        assertEquals(2003, result.length());
+        assertTrue(result.startsWith("[\"row-content\",\"row-content\""));
+        assertTrue(result.endsWith("..."));
+    }
+
+    @Test
+    public void testPageSummarizedAsCounts() {
+        Page<String> page = new Page<>(2, 10, 1234);
+        page.setRecords(new ArrayList<>(Collections.nCopies(10, "record")));
+        assertEquals("{\"data\":{\"current\":2,\"size\":10,\"total\":1234,\"records\":10}}",
+            serializer.serialize(Map.of("data", page), 2000));
+    }
+
+    @Test
+    public void testMultipartFileAndBytesSummarized() {
+        MockMultipartFile file = new MockMultipartFile("file", "avatar.png", "image/png", new byte[4096]);
+        String params = serializer.serializeArguments(null, new String[]{"file", "data"},
+            new Object[]{file, new byte[1024]}, 1000);
+        assertEquals("Args: file={\"name\":\"file\",\"originalFilename\":\"avatar.png\",\"contentType\":\"image/png\",\"size\":4096}; "
+            + "data=\"byte[1024]\"; ", params);
+    }
+
+    @Test
+    public void testSerializeArgumentsWithQueryAndLimit() {
+        String params = serializer.serializeArguments("page=1&size=10", new String[]{"id", "name", "empty"},
+            new Object[]{1L, "张三", null}, 1000);
+        assertEquals("Query: page=1&size=10; Args: id=1; name=\"张三\"; ", params);
+
+        String truncated = serializer.serializeArguments("q=" + "x".repeat(5000), null, new Object[]{1}, 20);
+        assertEquals("Query: q=xxxxxxxxxxx...", truncated);
+    }
+
+    @Test
+    public void testUnserializableArgumentRecordsType() {
+        String params = serializer.serializeArguments(null, new String[]{"self"}, new Object[]{new SelfReference()}, 1000);
+        assertTrue(params.endsWith("<SelfReference>; "), params);
+    }
+
+    /**
+     * 自引用对象，Jackson序列化时报错
+     */
+    public static class SelfReference {
+        public SelfReference getSelf() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ywhc.admin.common.redis;
+
+import com.ywhc.admin.modules.captcha.entity.SlideCaptcha;
+import com.ywhc.admin.modules.captcha.support.SlideCaptchaCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CompactRedisSerializer测试类
+ */
+public class CompactRedisSerializerTest {
+
+    /**
+     * 模拟JSON序列化器：只处理字符串
+     */
+    private static final RedisSerializer<Object> FALLBACK = new RedisSerializer<>() {
+        @Override
+        public byte[] serialize(Object value) {
+            return value == null ? new byte[0] : ("\"" + value + "\"").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) {
+            if (bytes == null || bytes.length == 0) {
+                return null;
+            }
+            String json = new String(bytes, StandardCharsets.UTF_8);
+            return json.substring(1, json.length() - 1);
+        }
+    };
+
+    @Test
+    public void testRoundTrip() {
+        CompactRedisSerializer serializer = newSerializer(true, 1024);
+        SlideCaptcha captcha = newCaptcha();
+
+        byte[] bytes = serializer.serialize(captcha);
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(SlideCaptchaCodec.TYPE_ID, bytes[2]);
+
+        SlideCaptcha copy = (SlideCaptcha) serializer.deserialize(bytes);
+        assertEquals(captcha, copy);
+    }
+
+    @Test
+    public void testNullFields() {
+        CompactRedisSerializer serializer = newSerializer(true, 1024);
+        SlideCaptcha captcha = new SlideCaptcha();
+        captcha.setPuzzleX(-5);
+        SlideCaptcha copy = (SlideCaptcha) serializer.deserialize(serializer.serialize(captcha));
+        assertEquals(captcha, copy);
+        assertNull(copy.getVerified());
+        assertNull(copy.getCreateTime());
+    }
+
+    @Test
+    public void testCompression() {
+        CompactRedisSerializer serializer = newSerializer(true, 256);
+        SlideCaptcha captcha = newCaptcha();
+        captcha.setBackgroundImage("iVBORw0KGgo".repeat(500));
+
+        byte[] bytes = serializer.serialize(captcha);
+        // 压缩标志位已设置，且体积明显小于原始图片数据
+        assertEquals(1, bytes[1]);
+        assertTrue(bytes.length < 1000, "压缩后大小: " + bytes.length);
+        assertEquals(captcha, serializer.deserialize(bytes));
+    }
+
+    @Test
+    public void testFallback() {
+        CompactRedisSerializer serializer = newSerializer(true, 1024);
+        // 未注册类型与旧版JSON数据都交给JSON序列化器
+        assertEquals("blacklisted", new String(serializer.serialize("blacklisted"), StandardCharsets.UTF_8)
+            .replace("\"", ""));
+        assertEquals("legacy", serializer.deserialize("\"legacy\"".getBytes(StandardCharsets.UTF_8)));
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    public void testWriteDisabled() {
+        CompactRedisSerializer reader = newSerializer(true, 1024);
+        CompactRedisSerializer writer = newSerializer(false, 1024);
+        SlideCaptcha captcha = newCaptcha();
+
+        // 关闭写入时使用JSON格式，但仍能读取其他节点写入的二进制数据
+        assertTrue(writer.serialize(captcha)[0] != CompactRedisSerializer.MAGIC);
+        assertEquals(captcha, writer.deserialize(reader.serialize(captcha)));
+    }
+
+    @Test
+    public void testInvalidData() {
+        CompactRedisSerializer serializer = newSerializer(true, 1024);
+        byte[] bytes = serializer.serialize(newCaptcha());
+
+        byte[] unknownType = bytes.clone();
+        unknownType[2] = 99;
+        assertThrows(SerializationException.class, () -> serializer.deserialize(unknownType));
+
+        byte[] newerVersion = bytes.clone();
+        newerVersion[3] = 2;
+        assertThrows(SerializationException.class, () -> serializer.deserialize(newerVersion));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new CompactRedisSerializer(FALLBACK, List.of(new SlideCaptchaCodec(), new SlideCaptchaCodec()),
+                true, 0));
+    }
+
+    private CompactRedisSerializer newSerializer(boolean writeEnabled, int compressThreshold) {
+        return new CompactRedisSerializer(FALLBACK, List.of(new SlideCaptchaCodec()), writeEnabled, compressThreshold);
+    }
+
+    private SlideCaptcha newCaptcha() {
+        SlideCaptcha captcha = new SlideCaptcha();
+        captcha.setCaptchaId("c8f1a2b3d4e5");
+        captcha.setPuzzleX(187);
+        captcha.setPuzzleY(42);
+        captcha.setPuzzleWidth(60);
+        captcha.setPuzzleHeight(60);
+        captcha.setCreateTime(LocalDateTime.of(2024, 1, 1, 12, 30, 15, 123456789));
+        captcha.setExpireTime(LocalDateTime.of(2024, 1, 1, 12, 35, 15));
+        captcha.setVerified(false);
+        captcha.setToken("验证令牌");
+        return captcha;
+    }
+}
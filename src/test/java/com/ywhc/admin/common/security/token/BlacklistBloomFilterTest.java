@@ -0,0 +1,96 @@
+package com.ywhc.admin.common.security.token;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BlacklistBloomFilter测试类
+ */
+public class BlacklistBloomFilterTest {
+
+    private static final long HOUR = 3600_000L;
+
+    @Test
+    public void testAddAndMightContain() {
+        BlacklistBloomFilter filter = new BlacklistBloomFilter(HOUR, 24 * HOUR, 1000, 0.001);
+        long now = 100 * HOUR;
+
+        for (int i = 0; i < 500; i++) {
+            filter.add(TokenDigest.sha256Bytes("token-" + i), now + (i % 24) * HOUR + 1, now);
+        }
+
+        // 已加入的条目不会漏判
+        for (int i = 0; i < 500; i++) {
+            assertTrue(filter.mightContain(TokenDigest.sha256Bytes("token-" + i), now));
+        }
+
+        // 未加入的条目误判率应接近配置值
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(TokenDigest.sha256Bytes("other-" + i), now)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50, "误判次数过多: " + falsePositives);
+    }
+
+    @Test
+    public void testBucketExpiry() {
+        BlacklistBloomFilter filter = new BlacklistBloomFilter(HOUR, 24 * HOUR, 1000, 0.001);
+        long now = 100 * HOUR;
+        byte[] digest = TokenDigest.sha256Bytes("expiring-token");
+
+        filter.add(digest, now + 30 * 60_000L, now);
+        assertTrue(filter.mightContain(digest, now));
+
+        // 过期时间所在窗口结束后整个桶失效
+        assertFalse(filter.mightContain(digest, now + HOUR));
+        assertEquals(1, filter.purgeExpired(now + HOUR));
+        assertEquals(0, filter.purgeExpired(now + HOUR));
+    }
+
+    @Test
+    public void testSlotReuse() {
+        BlacklistBloomFilter filter = new BlacklistBloomFilter(HOUR, 2 * HOUR, 1000, 0.001);
+        long now = 100 * HOUR;
+        byte[] first = TokenDigest.sha256Bytes("first-token");
+        byte[] second = TokenDigest.sha256Bytes("second-token");
+
+        filter.add(first, now + 1, now);
+
+        // 环绕后复用同一槽位，旧窗口的数据被整体丢弃
+        long later = now + filter.getBucketCount() * HOUR;
+        filter.add(second, later + 1, later);
+        assertTrue(filter.mightContain(second, later));
+        assertFalse(filter.mightContain(first, later));
+    }
+
+    @Test
+    public void testOverflow() {
+        BlacklistBloomFilter filter = new BlacklistBloomFilter(HOUR, 2 * HOUR, 1000, 0.001);
+        long now = 100 * HOUR;
+        byte[] digest = TokenDigest.sha256Bytes("long-lived-token");
+
+        // 超出环覆盖范围的条目仍能被查询到
+        filter.add(digest, now + 10 * HOUR, now);
+        assertTrue(filter.mightContain(digest, now));
+        filter.purgeExpired(now + 11 * HOUR);
+        assertFalse(filter.mightContain(digest, now + 11 * HOUR));
+    }
+
+    @Test
+    public void testDayBuckets() {
+        long day = 24 * HOUR;
+        BlacklistBloomFilter filter = new BlacklistBloomFilter(day, 7 * day, 24000, 0.001);
+        // 7天有效期只需检查8个桶
+        assertEquals(8, filter.getBucketCount());
+
+        long now = 100 * day;
+        byte[] digest = TokenDigest.sha256Bytes("weekly-token");
+        filter.add(digest, now + 7 * day - 1, now);
+        assertTrue(filter.mightContain(TokenDigest.sha256Bytes("weekly-token"), now));
+        assertFalse(filter.mightContain(digest, now + 7 * day));
+    }
+}
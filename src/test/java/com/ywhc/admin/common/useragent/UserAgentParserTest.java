@@ -0,0 +1,82 @@
+package com.ywhc.admin.common.useragent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * UserAgentParser测试类
+ */
+public class UserAgentParserTest {
+
+    private static final String CHROME_WINDOWS = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+        + "(KHTML, like Gecko) Chrome/120.0.6099.130 Safari/537.36";
+    private static final String EDGE_WINDOWS = CHROME_WINDOWS + " Edg/120.0.2210.91";
+    private static final String OPERA_WINDOWS = CHROME_WINDOWS + " OPR/105.0.0.0";
+    private static final String FIREFOX_LINUX = "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:121.0) "
+        + "Gecko/20100101 Firefox/121.0";
+    private static final String SAFARI_IPHONE = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_2 like Mac OS X) "
+        + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Mobile/15E148 Safari/604.1";
+    private static final String SAFARI_MAC = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) "
+        + "AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.2 Safari/605.1.15";
+    private static final String CHROME_ANDROID = "Mozilla/5.0 (Linux; Android 14; Pixel 8) AppleWebKit/537.36 "
+        + "(KHTML, like Gecko) Chrome/120.0.6099.144 Mobile Safari/537.36";
+    private static final String IE11 = "Mozilla/5.0 (Windows NT 6.1; Trident/7.0; rv:11.0) like Gecko";
+
+    @Test
+    public void testBrowser() {
+        assertInfo(CHROME_WINDOWS, "Google Chrome", "120.0.6099.130", "Windows 10", UserAgentInfo.DEVICE_PC);
+        assertInfo(EDGE_WINDOWS, "Microsoft Edge", "120.0.2210.91", "Windows 10", UserAgentInfo.DEVICE_PC);
+        assertInfo(OPERA_WINDOWS, "Opera", "105.0.0.0", "Windows 10", UserAgentInfo.DEVICE_PC);
+        assertInfo(FIREFOX_LINUX, "Mozilla Firefox", "121.0", "Linux", UserAgentInfo.DEVICE_PC);
+        assertInfo(SAFARI_MAC, "Safari", "17.2", "macOS", UserAgentInfo.DEVICE_PC);
+        assertInfo(IE11, "Internet Explorer", "11.0", "Windows 7", UserAgentInfo.DEVICE_PC);
+    }
+
+    @Test
+    public void testMobile() {
+        // iOS的User-Agent包含Mac OS X，Android包含Linux，需识别为移动系统
+        assertInfo(SAFARI_IPHONE, "Safari", "17.2", "iOS", UserAgentInfo.DEVICE_MOBILE);
+        assertInfo(CHROME_ANDROID, "Google Chrome", "120.0.6099.144", "Android", UserAgentInfo.DEVICE_MOBILE);
+    }
+
+    @Test
+    public void testUnknown() {
+        UserAgentParser parser = new UserAgentParser(16);
+        assertSame(UserAgentInfo.UNKNOWN_INFO, parser.parse(null));
+        assertSame(UserAgentInfo.UNKNOWN_INFO, parser.parse(" "));
+
+        UserAgentInfo info = parser.parse("curl/8.4.0");
+        assertEquals(UserAgentInfo.UNKNOWN, info.getBrowser());
+        assertNull(info.getBrowserVersion());
+        assertEquals(UserAgentInfo.UNKNOWN, info.getOs());
+        assertEquals(UserAgentInfo.DEVICE_PC, info.getDeviceType());
+    }
+
+    @Test
+    public void testCache() {
+        UserAgentParser parser = new UserAgentParser(2);
+        UserAgentInfo first = parser.parse(CHROME_WINDOWS);
+        // 相同User-Agent直接返回缓存结果
+        assertSame(first, parser.parse(new String(CHROME_WINDOWS)));
+
+        parser.parse(FIREFOX_LINUX);
+        parser.parse(SAFARI_MAC);
+        assertEquals(2, parser.cacheSize());
+
+        // 超长User-Agent不进入缓存
+        parser = new UserAgentParser(2);
+        parser.parse(CHROME_WINDOWS + " ".repeat(600));
+        assertEquals(0, parser.cacheSize());
+    }
+
+    private void assertInfo(String userAgent, String browser, String version, String os, int deviceType) {
+        UserAgentInfo info = UserAgentParser.classify(userAgent);
+        assertEquals(browser, info.getBrowser(), userAgent);
+        assertEquals(version, info.getBrowserVersion(), userAgent);
+        assertEquals(os, info.getOs(), userAgent);
+        assertEquals(deviceType, info.getDeviceType(), userAgent);
+    }
+}
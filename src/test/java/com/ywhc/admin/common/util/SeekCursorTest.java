@@ -0,0 +1,103 @@
+package com.ywhc.admin.common.util;
+
+import com.ywhc.admin.common.dto.BaseQueryDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SeekCursor测试类
+ */
+public class SeekCursorTest {
+
+    @Test
+    public void testTokenRoundTrip() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 0, 0);
+        assertPosition(time, 42L, SeekCursor.decode(SeekCursor.encode("create_time", false, time, 42L), "create_time", false));
+        assertPosition(7L, 1L, SeekCursor.decode(SeekCursor.encode("sort_order", true, 7, 1L), "sort_order", true));
+        assertPosition(new BigDecimal("12.50"), 3L,
+            SeekCursor.decode(SeekCursor.encode("amount", true, new BigDecimal("12.50"), 3L), "amount", true));
+        assertPosition(LocalDate.of(2024, 1, 31), 5L,
+            SeekCursor.decode(SeekCursor.encode("birthday", true, LocalDate.of(2024, 1, 31), 5L), "birthday", true));
+        assertPosition("张三", 9L, SeekCursor.decode(SeekCursor.encode("username", true, "张三", 9L), "username", true));
+        assertPosition(null, 11L, SeekCursor.decode(SeekCursor.encode("remark", false, null, 11L), "remark", false));
+    }
+
+    @Test
+    public void testTokenIsUrlSafe() {
+        String token = SeekCursor.encode("username", true, "a+b/c?d=e&f", Long.MAX_VALUE);
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    public void testTokenMustMatchCurrentSort() {
+        String token = SeekCursor.encode("create_time", false, LocalDateTime.now(), 1L);
+        assertThrows(RuntimeException.class, () -> SeekCursor.decode(token, "create_time", true));
+        assertThrows(RuntimeException.class, () -> SeekCursor.decode(token, "update_time", false));
+        assertThrows(RuntimeException.class, () -> SeekCursor.decode("not-a-token", "create_time", false));
+    }
+
+    @Test
+    public void testOfRejectsInvalidColumn() {
+        BaseQueryDTO query = new BaseQueryDTO();
+        query.setCursorMode(true);
+        query.setOrderBy("id;drop table sys_user");
+        assertThrows(RuntimeException.class, () -> SeekCursor.of(query));
+    }
+
+    @Test
+    public void testCursorPagingFlag() {
+        BaseQueryDTO query = new BaseQueryDTO();
+        assertFalse(query.isCursorPaging());
+        query.setCursor(" ");
+        assertFalse(query.isCursorPaging());
+        query.setCursorMode(true);
+        assertTrue(query.isCursorPaging());
+    }
+
+    @Test
+    public void testNextReadsLastRow() {
+        BaseQueryDTO query = new BaseQueryDTO();
+        query.setCursorMode(true);
+        query.setOrderBy("createTime");
+        query.setOrderDirection("asc");
+        Row row = new Row();
+        row.id = 100L;
+        row.createTime = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+        // 下一页使用该令牌时解析出最后一行的位置
+        query.setCursor(SeekCursor.of(query).next(row));
+        SeekCursor.Position position = SeekCursor.decode(query.getCursor(), "create_time", true);
+        assertPosition(row.createTime, 100L, position);
+
+        // 按id排序时令牌中不含排序值
+        query.setOrderBy("id");
+        query.setCursor(null);
+        assertPosition(null, 100L, SeekCursor.decode(SeekCursor.of(query).next(row), "id", true));
+    }
+
+    private static void assertPosition(Object value, long id, SeekCursor.Position position) {
+        if (value == null) {
+            assertNull(position.value);
+        } else {
+            assertEquals(value, position.value);
+        }
+        assertEquals(id, position.id.longValue());
+    }
+
+    /**
+     * 分页行
+     */
+    static class Row {
+        Long id;
+        LocalDateTime createTime;
+    }
+}
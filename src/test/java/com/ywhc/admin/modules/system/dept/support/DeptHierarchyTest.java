@@ -0,0 +1,83 @@
+package com.ywhc.admin.modules.system.dept.support;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DeptHierarchy测试类
+ */
+public class DeptHierarchyTest {
+
+    /**
+     * 1
+     * ├── 2
+     * │   ├── 4
+     * │   └── 5
+     * │       └── 7
+     * └── 3
+     * 6（父部门9不存在，作为根部门）
+     */
+    private final DeptHierarchy hierarchy = DeptHierarchy.build(
+        new long[]{5, 1, 2, 3, 4, 6, 7},
+        new long[]{2, 0, 1, 1, 2, 9, 5},
+        3L);
+
+    @Test
+    public void testDescendants() {
+        assertArrayEquals(new long[]{1, 2, 5, 7, 4, 3}, hierarchy.descendants(1));
+        assertArrayEquals(new long[]{2, 5, 7, 4}, hierarchy.descendants(2));
+        assertArrayEquals(new long[]{3}, hierarchy.descendants(3));
+        assertArrayEquals(new long[]{6}, hierarchy.descendants(6));
+        assertArrayEquals(new long[0], hierarchy.descendants(99));
+        assertEquals(4, hierarchy.subtreeSize(2));
+        assertEquals(0, hierarchy.subtreeSize(99));
+    }
+
+    @Test
+    public void testAncestors() {
+        assertArrayEquals(new long[]{1, 2, 5}, hierarchy.ancestors(7));
+        assertArrayEquals(new long[0], hierarchy.ancestors(1));
+        assertArrayEquals(new long[0], hierarchy.ancestors(6));
+        assertEquals(3, hierarchy.depth(7));
+        assertEquals(-1, hierarchy.depth(99));
+    }
+
+    @Test
+    public void testIsDescendantOf() {
+        assertTrue(hierarchy.isDescendantOf(7, 1));
+        assertTrue(hierarchy.isDescendantOf(7, 2));
+        assertFalse(hierarchy.isDescendantOf(3, 2));
+        assertFalse(hierarchy.isDescendantOf(2, 2));
+        assertFalse(hierarchy.isDescendantOf(2, 7));
+        assertFalse(hierarchy.isDescendantOf(6, 1));
+    }
+
+    @Test
+    public void testCycleExcluded() {
+        DeptHierarchy cyclic = DeptHierarchy.build(new long[]{1, 2, 3, 4}, new long[]{0, 3, 2, 1}, 1L);
+        assertEquals(2, cyclic.size());
+        assertEquals(2, cyclic.unreachable());
+        assertFalse(cyclic.contains(2));
+        assertArrayEquals(new long[]{1, 4}, cyclic.descendants(1));
+    }
+
+    @Test
+    public void testDeepChain() {
+        int n = 100_000;
+        long[] ids = new long[n];
+        long[] parentIds = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i + 1;
+            parentIds[i] = i;
+        }
+        DeptHierarchy chain = DeptHierarchy.build(ids, parentIds, 1L);
+        assertEquals(n, chain.subtreeSize(1));
+        assertEquals(n - 1, chain.ancestors(n).length);
+        assertTrue(chain.isDescendantOf(n, 1));
+        assertEquals(0, DeptHierarchy.EMPTY.size());
+    }
+}
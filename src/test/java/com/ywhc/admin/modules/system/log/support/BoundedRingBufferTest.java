@@ -0,0 +1,157 @@
+package com.ywhc.admin.modules.system.log.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BoundedRingBuffer测试类
+ */
+public class BoundedRingBufferTest {
+
+    @Test
+    public void testCapacityRoundedUpToPowerOfTwo() {
+        assertEquals(2, new BoundedRingBuffer<Integer>(2).capacity());
+        assertEquals(8, new BoundedRingBuffer<Integer>(5).capacity());
+        assertEquals(1024, new BoundedRingBuffer<Integer>(1024).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new BoundedRingBuffer<Integer>(1));
+    }
+
+    @Test
+    public void testFifoAndFull() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        // 已满时入队失败
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testWrapAroundManyTimes() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(4);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(buffer.offer(i));
+            assertTrue(buffer.offer(-i));
+            assertEquals(i, buffer.poll());
+            assertEquals(-i, buffer.poll());
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testDrainTo() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(16);
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(i);
+        }
+        List<Integer> batch = new ArrayList<>();
+        assertEquals(4, buffer.drainTo(batch, 4));
+        assertEquals(List.of(0, 1, 2, 3), batch);
+        assertEquals(6, buffer.drainTo(batch, 100));
+        assertEquals(10, batch.size());
+        assertEquals(0, buffer.drainTo(batch, 100));
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumer() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // 同一生产者的元素保持先后顺序，且全部元素不重不漏
+        Set<Integer> seen = new HashSet<>();
+        int[] lastByProducer = new int[producers];
+        Arrays.fill(lastByProducer, -1);
+        start.countDown();
+        while (seen.size() < producers * perProducer) {
+            Integer value = buffer.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            assertTrue(seen.add(value));
+            int producer = value / perProducer;
+            assertTrue(value % perProducer > lastByProducer[producer]);
+            lastByProducer[producer] = value % perProducer;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testConcurrentDropOldest() throws Exception {
+        // 生产者满时自行出队最旧元素（与写线程同时出队），出队总数加剩余数应等于入队总数
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(8);
+        int producers = 4;
+        int perProducer = 20_000;
+        AtomicInteger polled = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers + 1; p++) {
+            boolean consumer = p == producers;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (consumer) {
+                        if (buffer.poll() != null) {
+                            polled.incrementAndGet();
+                        }
+                        continue;
+                    }
+                    while (!buffer.offer(i)) {
+                        if (buffer.poll() != null) {
+                            polled.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(producers * perProducer, polled.get() + buffer.size());
+    }
+}
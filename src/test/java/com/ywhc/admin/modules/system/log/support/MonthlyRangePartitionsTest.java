@@ -0,0 +1,70 @@
+package com.ywhc.admin.modules.system.log.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MonthlyRangePartitions测试类
+ */
+public class MonthlyRangePartitionsTest {
+
+    @Test
+    public void testPartitionName() {
+        assertEquals("p202401", MonthlyRangePartitions.partitionName(YearMonth.of(2024, 1)));
+        assertEquals(YearMonth.of(2024, 12), MonthlyRangePartitions.parseMonth("p202412"));
+        assertNull(MonthlyRangePartitions.parseMonth(MonthlyRangePartitions.MAX_PARTITION));
+        assertNull(MonthlyRangePartitions.parseMonth("p202413"));
+        assertNull(MonthlyRangePartitions.parseMonth("x202401"));
+        assertNull(MonthlyRangePartitions.parseMonth(null));
+    }
+
+    @Test
+    public void testMissingMonthsWithoutPartitions() {
+        List<YearMonth> months = MonthlyRangePartitions.missingMonths(List.of(),
+            YearMonth.of(2024, 11), YearMonth.of(2025, 2));
+        assertEquals(List.of(YearMonth.of(2024, 11), YearMonth.of(2024, 12), YearMonth.of(2025, 1),
+            YearMonth.of(2025, 2)), months);
+    }
+
+    @Test
+    public void testMissingMonthsAppendsAfterLatest() {
+        List<YearMonth> existing = List.of(YearMonth.of(2024, 3), YearMonth.of(2024, 1), YearMonth.of(2024, 2));
+        // 已覆盖到目标月份时无需新建
+        assertTrue(MonthlyRangePartitions.missingMonths(existing, YearMonth.of(2024, 2), YearMonth.of(2024, 3)).isEmpty());
+        // 定时任务长期未执行时补齐中间月份
+        assertEquals(List.of(YearMonth.of(2024, 4), YearMonth.of(2024, 5), YearMonth.of(2024, 6)),
+            MonthlyRangePartitions.missingMonths(existing, YearMonth.of(2024, 6), YearMonth.of(2024, 6)));
+    }
+
+    @Test
+    public void testExpiredMonths() {
+        List<YearMonth> existing = List.of(YearMonth.of(2024, 3), YearMonth.of(2024, 1), YearMonth.of(2024, 2),
+            YearMonth.of(2024, 4));
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2)),
+            MonthlyRangePartitions.expiredMonths(existing, YearMonth.of(2024, 3)));
+        assertTrue(MonthlyRangePartitions.expiredMonths(existing, YearMonth.of(2024, 1)).isEmpty());
+    }
+
+    @Test
+    public void testDdl() {
+        List<YearMonth> months = List.of(YearMonth.of(2024, 12), YearMonth.of(2025, 1));
+        assertEquals("ALTER TABLE sys_log PARTITION BY RANGE COLUMNS(create_time) ("
+                + "PARTITION p202412 VALUES LESS THAN ('2025-01-01 00:00:00'), "
+                + "PARTITION p202501 VALUES LESS THAN ('2025-02-01 00:00:00'), "
+                + "PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+            MonthlyRangePartitions.partitionBySql("sys_log", "create_time", months));
+        assertEquals("ALTER TABLE sys_log REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p202412 VALUES LESS THAN ('2025-01-01 00:00:00'), "
+                + "PARTITION p202501 VALUES LESS THAN ('2025-02-01 00:00:00'), "
+                + "PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+            MonthlyRangePartitions.addPartitionsSql("sys_log", months));
+        assertEquals("ALTER TABLE sys_log DROP PARTITION p202412, p202501",
+            MonthlyRangePartitions.dropPartitionsSql("sys_log", months));
+    }
+}